@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Non-interactive even/odd classifier for large streams of numbers.
+ *
+ * Input is read in large byte blocks and tokens are parsed straight from the
+ * buffer, so there is no Scanner, no regex and no String per number. Parity is
+ * decided from the last digit, so numbers of any length are accepted (not just
+ * the int range of the interactive mode). Results are written into a reusable
+ * output buffer that is only flushed when full.
+ */
+public class BulkParityProcessor {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] EVEN_SUFFIX = " is EVEN\n".getBytes();
+    private static final byte[] ODD_SUFFIX = " is ODD\n".getBytes();
+    private static final byte[] INVALID_SUFFIX = " is not a valid integer\n".getBytes();
+    private static final byte[] EXIT_TOKEN = "exit".getBytes();
+
+    private final byte[] inputBuffer = new byte[BUFFER_SIZE];
+    private final byte[] outputBuffer = new byte[BUFFER_SIZE];
+    private final boolean countOnly;
+    private byte[] token = new byte[32];
+    private int textLength;
+    private int tokenLength;
+    private boolean tokenValid;
+    private boolean exitCandidate;
+    private byte lastDigit;
+    private int outputPosition;
+    private OutputStream output;
+    private ParityCounts counts;
+
+    /**
+     * Creates a processor
+     * @param countOnly If true only the totals are kept and nothing is written per number
+     */
+    public BulkParityProcessor(boolean countOnly) {
+        this.countOnly = countOnly;
+    }
+
+    /**
+     * Classifies every whitespace-separated token of the input.
+     * Processing stops at end of input or at an "exit" token, just like the interactive mode.
+     * @param in Stream of numbers in text form
+     * @param out Destination for per-number results (may be null in count-only mode)
+     * @return Even, odd and invalid totals
+     * @throws IOException If reading or writing fails
+     */
+    public ParityCounts process(InputStream in, OutputStream out) throws IOException {
+        output = out;
+        counts = new ParityCounts();
+        outputPosition = 0;
+        resetToken();
+
+        int bytesRead;
+        boolean exitSeen = false;
+        while (!exitSeen && (bytesRead = in.read(inputBuffer)) != -1) {
+            for (int i = 0; i < bytesRead; i++) {
+                byte b = inputBuffer[i];
+                if (!isWhitespace(b)) {
+                    acceptTokenByte(b);
+                } else if (tokenLength > 0 && !finishToken()) {
+                    exitSeen = true;
+                    break;
+                }
+            }
+        }
+        if (!exitSeen && tokenLength > 0) {
+            finishToken();
+        }
+
+        drainOutput();
+        if (output != null) {
+            output.flush();
+        }
+        return counts;
+    }
+
+    /**
+     * Updates the token state with one byte. Only the sign, the last digit and
+     * whether the token could still be "exit" are tracked, so the length of the
+     * number does not matter and nothing is allocated per token.
+     */
+    private void acceptTokenByte(byte b) {
+        if (b >= '0' && b <= '9') {
+            lastDigit = b;
+        } else if (tokenLength > 0 || (b != '-' && b != '+')) {
+            tokenValid = false;
+        }
+
+        if (tokenLength < EXIT_TOKEN.length && EXIT_TOKEN[tokenLength] != b) {
+            exitCandidate = false;
+        }
+
+        if (!countOnly) {
+            appendTokenByte(b);
+        }
+        tokenLength++;
+    }
+
+    /**
+     * Classifies the token collected so far and resets it
+     * @return false if the token was "exit", true otherwise
+     */
+    private boolean finishToken() throws IOException {
+        boolean isExit = exitCandidate && tokenLength == EXIT_TOKEN.length;
+        boolean valid = tokenValid && lastDigit != 0;
+        // Parity of a decimal number is the parity of its last digit
+        boolean even = ((lastDigit - '0') & 1) == 0;
+        int length = textLength;
+        resetToken();
+
+        if (isExit) {
+            return false;
+        }
+
+        if (!valid) {
+            counts.addInvalid();
+            if (!countOnly) {
+                writeBytes(token, 0, length);
+                writeBytes(INVALID_SUFFIX, 0, INVALID_SUFFIX.length);
+            }
+            return true;
+        }
+
+        if (even) {
+            counts.addEven();
+        } else {
+            counts.addOdd();
+        }
+
+        if (!countOnly) {
+            writeBytes(token, 0, length);
+            byte[] suffix = even ? EVEN_SUFFIX : ODD_SUFFIX;
+            writeBytes(suffix, 0, suffix.length);
+        }
+        return true;
+    }
+
+    private void resetToken() {
+        tokenLength = 0;
+        textLength = 0;
+        tokenValid = true;
+        exitCandidate = true;
+        lastDigit = 0;
+    }
+
+    /**
+     * Keeps the token text for output; the scratch array only grows to the longest token seen
+     */
+    private void appendTokenByte(byte b) {
+        if (textLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, textLength);
+            token = larger;
+        }
+        token[textLength++] = b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (outputPosition + length > outputBuffer.length) {
+            drainOutput();
+            if (length > outputBuffer.length) {
+                output.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, outputBuffer, outputPosition, length);
+        outputPosition += length;
+    }
+
+    private void drainOutput() throws IOException {
+        if (outputPosition > 0) {
+            output.write(outputBuffer, 0, outputPosition);
+            outputPosition = 0;
+        }
+    }
+
+    /**
+     * Same ASCII characters that Scanner treats as delimiters by default
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+}
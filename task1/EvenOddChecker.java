@@ -1,7 +1,25 @@
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class EvenOddChecker {
+    private static final ParityKernel BATCH_KERNEL = loadBatchKernel();
+    
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--bulk")) {
+            runBulk(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--mapped")) {
+            runMapped(args);
+            return;
+        }
+        
         Scanner scanner = new Scanner(System.in);
         boolean continueProgram = true;
         
@@ -49,4 +67,130 @@ public class EvenOddChecker {
             System.out.println(number + " is ODD");
         }
     }
+    
+    /**
+     * Classifies a batch of numbers at once instead of one checkEvenOdd call per number
+     * @param values The numbers to check
+     * @param evenBits Bitmap receiving one bit per number, set when the number is even
+     *                 (needs at least (values.length + 63) / 64 words)
+     * @return Number of even values; the odd count is values.length minus this
+     */
+    public static long classifyBatch(int[] values, long[] evenBits) {
+        return BATCH_KERNEL.classify(values, evenBits);
+    }
+    
+    /**
+     * Classifies a batch of long values at once
+     * @param values The numbers to check
+     * @param evenBits Bitmap receiving one bit per number, set when the number is even
+     * @return Number of even values
+     */
+    public static long classifyBatch(long[] values, long[] evenBits) {
+        return BATCH_KERNEL.classify(values, evenBits);
+    }
+    
+    /**
+     * Allocates a bitmap large enough for classifyBatch
+     * @param valueCount Number of values that will be classified
+     * @return Zeroed bitmap
+     */
+    public static long[] newParityBitmap(int valueCount) {
+        return new long[ScalarParityKernel.bitmapLength(valueCount)];
+    }
+    
+    /**
+     * @return The kernel used by classifyBatch (vector when available, scalar otherwise)
+     */
+    public static ParityKernel getBatchKernel() {
+        return BATCH_KERNEL;
+    }
+    
+    /**
+     * Loads the Vector API kernel by name so this class still compiles and runs
+     * when the jdk.incubator.vector module is not enabled
+     */
+    private static ParityKernel loadBatchKernel() {
+        try {
+            return (ParityKernel) Class.forName("VectorParityKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarParityKernel();
+        }
+    }
+    
+    /**
+     * Runs the non-interactive bulk mode.
+     * Usage: java EvenOddChecker --bulk [--count] [file]
+     * Numbers are read from the file, or from standard input when no file is given.
+     * @param args Command line arguments starting with "--bulk"
+     */
+    private static void runBulk(String[] args) {
+        boolean countOnly = false;
+        String fileName = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--count")) {
+                countOnly = true;
+            } else {
+                fileName = args[i];
+            }
+        }
+        
+        OutputStream out = new BufferedOutputStream(System.out, 1 << 16);
+        try (InputStream in = fileName == null ? System.in : new FileInputStream(fileName)) {
+            long start = System.nanoTime();
+            ParityCounts counts = new BulkParityProcessor(countOnly).process(in, out);
+            long elapsed = System.nanoTime() - start;
+            
+            if (countOnly) {
+                System.out.println(counts);
+            }
+            double seconds = elapsed / 1_000_000_000.0;
+            System.err.printf("Processed %,d tokens in %.3f s (%,.0f tokens/s)%n",
+                counts.getTotal() + counts.getInvalidCount(), seconds,
+                (counts.getTotal() + counts.getInvalidCount()) / Math.max(seconds, 1e-9));
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Runs the parallel memory-mapped scan over a binary file.
+     * Usage: java EvenOddChecker --mapped file [--int64] [--even evenFile] [--odd oddFile]
+     * Values are little-endian int32 unless --int64 is given.
+     * @param args Command line arguments starting with "--mapped"
+     */
+    private static void runMapped(String[] args) {
+        int valueWidth = 4;
+        Path input = null;
+        Path evenOutput = null;
+        Path oddOutput = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--int64")) {
+                valueWidth = 8;
+            } else if (args[i].equals("--even") && i + 1 < args.length) {
+                evenOutput = Paths.get(args[++i]);
+            } else if (args[i].equals("--odd") && i + 1 < args.length) {
+                oddOutput = Paths.get(args[++i]);
+            } else {
+                input = Paths.get(args[i]);
+            }
+        }
+        
+        if (input == null) {
+            System.out.println("Usage: java EvenOddChecker --mapped file [--int64] [--even evenFile] [--odd oddFile]");
+            return;
+        }
+        
+        try {
+            long start = System.nanoTime();
+            ParityCounts counts = new MappedParityScanner(valueWidth).scan(input, evenOutput, oddOutput);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.println(counts);
+            System.err.printf("Scanned %,d values in %.3f s (%,.0f values/s)%n",
+                counts.getTotal(), seconds, counts.getTotal() / Math.max(seconds, 1e-9));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel even/odd scan over a binary file of little-endian int32 or int64 values.
+ *
+ * The file is split into fixed-size chunks that are memory-mapped and scanned by a
+ * fork-join pool, so no value is ever copied onto the Java heap. When even-only or
+ * odd-only output files are requested, a second pass writes each chunk's values at
+ * an offset computed from the per-chunk counts of the first pass, which keeps the
+ * output in input order without any merging.
+ */
+public class MappedParityScanner {
+    private static final long DEFAULT_CHUNK_SIZE = 64L << 20;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final int valueWidth;
+    private final long chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a scanner that uses the common fork-join pool
+     * @param valueWidth Size of each value in bytes (4 for int32, 8 for int64)
+     */
+    public MappedParityScanner(int valueWidth) {
+        this(valueWidth, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a scanner
+     * @param valueWidth Size of each value in bytes (4 for int32, 8 for int64)
+     * @param chunkSize Bytes mapped per task; rounded down to a whole number of values
+     * @param pool Pool that runs the chunk tasks
+     */
+    public MappedParityScanner(int valueWidth, long chunkSize, ForkJoinPool pool) {
+        if (valueWidth != 4 && valueWidth != 8) {
+            throw new IllegalArgumentException("Value width must be 4 or 8 bytes, got " + valueWidth);
+        }
+        if (chunkSize < valueWidth || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Chunk size must be between " + valueWidth
+                + " and " + Integer.MAX_VALUE + " bytes, got " + chunkSize);
+        }
+        this.valueWidth = valueWidth;
+        this.chunkSize = chunkSize - chunkSize % valueWidth;
+        this.pool = pool;
+    }
+
+    /**
+     * Counts the even and odd values of a file
+     * @param input Binary file of little-endian values
+     * @return Even and odd totals
+     * @throws IOException If the file cannot be read or is not a whole number of values
+     */
+    public ParityCounts scan(Path input) throws IOException {
+        return scan(input, null, null);
+    }
+
+    /**
+     * Counts the even and odd values of a file and optionally splits them into two files
+     * @param input Binary file of little-endian values
+     * @param evenOutput File that receives the even values in input order, or null
+     * @param oddOutput File that receives the odd values in input order, or null
+     * @return Even and odd totals
+     * @throws IOException If a file cannot be read or written, or the input is not a whole number of values
+     */
+    public ParityCounts scan(Path input, Path evenOutput, Path oddOutput) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % valueWidth != 0) {
+                throw new IOException("File size " + size + " is not a multiple of " + valueWidth + " bytes");
+            }
+
+            int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            long[] evenPerChunk = new long[chunkCount];
+            pool.invoke(new ChunkTask(channel, 0, chunkCount, evenPerChunk, null, null, null));
+
+            long evenTotal = 0;
+            long[] evenBefore = new long[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                evenBefore[i] = evenTotal;
+                evenTotal += evenPerChunk[i];
+            }
+
+            if (evenOutput != null || oddOutput != null) {
+                try (FileChannel evenChannel = openOutput(evenOutput);
+                     FileChannel oddChannel = openOutput(oddOutput)) {
+                    pool.invoke(new ChunkTask(channel, 0, chunkCount, evenPerChunk, evenBefore, evenChannel, oddChannel));
+                }
+            }
+
+            return new ParityCounts(evenTotal, size / valueWidth - evenTotal, 0);
+        }
+    }
+
+    private static FileChannel openOutput(Path path) throws IOException {
+        if (path == null) {
+            return null;
+        }
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Splits a range of chunks in half until a single chunk is left, then scans it.
+     * Without output channels it counts evens; with them it writes values to their files.
+     * Tasks are never serialized; they hold open channels.
+     */
+    @SuppressWarnings("serial")
+    private class ChunkTask extends RecursiveAction {
+        private final FileChannel channel;
+        private final int firstChunk;
+        private final int endChunk;
+        private final long[] evenPerChunk;
+        private final long[] evenBefore;
+        private final FileChannel evenChannel;
+        private final FileChannel oddChannel;
+
+        ChunkTask(FileChannel channel, int firstChunk, int endChunk, long[] evenPerChunk,
+                  long[] evenBefore, FileChannel evenChannel, FileChannel oddChannel) {
+            this.channel = channel;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+            this.evenPerChunk = evenPerChunk;
+            this.evenBefore = evenBefore;
+            this.evenChannel = evenChannel;
+            this.oddChannel = oddChannel;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk > 1) {
+                int middle = (firstChunk + endChunk) >>> 1;
+                invokeAll(new ChunkTask(channel, firstChunk, middle, evenPerChunk, evenBefore, evenChannel, oddChannel),
+                    new ChunkTask(channel, middle, endChunk, evenPerChunk, evenBefore, evenChannel, oddChannel));
+                return;
+            }
+            if (firstChunk == endChunk) {
+                return;
+            }
+
+            try {
+                long start = firstChunk * chunkSize;
+                long length = Math.min(chunkSize, channel.size() - start);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+
+                if (evenBefore == null) {
+                    evenPerChunk[firstChunk] = countEven(chunk, (int) length);
+                } else {
+                    long firstIndex = start / valueWidth;
+                    long evenOffset = evenBefore[firstChunk];
+                    long oddOffset = firstIndex - evenOffset;
+                    writeSplit(chunk, (int) length, evenOffset * valueWidth, oddOffset * valueWidth);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to scan chunk " + firstChunk + ": " + e.getMessage(), e);
+            }
+        }
+
+        private long countEven(ByteBuffer chunk, int length) {
+            long even = 0;
+            if (valueWidth == 4) {
+                for (int i = 0; i < length; i += 4) {
+                    even += ~chunk.getInt(i) & 1;
+                }
+            } else {
+                for (int i = 0; i < length; i += 8) {
+                    even += ~chunk.getLong(i) & 1L;
+                }
+            }
+            return even;
+        }
+
+        /**
+         * Copies each value into the even or odd write buffer, flushing them at their file positions
+         */
+        private void writeSplit(ByteBuffer chunk, int length, long evenPosition, long oddPosition) throws IOException {
+            ByteBuffer evenBuffer = evenChannel == null ? null
+                : ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer oddBuffer = oddChannel == null ? null
+                : ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            for (int i = 0; i < length; i += valueWidth) {
+                boolean even = valueWidth == 4 ? (chunk.getInt(i) & 1) == 0 : (chunk.getLong(i) & 1L) == 0;
+                ByteBuffer target = even ? evenBuffer : oddBuffer;
+                if (target == null) {
+                    continue;
+                }
+                if (valueWidth == 4) {
+                    target.putInt(chunk.getInt(i));
+                } else {
+                    target.putLong(chunk.getLong(i));
+                }
+                if (!target.hasRemaining()) {
+                    if (even) {
+                        evenPosition += flush(target, evenChannel, evenPosition);
+                    } else {
+                        oddPosition += flush(target, oddChannel, oddPosition);
+                    }
+                }
+            }
+
+            if (evenBuffer != null) {
+                flush(evenBuffer, evenChannel, evenPosition);
+            }
+            if (oddBuffer != null) {
+                flush(oddBuffer, oddChannel, oddPosition);
+            }
+        }
+
+        /**
+         * Writes the buffered values at a fixed file position; positional writes are safe across threads
+         * @return Number of bytes written
+         */
+        private long flush(ByteBuffer buffer, FileChannel target, long position) throws IOException {
+            buffer.flip();
+            long written = 0;
+            while (buffer.hasRemaining()) {
+                written += target.write(buffer, position + written);
+            }
+            buffer.clear();
+            return written;
+        }
+    }
+}
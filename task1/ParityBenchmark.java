@@ -0,0 +1,231 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Throughput benchmark for the even/odd checker.
+ *
+ * Usage: java ParityBenchmark [stream|digits|batch] [count]
+ * stream - compares the interactive Scanner loop with the bulk byte-buffer mode on the same input
+ * digits - classifies 120-digit numbers with BigInteger parsing and with the bulk last-digit scan
+ * batch  - compares "% 2", "& 1" and the Vector API kernel on in-memory int[]/long[] batches
+ *          (run with --add-modules jdk.incubator.vector to include the vector kernel)
+ */
+public class ParityBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final long MIN_WARMUP_NANOS = 1_000_000_000L;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "stream";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("=== Even/Odd Checker Throughput Benchmark ===");
+        System.out.println("Numbers per round: " + String.format("%,d", count));
+
+        switch (mode) {
+            case "stream":
+                byte[] input = generateInput(count, 42);
+                System.out.println("Input size: " + String.format("%,d", input.length) + " bytes\n");
+                benchmarkStreams(input, count);
+                break;
+            case "digits":
+                benchmarkLongTokens(count);
+                break;
+            case "batch":
+                benchmarkBatches(count);
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode + " (expected stream, digits or batch)");
+        }
+    }
+
+    /**
+     * Times the Scanner loop against the bulk processor
+     * @param input Numbers in text form
+     * @param count Number of values in the input
+     */
+    private static void benchmarkStreams(byte[] input, int count) throws IOException {
+        OutputStream discard = OutputStream.nullOutputStream();
+
+        report("Scanner loop (current)", count, measure(() -> scannerLoop(input)));
+        report("Bulk mode (output)", count, measure(() -> new BulkParityProcessor(false)
+            .process(new ByteArrayInputStream(input), discard)));
+        report("Bulk mode (count only)", count, measure(() -> new BulkParityProcessor(true)
+            .process(new ByteArrayInputStream(input), null)));
+    }
+
+    /**
+     * Times parity of very long numbers: BigInteger per token against the bulk last-digit scan
+     * @param count Number of 120-digit values
+     */
+    private static void benchmarkLongTokens(int count) throws IOException {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(count * 121);
+        for (int i = 0; i < count; i++) {
+            sb.append((char) ('1' + random.nextInt(9)));
+            for (int d = 1; d < 120; d++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            sb.append('\n');
+        }
+        byte[] input = sb.toString().getBytes();
+        long[] sink = new long[1];
+        System.out.println("Input size: " + String.format("%,d", input.length) + " bytes\n");
+
+        long bigIntegerNanos = measure(() -> {
+            Scanner scanner = new Scanner(new ByteArrayInputStream(input));
+            while (scanner.hasNext()) {
+                sink[0] += new BigInteger(scanner.next()).testBit(0) ? 0 : 1;
+            }
+        });
+        report("Scanner + BigInteger", count, bigIntegerNanos);
+
+        long bulkNanos = measure(() -> sink[0] += new BulkParityProcessor(true)
+            .process(new ByteArrayInputStream(input), null).getEvenCount());
+        report("Bulk last-digit scan", count, bulkNanos);
+        System.out.printf("%nBulk scan rate: %,.0f MB/s%n", input.length / (bulkNanos / 1_000.0));
+
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Times the per-element modulus branch against the batch kernels
+     * @param count Number of values per batch
+     */
+    private static void benchmarkBatches(int count) throws IOException {
+        Random random = new Random(42);
+        int[] ints = new int[count];
+        long[] longs = new long[count];
+        for (int i = 0; i < count; i++) {
+            ints[i] = random.nextInt();
+            longs[i] = random.nextLong();
+        }
+        long[] bitmap = EvenOddChecker.newParityBitmap(count);
+        ParityKernel scalar = new ScalarParityKernel();
+        ParityKernel batch = EvenOddChecker.getBatchKernel();
+        long[] sink = new long[1];
+
+        System.out.println("Batch kernel in use: " + batch.name() + "\n");
+
+        report("int[]  % 2 branch", count, measure(() -> sink[0] += moduloClassify(ints, bitmap)));
+        report("int[]  & 1 scalar", count, measure(() -> sink[0] += scalar.classify(ints, bitmap)));
+        if (!batch.name().equals(scalar.name())) {
+            report("int[]  " + batch.name(), count, measure(() -> sink[0] += batch.classify(ints, bitmap)));
+        }
+
+        report("long[] % 2 branch", count, measure(() -> sink[0] += moduloClassify(longs, bitmap)));
+        report("long[] & 1 scalar", count, measure(() -> sink[0] += scalar.classify(longs, bitmap)));
+        if (!batch.name().equals(scalar.name())) {
+            report("long[] " + batch.name(), count, measure(() -> sink[0] += batch.classify(longs, bitmap)));
+        } else {
+            System.out.println("\nVector kernel not available; run with --add-modules jdk.incubator.vector");
+        }
+
+        // Keep the results alive so the JIT cannot drop the loops
+        if (sink[0] == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Baseline: the same "% 2 == 0" branch that checkEvenOdd uses, once per element
+     */
+    private static long moduloClassify(int[] values, long[] evenBits) {
+        Arrays.fill(evenBits, 0L);
+        long even = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] % 2 == 0) {
+                evenBits[i >>> 6] |= 1L << i;
+                even++;
+            }
+        }
+        return even;
+    }
+
+    private static long moduloClassify(long[] values, long[] evenBits) {
+        Arrays.fill(evenBits, 0L);
+        long even = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] % 2 == 0) {
+                evenBits[i >>> 6] |= 1L << i;
+                even++;
+            }
+        }
+        return even;
+    }
+
+    /**
+     * Same loop as EvenOddChecker.main, with console output discarded
+     */
+    private static void scannerLoop(byte[] input) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Scanner scanner = new Scanner(new ByteArrayInputStream(input));
+            while (scanner.hasNext()) {
+                System.out.print("\nEnter a number (or 'exit' to quit): ");
+                if (scanner.hasNext("exit")) {
+                    break;
+                }
+                if (scanner.hasNextInt()) {
+                    EvenOddChecker.checkEvenOdd(scanner.nextInt());
+                } else {
+                    System.out.println("Error: Please enter a valid integer or 'exit' to quit.");
+                    scanner.next();
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Generates newline-separated random ints
+     */
+    static byte[] generateInput(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(count * 11);
+        for (int i = 0; i < count; i++) {
+            sb.append(random.nextInt()).append('\n');
+        }
+        return sb.toString().getBytes();
+    }
+
+    /**
+     * Warms a task up (at least WARMUP_ROUNDS runs and MIN_WARMUP_NANOS so the JIT has
+     * compiled it), then returns the best measured time in nanoseconds
+     */
+    static long measure(BenchmarkTask task) throws IOException {
+        long warmupStart = System.nanoTime();
+        for (int i = 0; i < WARMUP_ROUNDS || System.nanoTime() - warmupStart < MIN_WARMUP_NANOS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    static void report(String name, long operations, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-36s %10.2f ms %,16.0f ops/s%n", name, nanos / 1_000_000.0, operations / seconds);
+    }
+
+    /**
+     * A unit of benchmarked work
+     */
+    interface BenchmarkTask {
+        void run() throws IOException;
+    }
+}
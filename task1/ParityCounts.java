@@ -0,0 +1,72 @@
+/**
+ * Running totals of even, odd and invalid values seen by a parity scan
+ */
+public class ParityCounts {
+    private long evenCount;
+    private long oddCount;
+    private long invalidCount;
+
+    /**
+     * Creates an empty set of counts
+     */
+    public ParityCounts() {
+    }
+
+    /**
+     * Creates a set of counts with the given totals
+     * @param evenCount Number of even values
+     * @param oddCount Number of odd values
+     * @param invalidCount Number of tokens that were not valid numbers
+     */
+    public ParityCounts(long evenCount, long oddCount, long invalidCount) {
+        this.evenCount = evenCount;
+        this.oddCount = oddCount;
+        this.invalidCount = invalidCount;
+    }
+
+    public void addEven() {
+        evenCount++;
+    }
+
+    public void addOdd() {
+        oddCount++;
+    }
+
+    public void addInvalid() {
+        invalidCount++;
+    }
+
+    /**
+     * Adds the totals of another set of counts to this one
+     * @param other Counts to merge in
+     */
+    public void add(ParityCounts other) {
+        evenCount += other.evenCount;
+        oddCount += other.oddCount;
+        invalidCount += other.invalidCount;
+    }
+
+    public long getEvenCount() {
+        return evenCount;
+    }
+
+    public long getOddCount() {
+        return oddCount;
+    }
+
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+    /**
+     * @return Number of valid values (even + odd)
+     */
+    public long getTotal() {
+        return evenCount + oddCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Even: " + evenCount + " | Odd: " + oddCount + " | Invalid: " + invalidCount;
+    }
+}
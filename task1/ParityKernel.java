@@ -0,0 +1,27 @@
+/**
+ * Classifies batches of values into an even bitmap.
+ * Bit i of the bitmap (word i / 64, bit i % 64) is set when values[i] is even.
+ */
+public interface ParityKernel {
+
+    /**
+     * Classifies every value of the array
+     * @param values Values to classify
+     * @param evenBits Output bitmap with room for at least values.length bits
+     * @return Number of even values
+     */
+    long classify(int[] values, long[] evenBits);
+
+    /**
+     * Classifies every value of the array
+     * @param values Values to classify
+     * @param evenBits Output bitmap with room for at least values.length bits
+     * @return Number of even values
+     */
+    long classify(long[] values, long[] evenBits);
+
+    /**
+     * @return Short name used in benchmark and diagnostic output
+     */
+    String name();
+}
@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Load generator for ParityServer.
+ *
+ * Usage: java ParityLoadClient [host] [port] [clients] [requestsPerClient] [pipelineDepth]
+ * Each client opens one connection and sends its requests in pipelined batches,
+ * timing every request from the moment its batch is sent until its answer line arrives.
+ * Reports overall requests/sec and latency percentiles.
+ */
+public class ParityLoadClient {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ParityServer.DEFAULT_PORT;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int requestsPerClient = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        int pipelineDepth = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+
+        System.out.println("=== Parity Server Load Test ===");
+        System.out.printf("Target: %s:%d | Clients: %d | Requests/client: %,d | Pipeline depth: %d%n",
+            host, port, clients, requestsPerClient, pipelineDepth);
+
+        List<Thread> threads = new ArrayList<>();
+        long[][] latencies = new long[clients][];
+        long[] errors = new long[clients];
+        long start = System.nanoTime();
+
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    latencies[client] = runClient(host, port, requestsPerClient, pipelineDepth, client);
+                } catch (IOException e) {
+                    errors[client] = 1;
+                    latencies[client] = new long[0];
+                    System.err.println("Client " + client + " failed: " + e.getMessage());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        System.out.printf("Completed %,d requests in %.2f s (%,.0f requests/s)%n", all.length, seconds, all.length / seconds);
+        if (all.length > 0) {
+            System.out.printf("Latency p50: %.1f us | p99: %.1f us | max: %.1f us%n",
+                percentile(all, 50) / 1000.0, percentile(all, 99) / 1000.0, all[all.length - 1] / 1000.0);
+        }
+        long failed = Arrays.stream(errors).sum();
+        if (failed > 0) {
+            System.out.println("Failed clients: " + failed);
+        }
+    }
+
+    /**
+     * Sends all requests of one client and records the latency of each
+     * @return Per-request latencies in nanoseconds
+     */
+    private static long[] runClient(String host, int port, int requests, int pipelineDepth, long seed) throws IOException {
+        long[] latencies = new long[requests];
+        byte[] response = new byte[8192];
+        Random random = new Random(seed);
+
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            StringBuilder batch = new StringBuilder(pipelineDepth * 12);
+
+            for (int sent = 0; sent < requests; sent += pipelineDepth) {
+                int batchSize = Math.min(pipelineDepth, requests - sent);
+                batch.setLength(0);
+                for (int i = 0; i < batchSize; i++) {
+                    batch.append(random.nextInt()).append('\n');
+                }
+
+                long batchStart = System.nanoTime();
+                out.write(batch.toString().getBytes());
+                out.flush();
+
+                int answered = 0;
+                while (answered < batchSize) {
+                    int bytesRead = in.read(response);
+                    if (bytesRead == -1) {
+                        throw new IOException("Server closed the connection");
+                    }
+                    long now = System.nanoTime();
+                    for (int i = 0; i < bytesRead; i++) {
+                        if (response[i] == '\n') {
+                            latencies[sent + answered++] = now - batchStart;
+                        }
+                    }
+                }
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     */
+    private static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
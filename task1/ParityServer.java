@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Line-protocol TCP front end for the even/odd checker.
+ *
+ * Clients send one number per line and receive EVEN, ODD or ERROR per line, in order.
+ * Requests may be pipelined: every block read from the socket is answered with a
+ * single write, so a client that sends many lines at once gets its answers batched.
+ * Each connection runs on its own virtual thread when the JDK provides them
+ * (Java 21+), otherwise on a cached platform thread pool.
+ *
+ * Usage: java ParityServer [port]
+ */
+public class ParityServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] EVEN = "EVEN\n".getBytes();
+    private static final byte[] ODD = "ODD\n".getBytes();
+    private static final byte[] ERROR = "ERROR\n".getBytes();
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+
+    /**
+     * Binds the server socket
+     * @param port Port to listen on (0 picks a free port)
+     * @throws IOException If the port cannot be bound
+     */
+    public ParityServer(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port), 1024);
+        connections = newConnectionExecutor();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        try (ParityServer server = new ParityServer(port)) {
+            System.out.println("=== Even/Odd Parity Server ===");
+            System.out.println("Listening on port " + server.getPort() + " (" + threadKind() + " per connection)");
+            server.serve();
+        }
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Answers every line of one connection. Parity is decided from the last digit,
+     * as in bulk mode, so numbers of any length are accepted.
+     */
+    private void handle(Socket socket) {
+        byte[] request = new byte[BUFFER_SIZE];
+        // Worst case is a block of empty lines, each answered with ERROR
+        byte[] response = new byte[BUFFER_SIZE * ERROR.length];
+        int lineLength = 0;
+        boolean lineValid = true;
+        boolean blankAfterNumber = false;
+        byte lastDigit = 0;
+
+        try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+            socket.setTcpNoDelay(true);
+            int bytesRead;
+            while ((bytesRead = in.read(request)) != -1) {
+                int responseLength = 0;
+                for (int i = 0; i < bytesRead; i++) {
+                    byte b = request[i];
+                    if (b == '\n') {
+                        byte[] answer = !lineValid || lastDigit == 0 ? ERROR
+                            : ((lastDigit - '0') & 1) == 0 ? EVEN : ODD;
+                        System.arraycopy(answer, 0, response, responseLength, answer.length);
+                        responseLength += answer.length;
+                        lineLength = 0;
+                        lineValid = true;
+                        blankAfterNumber = false;
+                        lastDigit = 0;
+                    } else if (b == '\r' || b == ' ' || b == '\t') {
+                        // Tolerate CRLF line endings and surrounding blanks
+                        blankAfterNumber = lineLength > 0;
+                    } else {
+                        if (blankAfterNumber) {
+                            lineValid = false;
+                        } else if (b >= '0' && b <= '9') {
+                            lastDigit = b;
+                        } else if (lineLength > 0 || (b != '-' && b != '+')) {
+                            lineValid = false;
+                        }
+                        lineLength++;
+                    }
+                }
+                // One write per block read: pipelined requests get batched responses
+                if (responseLength > 0) {
+                    out.write(response, 0, responseLength);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client went away; nothing to report back
+        }
+    }
+
+    /**
+     * Uses Executors.newVirtualThreadPerTaskExecutor when the running JDK has it.
+     * It is looked up reflectively so the server still compiles and runs on Java 17.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "parity-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static String threadKind() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return "virtual thread";
+        } catch (NoSuchMethodException e) {
+            return "platform thread";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Portable parity kernel that tests the lowest bit with "& 1" instead of "% 2".
+ * Bits are assembled without branches, so the JIT is free to unroll the loop.
+ */
+public class ScalarParityKernel implements ParityKernel {
+
+    @Override
+    public long classify(int[] values, long[] evenBits) {
+        checkCapacity(values.length, evenBits);
+        long evenCount = 0;
+        for (int base = 0; base < values.length; base += 64) {
+            int end = Math.min(base + 64, values.length);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                // ~value & 1 is 1 exactly when the value is even
+                word |= (long) (~values[i] & 1) << (i - base);
+            }
+            evenBits[base >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+        return evenCount;
+    }
+
+    @Override
+    public long classify(long[] values, long[] evenBits) {
+        checkCapacity(values.length, evenBits);
+        long evenCount = 0;
+        for (int base = 0; base < values.length; base += 64) {
+            int end = Math.min(base + 64, values.length);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (~values[i] & 1L) << (i - base);
+            }
+            evenBits[base >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+        return evenCount;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * Ensures the bitmap can hold one bit per value
+     */
+    static void checkCapacity(int valueCount, long[] evenBits) {
+        if (evenBits.length < bitmapLength(valueCount)) {
+            throw new IllegalArgumentException("Bitmap needs " + bitmapLength(valueCount)
+                + " words for " + valueCount + " values but has " + evenBits.length);
+        }
+    }
+
+    /**
+     * @param valueCount Number of values to classify
+     * @return Number of long words needed for the bitmap
+     */
+    static int bitmapLength(int valueCount) {
+        return (valueCount + 63) >>> 6;
+    }
+}
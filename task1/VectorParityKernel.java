@@ -0,0 +1,106 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Parity kernel built on the incubating JDK Vector API.
+ *
+ * Each vector of values is inverted and masked with 1, so every lane holds 1 for an
+ * even value. Shifting lane i left by i and OR-reducing the lanes packs the slice
+ * into bits without leaving vector registers (VectorMask.toLong is not intrinsified
+ * on every JDK, so it is avoided). Requires --add-modules jdk.incubator.vector at compile and
+ * run time; EvenOddChecker falls back to ScalarParityKernel when it is missing.
+ */
+public class VectorParityKernel implements ParityKernel {
+    // At most 32 int lanes and 64 long lanes, so one reduction always fits the result type
+    private static final VectorSpecies<Integer> INT_SPECIES =
+        IntVector.SPECIES_PREFERRED.length() <= 32 ? IntVector.SPECIES_PREFERRED : IntVector.SPECIES_512;
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final IntVector INT_LANE_SHIFTS = IntVector.fromArray(INT_SPECIES, laneIndexes(INT_SPECIES.length()), 0);
+    private static final LongVector LONG_LANE_SHIFTS = LongVector.fromArray(LONG_SPECIES, longLaneIndexes(LONG_SPECIES.length()), 0);
+
+    @Override
+    public long classify(int[] values, long[] evenBits) {
+        ScalarParityKernel.checkCapacity(values.length, evenBits);
+        int lanes = INT_SPECIES.length();
+        // Lane counts are powers of two, so whole vectors always fill whole 64-bit words
+        int vectorEnd = values.length - values.length % 64;
+        long evenCount = 0;
+
+        for (int base = 0; base < vectorEnd; base += 64) {
+            long word = 0;
+            for (int offset = 0; offset < 64; offset += lanes) {
+                int bits = IntVector.fromArray(INT_SPECIES, values, base + offset)
+                    .not().and(1)
+                    .lanewise(VectorOperators.LSHL, INT_LANE_SHIFTS)
+                    .reduceLanes(VectorOperators.OR);
+                word |= (bits & 0xFFFFFFFFL) << offset;
+            }
+            evenBits[base >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+
+        if (vectorEnd < values.length) {
+            long word = 0;
+            for (int i = vectorEnd; i < values.length; i++) {
+                word |= (long) (~values[i] & 1) << (i - vectorEnd);
+            }
+            evenBits[vectorEnd >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+        return evenCount;
+    }
+
+    @Override
+    public long classify(long[] values, long[] evenBits) {
+        ScalarParityKernel.checkCapacity(values.length, evenBits);
+        int lanes = LONG_SPECIES.length();
+        int vectorEnd = values.length - values.length % 64;
+        long evenCount = 0;
+
+        for (int base = 0; base < vectorEnd; base += 64) {
+            long word = 0;
+            for (int offset = 0; offset < 64; offset += lanes) {
+                long bits = LongVector.fromArray(LONG_SPECIES, values, base + offset)
+                    .not().and(1L)
+                    .lanewise(VectorOperators.LSHL, LONG_LANE_SHIFTS)
+                    .reduceLanes(VectorOperators.OR);
+                word |= bits << offset;
+            }
+            evenBits[base >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+
+        if (vectorEnd < values.length) {
+            long word = 0;
+            for (int i = vectorEnd; i < values.length; i++) {
+                word |= (~values[i] & 1L) << (i - vectorEnd);
+            }
+            evenBits[vectorEnd >>> 6] = word;
+            evenCount += Long.bitCount(word);
+        }
+        return evenCount;
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + INT_SPECIES.length() + "x int, " + LONG_SPECIES.length() + "x long)";
+    }
+
+    private static int[] laneIndexes(int lanes) {
+        int[] indexes = new int[lanes];
+        for (int i = 0; i < lanes; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private static long[] longLaneIndexes(int lanes) {
+        long[] indexes = new long[lanes];
+        for (int i = 0; i < lanes; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
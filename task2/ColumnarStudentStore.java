@@ -0,0 +1,342 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Struct-of-arrays student store for very large rosters.
+ *
+ * Instead of one Student object plus one String per student, every field lives
+ * in its own column: IDs and name offsets as 4-byte ints, grades as 8-byte
+ * doubles, and all names back to back in one shared UTF-8 byte arena (a name
+ * ends where the next slot's name starts). That is 16 bytes plus the name bytes
+ * per student, with no object headers or pointers for the garbage collector to trace.
+ *
+ * Columns are ByteBuffers so the same code serves both variants: heap buffers
+ * (backed by plain arrays) or direct buffers allocated outside the Java heap.
+ * Student objects are only created when a caller asks for one (find, iterate).
+ *
+ * A small on-heap bitmap marks live slots so scans can skip removed ones cheaply;
+ * removed slots are reclaimed by compacting the columns and the name arena when
+ * the store fills up.
+ */
+public class ColumnarStudentStore implements StudentStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int AVERAGE_NAME_BYTES = 16;
+
+    private final boolean offHeap;
+    private final IntIndexMap slotById;
+    private ByteBuffer ids;
+    private ByteBuffer grades;
+    private ByteBuffer nameOffsets;
+    private ByteBuffer names;
+    private long[] liveSlots;
+    private int capacity;
+    private int used;
+    private int size;
+    private int namesUsed;
+
+    /**
+     * Creates an empty store on the Java heap
+     */
+    public ColumnarStudentStore() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty store
+     * @param offHeap If true the columns are allocated as direct buffers outside the Java heap
+     */
+    public ColumnarStudentStore(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.slotById = new IntIndexMap(INITIAL_CAPACITY);
+        this.capacity = INITIAL_CAPACITY;
+        ids = allocate(capacity * Integer.BYTES);
+        grades = allocate(capacity * Double.BYTES);
+        nameOffsets = allocate(capacity * Integer.BYTES);
+        names = allocate(capacity * AVERAGE_NAME_BYTES);
+        liveSlots = new long[capacity >>> 6];
+    }
+
+    @Override
+    public boolean add(Student student) {
+        if (slotById.containsKey(student.getId())) {
+            return false;
+        }
+        byte[] nameBytes = student.getName().getBytes(StandardCharsets.UTF_8);
+        if (used == capacity) {
+            makeRoom();
+        }
+        ensureNameSpace(nameBytes.length);
+
+        int slot = used++;
+        ids.putInt(slot * Integer.BYTES, student.getId());
+        grades.putDouble(slot * Double.BYTES, student.getGrade());
+        nameOffsets.putInt(slot * Integer.BYTES, namesUsed);
+        names.put(namesUsed, nameBytes);
+        namesUsed += nameBytes.length;
+        liveSlots[slot >>> 6] |= 1L << slot;
+
+        slotById.put(student.getId(), slot);
+        size++;
+        return true;
+    }
+
+    @Override
+    public Student remove(int id) {
+        int slot = slotById.remove(id);
+        if (slot == IntIndexMap.MISSING) {
+            return null;
+        }
+        size--;
+        Student removed = materialize(slot);
+        liveSlots[slot >>> 6] &= ~(1L << slot);
+        if (slot == used - 1) {
+            used--;
+            namesUsed = nameOffsets.getInt(slot * Integer.BYTES);
+        }
+        return removed;
+    }
+
+    @Override
+    public Student find(int id) {
+        int slot = slotById.get(id);
+        return slot == IntIndexMap.MISSING ? null : materialize(slot);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return slotById.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Average grade computed by scanning the grade column only
+     * @return Mean grade, or NaN if the store is empty
+     */
+    public double averageGrade() {
+        double sum = 0.0;
+        for (int base = 0; base < used; base += 64) {
+            long live = liveSlots[base >>> 6];
+            int end = Math.min(base + 64, used);
+            if (live == -1L) {
+                // Every slot in this word is live: a straight column scan
+                for (int slot = base; slot < end; slot++) {
+                    sum += grades.getDouble(slot * Double.BYTES);
+                }
+            } else {
+                while (live != 0) {
+                    int slot = base + Long.numberOfTrailingZeros(live);
+                    sum += grades.getDouble(slot * Double.BYTES);
+                    live &= live - 1;
+                }
+            }
+        }
+        return size == 0 ? Double.NaN : sum / size;
+    }
+
+    /**
+     * Counts students within a grade range by scanning the grade column only
+     * @param minGrade Lowest grade, inclusive
+     * @param maxGrade Highest grade, inclusive
+     * @return Number of matching students
+     */
+    public int countInGradeRange(double minGrade, double maxGrade) {
+        int count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            double grade = grades.getDouble(slot * Double.BYTES);
+            if (grade >= minGrade && grade <= maxGrade && isLive(slot)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true if the columns live outside the Java heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * @return Bytes reserved by the columns, the name arena and the ID index
+     */
+    public long footprintBytes() {
+        return (long) ids.capacity() + grades.capacity() + nameOffsets.capacity()
+            + names.capacity() + (long) liveSlots.length * Long.BYTES + slotById.footprintBytes();
+    }
+
+    /**
+     * Compacts the store and shrinks every column and the name arena to what is in use.
+     * Useful after loading a large roster, since growth doubles the capacity.
+     */
+    public void trimToSize() {
+        compact();
+        capacity = Math.max(64, (used + 63) & ~63);
+        ids = resize(ids, capacity * Integer.BYTES);
+        grades = resize(grades, capacity * Double.BYTES);
+        nameOffsets = resize(nameOffsets, capacity * Integer.BYTES);
+        names = resize(names, Math.max(namesUsed, 1));
+        liveSlots = Arrays.copyOf(liveSlots, capacity >>> 6);
+    }
+
+    /**
+     * Iterates over the students in insertion order, creating a Student for each
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<Student>() {
+            private int next = skipDead(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public Student next() {
+                if (next >= used) {
+                    throw new NoSuchElementException();
+                }
+                Student student = materialize(next);
+                next = skipDead(next + 1);
+                return student;
+            }
+        };
+    }
+
+    /**
+     * Lists one page of students. Whole bitmap words are skipped by counting their
+     * live bits, and only the students on the page are created.
+     */
+    @Override
+    public List<Student> page(int offset, int limit) {
+        List<Student> page = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+        int base = 0;
+        int remaining = Math.max(offset, 0);
+        while (base < used) {
+            int live = Long.bitCount(liveSlots[base >>> 6]);
+            if (live > remaining) {
+                break;
+            }
+            remaining -= live;
+            base += 64;
+        }
+        int slot = skipDead(base);
+        for (; remaining > 0 && slot < used; remaining--) {
+            slot = skipDead(slot + 1);
+        }
+        for (; slot < used && page.size() < limit; slot = skipDead(slot + 1)) {
+            page.add(materialize(slot));
+        }
+        return page;
+    }
+
+    private int skipDead(int slot) {
+        while (slot < used && !isLive(slot)) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private boolean isLive(int slot) {
+        return (liveSlots[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Names are stored in slot order, so a name ends where the next slot's begins
+     */
+    private int nameEnd(int slot) {
+        return slot + 1 < used ? nameOffsets.getInt((slot + 1) * Integer.BYTES) : namesUsed;
+    }
+
+    private Student materialize(int slot) {
+        int offset = nameOffsets.getInt(slot * Integer.BYTES);
+        int length = nameEnd(slot) - offset;
+        byte[] nameBytes = new byte[length];
+        names.get(offset, nameBytes);
+        return new Student(ids.getInt(slot * Integer.BYTES), new String(nameBytes, StandardCharsets.UTF_8),
+            grades.getDouble(slot * Double.BYTES));
+    }
+
+    /**
+     * Compacts live slots to the front if at least a quarter are dead, otherwise doubles the columns
+     */
+    private void makeRoom() {
+        if (size <= used - (used >>> 2)) {
+            compact();
+        } else {
+            capacity *= 2;
+            ids = resize(ids, capacity * Integer.BYTES);
+            grades = resize(grades, capacity * Double.BYTES);
+            nameOffsets = resize(nameOffsets, capacity * Integer.BYTES);
+            liveSlots = Arrays.copyOf(liveSlots, capacity >>> 6);
+        }
+    }
+
+    private void ensureNameSpace(int length) {
+        if (namesUsed + length <= names.capacity()) {
+            return;
+        }
+        long required = (long) namesUsed + length;
+        long grown = Math.max(required, (long) names.capacity() * 2);
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Name arena is full (" + namesUsed + " bytes)");
+        }
+        names = resize(names, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Moves live slots and their names to the front. Targets never pass their sources,
+     * so the columns and the arena are rewritten in place.
+     */
+    private void compact() {
+        int target = 0;
+        int nameTarget = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            int id = ids.getInt(slot * Integer.BYTES);
+            int offset = nameOffsets.getInt(slot * Integer.BYTES);
+            int length = nameEnd(slot) - offset;
+            if (target != slot) {
+                ids.putInt(target * Integer.BYTES, id);
+                grades.putDouble(target * Double.BYTES, grades.getDouble(slot * Double.BYTES));
+                slotById.put(id, target);
+            }
+            if (nameTarget != offset) {
+                names.put(nameTarget, names, offset, length);
+            }
+            nameOffsets.putInt(target * Integer.BYTES, nameTarget);
+            nameTarget += length;
+            target++;
+        }
+        Arrays.fill(liveSlots, 0L);
+        for (int slot = 0; slot < target; slot++) {
+            liveSlots[slot >>> 6] |= 1L << slot;
+        }
+        used = target;
+        namesUsed = nameTarget;
+    }
+
+    private ByteBuffer allocate(int bytes) {
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer resize(ByteBuffer old, int bytes) {
+        ByteBuffer resized = allocate(bytes);
+        resized.put(0, old, 0, Math.min(bytes, old.capacity()));
+        return resized;
+    }
+}
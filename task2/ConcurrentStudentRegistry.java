@@ -0,0 +1,345 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe student storage for many sessions sharing one roster.
+ *
+ * Like StudentRegistry, students sit in one array in insertion order (the log)
+ * and an ID index maps each ID to its slot. Here the ID index is split into
+ * stripes by ID, each guarded by its own StampedLock, so writers to different
+ * stripes never wait for each other; they claim log slots with a CAS.
+ *
+ * Reads take no lock. A lookup by ID reads its stripe optimistically and only
+ * falls back to a read lock if a writer changed that stripe meanwhile. Listings
+ * scan the log directly: every slot holds a whole student or null, so a listing
+ * never sees a half-written change, although it may see some concurrent changes
+ * and not others. Live students are also counted per block of 1024 slots, so a
+ * page deep into the roster skips whole blocks instead of reading every slot
+ * before it. When the log is full it is copied into a new, compacted or
+ * larger array while all stripes are write-locked, and then swapped in; readers
+ * still scanning the old copy keep a consistent (if slightly stale) view.
+ *
+ * Note: a student's ID must not be changed with setId while it is registered.
+ */
+public class ConcurrentStudentRegistry implements StudentStore {
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int BLOCK_SHIFT = 10;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeShift;
+    private volatile Log log = new Log(MIN_CAPACITY);
+
+    /**
+     * Creates an empty registry with 64 stripes
+     */
+    public ConcurrentStudentRegistry() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty registry
+     * @param stripeCount Number of independently locked stripes; rounded up to a power of two
+     */
+    public ConcurrentStudentRegistry(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + stripeCount);
+        }
+        int count = Integer.highestOneBit(stripeCount);
+        if (count < stripeCount) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = count - 1;
+        stripeShift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * Adds a student unless its ID is already registered
+     * @param student Student to add
+     * @return true if added, false if the ID already exists
+     */
+    @Override
+    public boolean add(Student student) {
+        int id = student.getId();
+        Stripe stripe = stripeFor(id);
+        while (true) {
+            Log full;
+            long stamp = stripe.lock.writeLock();
+            try {
+                if (stripe.slotById.containsKey(id)) {
+                    return false;
+                }
+                // The log is only swapped while every stripe is locked, so it stays put until unlock
+                Log current = log;
+                int slot = current.claim();
+                if (slot >= 0) {
+                    current.slots.set(slot, student);
+                    current.liveInBlock.incrementAndGet(slot >>> BLOCK_SHIFT);
+                    stripe.slotById.put(id, slot);
+                    stripe.size++;
+                    return true;
+                }
+                full = current;
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+            makeRoom(full);
+        }
+    }
+
+    /**
+     * Removes a student by ID
+     * @param id Student ID
+     * @return The removed student, or null if not found
+     */
+    @Override
+    public Student remove(int id) {
+        Stripe stripe = stripeFor(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            int slot = stripe.slotById.remove(id);
+            if (slot == IntIndexMap.MISSING) {
+                return null;
+            }
+            Log current = log;
+            Student removed = current.slots.getAndSet(slot, null);
+            current.liveInBlock.decrementAndGet(slot >>> BLOCK_SHIFT);
+            stripe.size--;
+            // Give the slot back if it was the last one claimed, so add-then-remove cycles do not fill the log
+            current.next.compareAndSet(slot + 1, slot);
+            return removed;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Finds a student by ID without locking unless a writer is changing the same stripe
+     * @param id Student ID
+     * @return The student, or null if not found
+     */
+    @Override
+    public Student find(int id) {
+        Stripe stripe = stripeFor(id);
+        long stamp = stripe.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Student student = stripe.find(id, log);
+                if (stripe.lock.validate(stamp)) {
+                    return student;
+                }
+            } catch (RuntimeException e) {
+                // IntIndexMap resized under the read (an index past a replaced array)
+                if (stripe.lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.find(id, log);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return find(id) != null;
+    }
+
+    /**
+     * @return Number of students; while writers are active this may count some of their changes and not others
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Iterates over the students in insertion order without locking.
+     * The iterator never fails because of concurrent changes; students added or
+     * removed while it runs may or may not be seen.
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        Log current = log;
+        int end = current.end();
+        return new Iterator<Student>() {
+            private int slot = -1;
+            private Student next = advance();
+
+            private Student advance() {
+                while (++slot < end) {
+                    Student student = current.slots.get(slot);
+                    if (student != null) {
+                        return student;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Student next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Student student = next;
+                next = advance();
+                return student;
+            }
+        };
+    }
+
+    /**
+     * Lists one page of students in insertion order without locking
+     */
+    @Override
+    public List<Student> page(int offset, int limit) {
+        Log current = log;
+        int end = current.end();
+        List<Student> page = new ArrayList<>(Math.max(0, Math.min(limit, end - offset)));
+        int slot = 0;
+        int skipped = 0;
+        while (slot < end) {
+            int live = current.liveInBlock.get(slot >>> BLOCK_SHIFT);
+            if (skipped + live > offset) {
+                break;
+            }
+            skipped += live;
+            slot += 1 << BLOCK_SHIFT;
+        }
+        for (; slot < end && page.size() < limit; slot++) {
+            Student student = current.slots.get(slot);
+            if (student != null && skipped++ >= offset) {
+                page.add(student);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Replaces a full log with a compacted copy if at least a quarter of it is
+     * empty, otherwise with a copy twice the size. Every stripe is write-locked
+     * (in order, so two callers cannot deadlock) while the slots are renumbered.
+     */
+    private void makeRoom(Log full) {
+        long[] stamps = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stamps[i] = stripes[i].lock.writeLock();
+        }
+        try {
+            if (log != full) {
+                return; // Another writer already made room
+            }
+            int live = 0;
+            for (Stripe stripe : stripes) {
+                live += stripe.size;
+            }
+            int capacity = full.capacity();
+            Log larger = new Log(live <= capacity - (capacity >>> 2) ? capacity : capacity * 2);
+            int target = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                Student student = full.slots.get(slot);
+                if (student != null) {
+                    larger.slots.set(target, student);
+                    larger.liveInBlock.incrementAndGet(target >>> BLOCK_SHIFT);
+                    if (target != slot) {
+                        stripeFor(student.getId()).slotById.put(student.getId(), target);
+                    }
+                    target++;
+                }
+            }
+            larger.next.set(target);
+            log = larger;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].lock.unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    private Stripe stripeFor(int id) {
+        // Top bits of the hash: IntIndexMap probes by the low bits, which must still vary within a stripe
+        return stripes[((id * 0x9E3779B9) >>> stripeShift) & stripeMask];
+    }
+
+    /**
+     * One lock's share of the ID index
+     */
+    private static class Stripe {
+        final StampedLock lock = new StampedLock();
+        final IntIndexMap slotById = new IntIndexMap();
+        volatile int size;
+
+        Student find(int id, Log log) {
+            int slot = slotById.get(id);
+            if (slot == IntIndexMap.MISSING || slot >= log.capacity()) {
+                return null;
+            }
+            Student student = log.slots.get(slot);
+            // A racing writer can leave another student in the slot; validate() rejects the read anyway
+            return student != null && student.getId() == id ? student : null;
+        }
+    }
+
+    /**
+     * Students in insertion order; removed students leave null slots
+     */
+    private static class Log {
+        final AtomicReferenceArray<Student> slots;
+        final AtomicIntegerArray liveInBlock;
+        final AtomicInteger next = new AtomicInteger();
+
+        Log(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+            liveInBlock = new AtomicIntegerArray(capacity >>> BLOCK_SHIFT);
+        }
+
+        int capacity() {
+            return slots.length();
+        }
+
+        /**
+         * @return End of the claimed slots
+         */
+        int end() {
+            return Math.min(next.get(), capacity());
+        }
+
+        /**
+         * @return A free slot at the end of the log, or -1 if the log is full
+         */
+        int claim() {
+            while (true) {
+                int slot = next.get();
+                if (slot == capacity()) {
+                    return -1;
+                }
+                if (next.compareAndSet(slot, slot + 1)) {
+                    return slot;
+                }
+            }
+        }
+    }
+}
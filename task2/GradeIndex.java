@@ -0,0 +1,337 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Ordered index of students by grade supporting range, top-K and percentile queries.
+ *
+ * Implemented as a treap (randomized balanced binary search tree) keyed by
+ * (grade, id), where every node also stores the size of its subtree. That makes
+ * insert, delete and "k-th smallest grade" O(log n), and range or top-K queries
+ * O(log n + k), so ranked reports never need to copy and sort the roster.
+ * Nodes keep only the grade and the ID, so the index works with any StudentStore
+ * and does not pin Student objects in memory; queries return IDs.
+ *
+ * Note: a student's grade or ID must not be changed while it is indexed.
+ */
+public class GradeIndex {
+    private final Random priorities = new Random();
+    private Node root;
+    // Results of the last split, kept in fields to avoid allocating a pair per call
+    private Node splitLeft;
+    private Node splitRight;
+
+    /**
+     * Tree node holding one student's grade and ID
+     */
+    private static class Node {
+        final double grade;
+        final int id;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(double grade, int id, int priority) {
+            this.grade = grade;
+            this.id = id;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Adds a student to the index
+     * @param student Student to add
+     */
+    public void add(Student student) {
+        Node node = new Node(student.getGrade(), student.getId(), priorities.nextInt());
+        split(root, node.grade, node.id, false);
+        Node right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+    }
+
+    /**
+     * Removes a student from the index
+     * @param student Student to remove (matched by grade and ID)
+     * @return true if the student was indexed
+     */
+    public boolean remove(Student student) {
+        double grade = student.getGrade();
+        int id = student.getId();
+        split(root, grade, id, false);
+        Node less = splitLeft;
+        split(splitRight, grade, id, true);
+        Node greater = splitRight;
+        boolean found = splitLeft != null;
+        root = merge(less, greater);
+        return found;
+    }
+
+    /**
+     * Adds many students. An empty index is built in one go from the sorted keys,
+     * which is much faster than inserting the students one at a time.
+     * @param students Students to add
+     */
+    public void addAll(List<Student> students) {
+        if (root != null) {
+            for (Student student : students) {
+                add(student);
+            }
+            return;
+        }
+        int n = students.size();
+        double[] distinctGrades = new double[n];
+        for (int i = 0; i < n; i++) {
+            distinctGrades[i] = students.get(i).getGrade();
+        }
+        Arrays.parallelSort(distinctGrades);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || Double.compare(distinctGrades[distinct - 1], distinctGrades[i]) != 0) {
+                distinctGrades[distinct++] = distinctGrades[i];
+            }
+        }
+
+        // Sort (grade rank, ID) pairs packed into longs; flipping the sign bit keeps signed ID order
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            Student student = students.get(i);
+            long rank = Arrays.binarySearch(distinctGrades, 0, distinct, student.getGrade());
+            keys[i] = (rank << 32) | ((student.getId() ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+        }
+        Arrays.parallelSort(keys);
+
+        int[] ids = new int[n];
+        double[] grades = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+            grades[i] = distinctGrades[(int) (keys[i] >>> 32)];
+        }
+        root = build(ids, grades, 0, n);
+    }
+
+    /**
+     * Fills an empty index in linear time from IDs that are already in index order,
+     * as saved by idsInOrder. The tree is built perfectly balanced, with priorities
+     * chosen from subtree sizes so later inserts and removals behave as in a random treap.
+     * @param ids Student IDs sorted by grade, then ID
+     * @param gradeOf Looks up the grade of a student by ID (NaN if unknown)
+     * @return false (and nothing indexed) if the index is not empty, or the IDs are
+     *         unknown or not in order
+     */
+    public boolean addAllSorted(int[] ids, IntToDoubleFunction gradeOf) {
+        if (root != null) {
+            return false;
+        }
+        double[] grades = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            grades[i] = gradeOf.applyAsDouble(ids[i]);
+            if (Double.isNaN(grades[i])) {
+                return false;
+            }
+            if (i > 0 && compare(grades[i - 1], ids[i - 1], grades[i], ids[i]) >= 0) {
+                return false;
+            }
+        }
+        root = build(ids, grades, 0, ids.length);
+        return true;
+    }
+
+    /**
+     * @return Every indexed ID, lowest grade first (equal grades by ascending ID)
+     */
+    public int[] idsInOrder() {
+        IntList result = new IntList(Math.max(size(), 1));
+        collectRange(root, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, result);
+        return result.toArray();
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Finds all students whose grade is within [minGrade, maxGrade]
+     * @param minGrade Lowest grade, inclusive
+     * @param maxGrade Highest grade, inclusive
+     * @return IDs of the matching students, lowest grade first
+     */
+    public int[] findInRange(double minGrade, double maxGrade) {
+        IntList result = new IntList(16);
+        collectRange(root, minGrade, maxGrade, result);
+        return result.toArray();
+    }
+
+    /**
+     * Finds the students with the highest grades
+     * @param k Maximum number of students to return
+     * @return IDs of up to k students, highest grade first (equal grades by descending ID)
+     */
+    public int[] topK(int k) {
+        int count = Math.max(0, Math.min(k, size()));
+        IntList result = new IntList(count);
+        collectDescending(root, count, result);
+        return result.toArray();
+    }
+
+    /**
+     * Grade at a percentile using the nearest-rank method
+     * @param percentile Percentile between 0 and 100
+     * @return The smallest grade with at least percentile% of grades at or below it,
+     *         or NaN if the index is empty
+     */
+    public double gradeAtPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+        }
+        int n = size();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * n);
+        return select(Math.max(rank, 1) - 1).grade;
+    }
+
+    /**
+     * @return Lowest indexed grade, or NaN if empty
+     */
+    public double lowestGrade() {
+        return root == null ? Double.NaN : select(0).grade;
+    }
+
+    /**
+     * @return Highest indexed grade, or NaN if empty
+     */
+    public double highestGrade() {
+        return root == null ? Double.NaN : select(size() - 1).grade;
+    }
+
+    /**
+     * Builds a balanced subtree from sorted keys [from, to). In a random treap the root of
+     * an s-node subtree holds the largest of s uniform priorities, so each node gets that
+     * expected value; parents are always larger than children, which keeps heap order.
+     */
+    private static Node build(int[] ids, double[] grades, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        int subtreeSize = to - from;
+        double quantile = 1.0 - 1.0 / (subtreeSize + 1);
+        long priority = Integer.MIN_VALUE + (long) (quantile * 4294967296.0);
+        Node node = new Node(grades[middle], ids[middle], (int) Math.min(priority, Integer.MAX_VALUE));
+        node.left = build(ids, grades, from, middle);
+        node.right = build(ids, grades, middle + 1, to);
+        node.size = subtreeSize;
+        return node;
+    }
+
+    /**
+     * Finds the node with the given 0-based rank in ascending order
+     */
+    private Node select(int rank) {
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void collectRange(Node node, double minGrade, double maxGrade, IntList result) {
+        if (node == null) {
+            return;
+        }
+        if (node.grade >= minGrade) {
+            collectRange(node.left, minGrade, maxGrade, result);
+        }
+        if (node.grade >= minGrade && node.grade <= maxGrade) {
+            result.add(node.id);
+        }
+        if (node.grade <= maxGrade) {
+            collectRange(node.right, minGrade, maxGrade, result);
+        }
+    }
+
+    /**
+     * Reverse in-order walk that stops once enough students are collected
+     */
+    private void collectDescending(Node node, int count, IntList result) {
+        if (node == null || result.size() >= count) {
+            return;
+        }
+        collectDescending(node.right, count, result);
+        if (result.size() < count) {
+            result.add(node.id);
+        }
+        collectDescending(node.left, count, result);
+    }
+
+    /**
+     * Splits a subtree into nodes ordered before the key (splitLeft) and the rest (splitRight).
+     * With inclusive set, a node equal to the key goes to the left side.
+     */
+    private void split(Node node, double grade, int id, boolean inclusive) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int cmp = compare(node.grade, node.id, grade, id);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            split(node.right, grade, id, inclusive);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            split(node.left, grade, id, inclusive);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        }
+    }
+
+    /**
+     * Joins two subtrees where every key of left is ordered before every key of right
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int compare(double grade1, int id1, double grade2, int id2) {
+        int cmp = Double.compare(grade1, grade2);
+        return cmp != 0 ? cmp : Integer.compare(id1, id2);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
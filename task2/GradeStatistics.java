@@ -0,0 +1,157 @@
+import java.util.Arrays;
+
+/**
+ * Running grade statistics kept up to date on every add and remove.
+ *
+ * The count, mean and variance use Welford's update, which also runs backwards
+ * to take a grade out again, and the histogram counts grades in ten fixed
+ * buckets of width 10 (the last one includes 100). Every figure is therefore
+ * available in O(1) instead of a pass over the roster. The lowest and highest
+ * grade come from the GradeIndex when a copy is taken, since a removal cannot
+ * tell what the new minimum is without an ordered structure.
+ */
+public class GradeStatistics {
+    /** Number of histogram buckets: [0, 10), [10, 20), ..., [90, 100] */
+    public static final int BUCKETS = 10;
+    private static final double BUCKET_WIDTH = 10.0;
+    private static final int HISTOGRAM_BAR_WIDTH = 40;
+
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+    private final long[] histogram = new long[BUCKETS];
+    private double lowest = Double.NaN;
+    private double highest = Double.NaN;
+
+    /**
+     * Creates empty statistics
+     */
+    public GradeStatistics() {
+    }
+
+    /**
+     * Creates a copy of the running figures with the lowest and highest grade filled in
+     * @param source Statistics to copy
+     * @param lowest Lowest grade, or NaN if there are no students
+     * @param highest Highest grade, or NaN if there are no students
+     */
+    public GradeStatistics(GradeStatistics source, double lowest, double highest) {
+        this.count = source.count;
+        this.mean = source.mean;
+        this.squaredDeviations = source.squaredDeviations;
+        System.arraycopy(source.histogram, 0, histogram, 0, BUCKETS);
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    /**
+     * Counts one more grade
+     * @param grade Grade added
+     */
+    public void add(double grade) {
+        count++;
+        double delta = grade - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (grade - mean);
+        histogram[bucketOf(grade)]++;
+    }
+
+    /**
+     * Takes back a grade counted earlier
+     * @param grade Grade removed
+     */
+    public void remove(double grade) {
+        if (count <= 1) {
+            // Start over exactly instead of carrying rounding error into the next roster
+            count = 0;
+            mean = 0.0;
+            squaredDeviations = 0.0;
+            Arrays.fill(histogram, 0);
+            return;
+        }
+        count--;
+        double delta = grade - mean;
+        mean -= delta / count;
+        squaredDeviations = Math.max(0.0, squaredDeviations - delta * (grade - mean));
+        histogram[bucketOf(grade)]--;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Mean grade, or NaN if there are no students
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return Population variance of the grades, or NaN if there are no students
+     */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : squaredDeviations / count;
+    }
+
+    /**
+     * @return Population standard deviation of the grades, or NaN if there are no students
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return Lowest grade, or NaN if there are no students or this is not a copy from the system
+     */
+    public double getLowest() {
+        return lowest;
+    }
+
+    /**
+     * @return Highest grade, or NaN if there are no students or this is not a copy from the system
+     */
+    public double getHighest() {
+        return highest;
+    }
+
+    /**
+     * @return Number of grades in each bucket; bucket i holds grades from 10 * i up to 10 * (i + 1)
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * @return Multi-line report with a bar per histogram bucket
+     */
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "No students in the system.";
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Students: %d%n", count));
+        report.append(String.format("Mean grade: %.2f (standard deviation %.2f, variance %.2f)%n",
+            getMean(), getStandardDeviation(), getVariance()));
+        report.append(String.format("Lowest grade: %.2f, highest grade: %.2f%n", lowest, highest));
+        long largest = Arrays.stream(histogram).max().orElse(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            int bar = (int) Math.round((double) histogram[i] * HISTOGRAM_BAR_WIDTH / largest);
+            report.append(String.format("%3d-%-3d | %-" + HISTOGRAM_BAR_WIDTH + "s %d",
+                i * 10, (i + 1) * 10, "#".repeat(bar), histogram[i]));
+            if (i < BUCKETS - 1) {
+                report.append(System.lineSeparator());
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Grades below 0 count in the first bucket and grades of 100 or more in the last
+     */
+    private static int bucketOf(double grade) {
+        int bucket = (int) (grade / BUCKET_WIDTH);
+        return Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int keys to non-negative int values.
+ *
+ * Keys and values live in two parallel int arrays, so lookups never box an
+ * Integer or allocate. Collisions use linear probing and removals shift the
+ * following entries back, so there are no tombstones and every operation stays
+ * O(1) on average.
+ */
+public class IntIndexMap {
+    /** Returned by get and remove when the key is not present */
+    public static final int MISSING = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty map
+     */
+    public IntIndexMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of keys
+     * @param expectedSize Number of keys the map should hold without resizing
+     */
+    public IntIndexMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @param key Key to look up
+     * @return The value for the key, or MISSING
+     */
+    public int get(int key) {
+        int[] keys = this.keys;
+        int[] values = this.values;
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == MISSING || keys[slot] == key) {
+                return value;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Associates a value with a key
+     * @param key Key to store
+     * @param value Non-negative value
+     * @return The previous value for the key, or MISSING
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non-negative: " + value);
+        }
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = values[slot];
+            if (current == MISSING) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > (mask + 1) >>> 1) {
+                    resize(keys.length << 1);
+                }
+                return MISSING;
+            }
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Removes a key
+     * @param key Key to remove
+     * @return The value that was stored for the key, or MISSING
+     */
+    public int remove(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        int removed = values[slot];
+        if (removed == MISSING) {
+            return MISSING;
+        }
+
+        // Shift later entries of the probe run back so lookups never hit a gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != MISSING; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = MISSING;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Approximate heap bytes used by the key and value tables
+     */
+    public long footprintBytes() {
+        return (long) keys.length * Integer.BYTES * 2;
+    }
+
+    public void clear() {
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != MISSING) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Smallest power of two that keeps the load factor at or below one half
+     */
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >>> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads sequential IDs across the table (Fibonacci hashing)
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used for index postings and query results
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    /**
+     * Creates an empty list
+     * @param capacity Initial capacity
+     */
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 2)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Removes one occurrence of a value by moving the last element into its place.
+     * Order is not preserved.
+     * @param value Value to remove
+     * @return true if the value was found
+     */
+    public boolean removeUnordered(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
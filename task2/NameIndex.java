@@ -0,0 +1,481 @@
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Case-insensitive prefix and substring search over student names.
+ *
+ * Prefix queries use a sorted map from lower-cased name to the IDs with that
+ * name, so they cost O(log n + k). Substring queries use an inverted index of
+ * trigrams (every three-character window of "^name$", with start and end
+ * markers so even one-letter names have a trigram). A query looks up the
+ * trigrams of the search text, takes the shortest posting list, and only
+ * checks those candidates against the full name, instead of scanning every
+ * student. Both structures are updated on every add and remove.
+ *
+ * Trigrams are packed into a long (three 16-bit chars) and kept in a small
+ * open-addressing table, so indexing a name does not box a Long per trigram.
+ * Common trigrams have very long posting lists, so removing a name leaves its
+ * postings in place (queries re-check every candidate anyway) and the trigram
+ * table is rebuilt once stale postings outnumber live ones.
+ */
+public class NameIndex {
+    private static final char START = '\u0002';
+    private static final char END = '\u0003';
+    private static final int MIN_STALE_POSTINGS = 1 << 16;
+
+    private TreeMap<String, IntList> idsByName = new TreeMap<>();
+    private long[] trigramKeys = new long[1024];
+    private IntList[] trigramPostings = new IntList[1024];
+    private int trigramCount;
+    private long livePostings;
+    private long stalePostings;
+
+    /**
+     * Indexes a student's name
+     * @param id Student ID
+     * @param name Student name
+     */
+    public void add(int id, String name) {
+        String key = normalize(name);
+        idsByName.computeIfAbsent(key, k -> new IntList(1)).add(id);
+
+        addTrigrams(id, key);
+    }
+
+    /**
+     * Fills an empty index in one pass from IDs that are already in name order,
+     * as saved by idsInNameOrder. Much faster than adding students one at a time
+     * because the sorted name map is built directly instead of by repeated inserts.
+     * @param ids Student IDs sorted by lower-cased name
+     * @param nameOf Looks up the name of a student by ID (null if unknown)
+     * @return false (and nothing indexed) if the index is not empty, or the IDs are
+     *         unknown or not in name order
+     */
+    public boolean addAllSorted(int[] ids, IntFunction<String> nameOf) {
+        if (!idsByName.isEmpty()) {
+            return false;
+        }
+        String[] keys = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            String name = nameOf.apply(ids[i]);
+            if (name == null) {
+                return false;
+            }
+            keys[i] = normalize(name);
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) > 0) {
+                return false;
+            }
+        }
+
+        buildSorted(keys, ids);
+        return true;
+    }
+
+    /**
+     * Adds many students. An empty index is built in one go after sorting the names,
+     * which is much faster than inserting the students one at a time.
+     * @param students Students to add
+     */
+    public void addAll(List<Student> students) {
+        if (!isEmpty()) {
+            for (Student student : students) {
+                add(student.getId(), student.getName());
+            }
+            return;
+        }
+        NameKey[] entries = new NameKey[students.size()];
+        for (int i = 0; i < entries.length; i++) {
+            Student student = students.get(i);
+            entries[i] = new NameKey(normalize(student.getName()), student.getId());
+        }
+        Arrays.parallelSort(entries, (a, b) -> a.key.compareTo(b.key));
+
+        String[] keys = new String[entries.length];
+        int[] ids = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].key;
+            ids[i] = entries[i].id;
+        }
+        buildSorted(keys, ids);
+    }
+
+    public boolean isEmpty() {
+        return idsByName.isEmpty();
+    }
+
+    /**
+     * Fills the empty index from lower-cased names in sorted order (the array is reused)
+     */
+    private void buildSorted(String[] keys, int[] ids) {
+        int distinct = 0;
+        IntList[] groups = new IntList[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (distinct == 0 || !keys[i].equals(keys[distinct - 1])) {
+                keys[distinct] = keys[i];
+                groups[distinct++] = new IntList(1);
+            }
+            groups[distinct - 1].add(ids[i]);
+            addTrigrams(ids[i], keys[distinct - 1]);
+        }
+        idsByName = new TreeMap<>(new SortedRun(keys, groups, distinct));
+    }
+
+    /**
+     * @return Every indexed ID in name order, for saving alongside a snapshot
+     */
+    public int[] idsInNameOrder() {
+        IntList result = new IntList(1024);
+        for (IntList ids : idsByName.values()) {
+            for (int i = 0; i < ids.size(); i++) {
+                result.add(ids.get(i));
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Removes a student's name from the index
+     * @param id Student ID
+     * @param name Name the student was indexed with
+     */
+    public void remove(int id, String name) {
+        String key = normalize(name);
+        IntList ids = idsByName.get(key);
+        if (ids == null || !ids.removeUnordered(id)) {
+            return;
+        }
+        if (ids.isEmpty()) {
+            idsByName.remove(key);
+        }
+        // The trigram postings stay until the next rebuild
+        livePostings -= key.length();
+        stalePostings += key.length();
+        if (stalePostings > livePostings && stalePostings > MIN_STALE_POSTINGS) {
+            rebuildTrigrams();
+        }
+    }
+
+    /**
+     * Finds students whose name starts with the given text (ignoring case)
+     * @param prefix Start of the name
+     * @param limit Maximum number of IDs to return
+     * @return Matching IDs in name order
+     */
+    public int[] findByPrefix(String prefix, int limit) {
+        String from = normalize(prefix);
+        IntList result = new IntList(Math.min(limit, 64));
+        for (Map.Entry<String, IntList> entry : idsByName.tailMap(from, true).entrySet()) {
+            if (!entry.getKey().startsWith(from) || result.size() >= limit) {
+                break;
+            }
+            IntList ids = entry.getValue();
+            for (int i = 0; i < ids.size() && result.size() < limit; i++) {
+                result.add(ids.get(i));
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Finds students whose name contains the given text (ignoring case)
+     * @param fragment Text to look for
+     * @param limit Maximum number of IDs to return
+     * @param nameOf Looks up the current name of a student by ID (null if unknown), used to confirm candidates
+     * @return Matching IDs, in no particular order
+     */
+    public int[] findBySubstring(String fragment, int limit, IntFunction<String> nameOf) {
+        String text = normalize(fragment);
+        IntList result = new IntList(Math.min(limit, 64));
+        if (text.isEmpty() || limit <= 0) {
+            return result.toArray();
+        }
+
+        if (text.length() < 3) {
+            return findShortSubstring(text, limit, nameOf);
+        }
+
+        // Every match contains all trigrams of the text; the rarest one gives the fewest candidates
+        IntList candidates = null;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            IntList postings = postings(trigram(text, i), false);
+            if (postings == null || postings.isEmpty()) {
+                return result.toArray();
+            }
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+
+        // A removed and re-added student can be listed twice until the next rebuild
+        IntIndexMap seen = stalePostings > 0 ? new IntIndexMap() : null;
+        for (int i = 0; i < candidates.size() && result.size() < limit; i++) {
+            int id = candidates.get(i);
+            if (matches(nameOf.apply(id), text) && (seen == null || seen.put(id, 0) == IntIndexMap.MISSING)) {
+                result.add(id);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * One- and two-character fragments: collect candidates from every trigram that contains the fragment
+     */
+    private int[] findShortSubstring(String text, int limit, IntFunction<String> nameOf) {
+        IntList result = new IntList(Math.min(limit, 64));
+        IntIndexMap seen = new IntIndexMap();
+        for (int slot = 0; slot < trigramKeys.length; slot++) {
+            IntList postings = trigramPostings[slot];
+            if (postings == null || !trigramText(trigramKeys[slot]).contains(text)) {
+                continue;
+            }
+            for (int i = 0; i < postings.size(); i++) {
+                int id = postings.get(i);
+                if (matches(nameOf.apply(id), text) && seen.put(id, 0) == IntIndexMap.MISSING) {
+                    result.add(id);
+                    if (result.size() >= limit) {
+                        return result.toArray();
+                    }
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    private static boolean matches(String name, String text) {
+        return name != null && normalize(name).contains(text);
+    }
+
+    /**
+     * Drops every stale posting by indexing the trigrams of the current names again
+     */
+    private void rebuildTrigrams() {
+        trigramKeys = new long[trigramKeys.length];
+        trigramPostings = new IntList[trigramPostings.length];
+        trigramCount = 0;
+        livePostings = 0;
+        stalePostings = 0;
+        for (Map.Entry<String, IntList> entry : idsByName.entrySet()) {
+            IntList ids = entry.getValue();
+            for (int i = 0; i < ids.size(); i++) {
+                addTrigrams(ids.get(i), entry.getKey());
+            }
+        }
+    }
+
+    private void addTrigrams(int id, String key) {
+        livePostings += key.length();
+        String padded = START + key + END;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            IntList postings = postings(trigram(padded, i), true);
+            // A name repeating a trigram is listed once per trigram
+            if (postings.isEmpty() || postings.get(postings.size() - 1) != id) {
+                postings.add(id);
+            }
+        }
+    }
+
+    /**
+     * Finds the posting list of a trigram with linear probing. Trigrams are never
+     * removed from the table (their lists just become empty); there are only a few
+     * thousand distinct ones even for very large rosters.
+     * @param create If true a missing trigram gets a new empty list
+     * @return The posting list, or null if missing and create is false
+     */
+    private IntList postings(long trigram, boolean create) {
+        int mask = trigramKeys.length - 1;
+        int slot = (int) ((trigram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (trigramPostings[slot] != null) {
+            if (trigramKeys[slot] == trigram) {
+                return trigramPostings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return null;
+        }
+        if ((trigramCount + 1) * 2 > trigramKeys.length) {
+            growTrigrams();
+            return postings(trigram, true);
+        }
+        trigramKeys[slot] = trigram;
+        trigramPostings[slot] = new IntList(4);
+        trigramCount++;
+        return trigramPostings[slot];
+    }
+
+    private void growTrigrams() {
+        long[] oldKeys = trigramKeys;
+        IntList[] oldPostings = trigramPostings;
+        trigramKeys = new long[oldKeys.length * 2];
+        trigramPostings = new IntList[oldKeys.length * 2];
+        int mask = trigramKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPostings[i] == null) {
+                continue;
+            }
+            int slot = (int) ((oldKeys[i] * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (trigramPostings[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            trigramKeys[slot] = oldKeys[i];
+            trigramPostings[slot] = oldPostings[i];
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String trigramText(long trigram) {
+        return new String(new char[] {(char) (trigram >>> 32), (char) (trigram >>> 16), (char) trigram});
+    }
+
+    /**
+     * Lower-cased name and ID pair, sorted to bulk-build the index
+     */
+    private static final class NameKey {
+        final String key;
+        final int id;
+
+        NameKey(String key, int id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Read-only sorted map over parallel key/value arrays with distinct keys in natural
+     * order. Handing a SortedMap to the TreeMap constructor makes it build the tree in
+     * linear time without comparing keys. Range views and lookups binary search the arrays.
+     */
+    private static final class SortedRun extends AbstractMap<String, IntList> implements SortedMap<String, IntList> {
+        private final String[] keys;
+        private final IntList[] values;
+        private final int from;
+        private final int to;
+
+        SortedRun(String[] keys, IntList[] values, int size) {
+            this(keys, values, 0, size);
+        }
+
+        private SortedRun(String[] keys, IntList[] values, int from, int to) {
+            this.keys = keys;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return Index of the first key in this run that is not less than key
+         */
+        private int lowerBound(String key) {
+            int index = Arrays.binarySearch(keys, from, to, key);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public IntList get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int index = Arrays.binarySearch(keys, from, to, (String) key);
+            return index >= 0 ? values[index] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, IntList>> entrySet() {
+            return new AbstractSet<Map.Entry<String, IntList>>() {
+                @Override
+                public Iterator<Map.Entry<String, IntList>> iterator() {
+                    return new Iterator<Map.Entry<String, IntList>>() {
+                        private int next = from;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < to;
+                        }
+
+                        @Override
+                        public Map.Entry<String, IntList> next() {
+                            if (next >= to) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, IntList> entry = new AbstractMap.SimpleImmutableEntry<>(keys[next], values[next]);
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super String> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<String, IntList> subMap(String fromKey, String toKey) {
+            if (fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("fromKey " + fromKey + " is after toKey " + toKey);
+            }
+            return new SortedRun(keys, values, lowerBound(fromKey), lowerBound(toKey));
+        }
+
+        @Override
+        public SortedMap<String, IntList> headMap(String toKey) {
+            return new SortedRun(keys, values, from, lowerBound(toKey));
+        }
+
+        @Override
+        public SortedMap<String, IntList> tailMap(String fromKey) {
+            return new SortedRun(keys, values, lowerBound(fromKey), to);
+        }
+
+        @Override
+        public String firstKey() {
+            if (from == to) {
+                throw new NoSuchElementException();
+            }
+            return keys[from];
+        }
+
+        @Override
+        public String lastKey() {
+            if (from == to) {
+                throw new NoSuchElementException();
+            }
+            return keys[to - 1];
+        }
+    }
+}
@@ -0,0 +1,323 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Non-interactive command mode for the Student Management System.
+ *
+ * Reads one command per line from a file or a pipe, with no prompts, and writes
+ * all output through a StudentTableRenderer so it reaches the console in large
+ * blocks instead of one println per row. Blank lines and lines starting with #
+ * are ignored. A bad command prints an error with its line number and the run
+ * continues with the next line. Output is also flushed whenever the script has
+ * no more input ready, so an interactive client (see StudentSessionServer) gets
+ * its answers without waiting for the buffer to fill.
+ *
+ * Commands:
+ *   add ID GRADE NAME...            remove ID
+ *   find ID                         count
+ *   list [--offset N] [--limit N]   stats
+ *   range MIN MAX                   top K
+ *   percentile P                    search TEXT...
+ *   prefix TEXT...                  import FILE
+ *   exit
+ */
+public class StudentBatchRunner {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int SEARCH_LIMIT = 50;
+
+    private final StudentManagementSystem sms;
+    private final StudentTableRenderer out;
+    private final boolean allowFiles;
+    private int lineNumber;
+    private int errors;
+
+    /**
+     * Creates a runner
+     * @param sms System the commands operate on
+     * @param out Renderer that receives all output
+     */
+    public StudentBatchRunner(StudentManagementSystem sms, StudentTableRenderer out) {
+        this(sms, out, true);
+    }
+
+    /**
+     * Creates a runner
+     * @param sms System the commands operate on
+     * @param out Renderer that receives all output
+     * @param allowFiles false to refuse commands that read local files (import), e.g. for remote sessions
+     */
+    public StudentBatchRunner(StudentManagementSystem sms, StudentTableRenderer out, boolean allowFiles) {
+        this.sms = sms;
+        this.out = out;
+        this.allowFiles = allowFiles;
+    }
+
+    /**
+     * Runs every command of a script, then flushes the output
+     * @param script Commands, one per line
+     * @return Number of commands that failed
+     * @throws IOException If the script cannot be read
+     */
+    public int run(Reader script) throws IOException {
+        BufferedReader reader = new BufferedReader(script, 1 << 16);
+        try {
+            String line;
+            while ((line = readLine(reader)) != null) {
+                lineNumber++;
+                String command = line.trim();
+                if (command.isEmpty() || command.startsWith("#")) {
+                    continue;
+                }
+                if (!execute(command)) {
+                    break;
+                }
+            }
+        } finally {
+            out.flush();
+        }
+        return errors;
+    }
+
+    /**
+     * Reads the next line, first flushing the output if reading would block
+     */
+    private String readLine(BufferedReader reader) throws IOException {
+        if (!reader.ready()) {
+            out.flush();
+        }
+        return reader.readLine();
+    }
+
+    /**
+     * Runs one command
+     * @return false if the command was exit
+     */
+    private boolean execute(String line) {
+        Tokens tokens = new Tokens(line);
+        String command = tokens.next();
+        try {
+            switch (command) {
+                case "add":
+                    add(tokens.nextInt("ID"), tokens.nextDouble("grade"), tokens.rest());
+                    break;
+                case "remove":
+                    remove(tokens.nextInt("ID"));
+                    break;
+                case "find":
+                    find(tokens.nextInt("ID"));
+                    break;
+                case "list":
+                    list(tokens);
+                    break;
+                case "stats":
+                    out.appendLine(sms.getGradeStatistics().toString());
+                    break;
+                case "count":
+                    out.appendLine("Total Students: " + sms.getStudentCount());
+                    break;
+                case "range":
+                    double min = tokens.nextDouble("minimum grade");
+                    double max = tokens.nextDouble("maximum grade");
+                    List<Student> matches = sms.findStudentsByGradeRange(min, max);
+                    out.appendLine("Students with grade in [" + min + ", " + max + "]: " + matches.size());
+                    appendAll(matches);
+                    break;
+                case "top":
+                    List<Student> top = sms.getTopStudents(tokens.nextInt("count"));
+                    for (int i = 0; i < top.size(); i++) {
+                        out.appendRanked(i + 1, top.get(i));
+                    }
+                    break;
+                case "percentile":
+                    percentile(tokens.nextDouble("percentile"));
+                    break;
+                case "search":
+                    appendAll(sms.findStudentsByName(tokens.required("search text"), SEARCH_LIMIT));
+                    break;
+                case "prefix":
+                    appendAll(sms.findStudentsByNamePrefix(tokens.required("name prefix"), SEARCH_LIMIT));
+                    break;
+                case "import":
+                    if (allowFiles) {
+                        importFile(tokens.required("file name"));
+                    } else {
+                        error("import is not available in this session");
+                    }
+                    break;
+                case "exit":
+                case "quit":
+                    return false;
+                default:
+                    error("Unknown command '" + command + "'");
+            }
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+        return true;
+    }
+
+    private void add(int id, double grade, String name) {
+        String error = StudentManagementSystem.validateName(name);
+        if (error == null) {
+            error = StudentManagementSystem.validateGrade(grade);
+        }
+        if (error != null) {
+            error(error);
+            return;
+        }
+        if (sms.insertStudent(new Student(id, name, grade))) {
+            out.appendLine("Added " + id);
+        } else {
+            error("Student with ID " + id + " already exists!");
+        }
+    }
+
+    private void remove(int id) {
+        if (sms.deleteStudent(id) != null) {
+            out.appendLine("Removed " + id);
+        } else {
+            error("Student with ID " + id + " not found!");
+        }
+    }
+
+    private void find(int id) {
+        Student student = sms.findStudentById(id);
+        if (student != null) {
+            out.appendStudent(student);
+        } else {
+            error("Student with ID " + id + " not found!");
+        }
+    }
+
+    private void list(Tokens tokens) {
+        int offset = 0;
+        int limit = DEFAULT_PAGE_SIZE;
+        String option;
+        while ((option = tokens.next()) != null) {
+            if (option.equals("--offset")) {
+                offset = tokens.nextInt("offset");
+            } else if (option.equals("--limit")) {
+                limit = tokens.nextInt("limit");
+            } else {
+                throw new IllegalArgumentException("Unknown list option '" + option + "'");
+            }
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        List<Student> page = sms.listStudents(offset, limit);
+        out.appendLine("Students " + (page.isEmpty() ? 0 : offset + 1) + "-" + (offset + page.size())
+            + " of " + sms.getStudentCount());
+        appendAll(page);
+    }
+
+    private void percentile(double percentile) {
+        String error = percentile >= 0.0 && percentile <= 100.0 ? null : "Percentile must be between 0 and 100!";
+        if (error != null) {
+            error(error);
+        } else if (sms.getStudentCount() == 0) {
+            out.appendLine("No students in the system.");
+        } else {
+            out.appendLine("Grade at percentile " + out.formatFixed2(percentile)
+                + ": " + out.formatFixed2(sms.getGradeAtPercentile(percentile)));
+        }
+    }
+
+    private void importFile(String fileName) {
+        try {
+            StudentCsvImporter.Result result = sms.importStudents(Paths.get(fileName));
+            out.appendLine("Imported " + (result.getRowCount() - result.getRejected().size())
+                + " of " + result.getRowCount() + " rows from " + fileName);
+            for (StudentCsvImporter.RejectedRow row : result.getRejected()) {
+                out.appendLine("  " + row);
+            }
+        } catch (IOException | InvalidPathException e) {
+            error("Cannot read " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private void appendAll(List<Student> students) {
+        for (Student student : students) {
+            out.appendStudent(student);
+        }
+    }
+
+    private void error(String message) {
+        errors++;
+        out.appendLine("Error (line " + lineNumber + "): " + message);
+    }
+
+    /**
+     * Splits a command line on whitespace without regular expressions
+     */
+    private static class Tokens {
+        private final String line;
+        private int position;
+
+        Tokens(String line) {
+            this.line = line;
+        }
+
+        /**
+         * @return The next word, or null at the end of the line
+         */
+        String next() {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            if (position == line.length()) {
+                return null;
+            }
+            int start = position;
+            while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            return line.substring(start, position);
+        }
+
+        /**
+         * @return Everything left on the line, trimmed
+         */
+        String rest() {
+            String rest = line.substring(position).trim();
+            position = line.length();
+            return rest;
+        }
+
+        String required(String what) {
+            String rest = rest();
+            if (rest.isEmpty()) {
+                throw new IllegalArgumentException("Missing " + what);
+            }
+            return rest;
+        }
+
+        int nextInt(String what) {
+            String token = next();
+            if (token == null) {
+                throw new IllegalArgumentException("Missing " + what);
+            }
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + what + " '" + token + "'");
+            }
+        }
+
+        double nextDouble(String what) {
+            String token = next();
+            if (token == null) {
+                throw new IllegalArgumentException("Missing " + what);
+            }
+            try {
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + what + " '" + token + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,548 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Parses large "id,name,grade" files into students, in parallel.
+ *
+ * The file is memory-mapped and cut into chunks that end at line breaks, and
+ * every chunk is parsed straight from the mapped bytes on the common fork-join
+ * pool. Rows get the same validation as the interactive add (non-empty name,
+ * grade from 0 to 100). Duplicate IDs are found with a lock-free index that
+ * records the first line of every ID, so the first valid occurrence in the file
+ * is kept and later ones are rejected; IDs that already exist in the system are
+ * rejected too. Rejected rows are reported with their line number and reason.
+ *
+ * A first line of "id,name,grade" is treated as a header. A name may contain
+ * commas (the ID is before the first comma and the grade after the last one)
+ * and may be wrapped in double quotes.
+ */
+public class StudentCsvImporter {
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final String HEADER = "id,name,grade";
+    // Grades Scanner.nextDouble accepts: optional sign, digits, optional fraction and exponent
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int chunkSize;
+
+    /**
+     * Creates an importer with the default chunk size
+     */
+    public StudentCsvImporter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an importer
+     * @param chunkSize Approximate number of bytes parsed per task
+     */
+    public StudentCsvImporter(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads, validates and de-duplicates every row of a file
+     * @param file CSV file of id,name,grade rows
+     * @param existingIds Tells whether an ID is already in the system; must be safe to call from several threads
+     * @return Accepted students in file order, and the rejected rows
+     * @throws IOException If the file cannot be read
+     */
+    public Result parse(Path file, IntPredicate existingIds) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int chunkCount = bounds.length - 1;
+
+            Chunk[] chunks = IntStream.range(0, chunkCount).parallel()
+                .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], i == 0))
+                .toArray(Chunk[]::new);
+
+            // Line numbers in the chunks are local; turn them into file line numbers
+            int rowCount = 0;
+            int lineBase = 0;
+            for (Chunk chunk : chunks) {
+                chunk.firstLine = lineBase + 1;
+                lineBase += chunk.lineCount;
+                rowCount += chunk.size;
+            }
+
+            FirstLineIndex firstLines = new FirstLineIndex(rowCount);
+            IntStream.range(0, chunkCount).parallel().forEach(i -> {
+                Chunk chunk = chunks[i];
+                for (int row = 0; row < chunk.size; row++) {
+                    firstLines.offer(chunk.ids[row], chunk.firstLine + chunk.lines[row]);
+                }
+            });
+            IntStream.range(0, chunkCount).parallel().forEach(i -> chunks[i].resolveDuplicates(firstLines, existingIds));
+
+            Result result = new Result();
+            for (Chunk chunk : chunks) {
+                result.rowCount += chunk.lineCount - chunk.skippedLines;
+                for (int row = 0; row < chunk.size; row++) {
+                    if (chunk.students[row] != null) {
+                        result.accepted.add(chunk.students[row]);
+                    }
+                }
+                for (RejectedRow rejected : chunk.rejected) {
+                    result.rejected.add(new RejectedRow(chunk.firstLine + rejected.lineNumber,
+                        rejected.text, rejected.reason));
+                }
+            }
+            result.rejected.sort((a, b) -> Integer.compare(a.lineNumber, b.lineNumber));
+            result.parseNanos = System.nanoTime() - start;
+            return result;
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about chunkSize bytes that each end just after a line break
+     * @return Chunk start offsets followed by the file size
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = -1;
+            long scan = position;
+            while (lineEnd < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + chunkSize;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private Chunk parseChunk(FileChannel channel, long start, long end, boolean first) {
+        try {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            Chunk chunk = new Chunk(bytes, (int) ((end - start) / 16) + 16);
+            int length = (int) (end - start);
+            // Editors on Windows often start UTF-8 files with a byte order mark (EF BB BF)
+            int lineStart = first && length >= 3 && bytes.get(0) == (byte) 0xEF && bytes.get(1) == (byte) 0xBB
+                && bytes.get(2) == (byte) 0xBF ? 3 : 0;
+            int line = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && bytes.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int textEnd = lineEnd > lineStart && bytes.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                chunk.parseRow(bytes, lineStart, textEnd, line, first && line == 0);
+                line++;
+                lineStart = lineEnd + 1;
+            }
+            chunk.lineCount = line;
+            return chunk;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read bytes " + start + "-" + end + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rows parsed from one chunk. Accepted rows are kept as parallel columns until
+     * duplicates are resolved; line numbers are relative to the chunk until then.
+     */
+    private static class Chunk {
+        int[] ids;
+        double[] grades;
+        String[] names;
+        int[] lines;
+        int[] rowStarts;
+        int[] rowEnds;
+        ByteBuffer bytes;
+        Student[] students;
+        int size;
+        int lineCount;
+        int skippedLines;
+        int firstLine;
+        final List<RejectedRow> rejected = new ArrayList<>();
+
+        Chunk(ByteBuffer bytes, int expectedRows) {
+            this.bytes = bytes;
+            ids = new int[expectedRows];
+            rowStarts = new int[expectedRows];
+            rowEnds = new int[expectedRows];
+            grades = new double[expectedRows];
+            names = new String[expectedRows];
+            lines = new int[expectedRows];
+        }
+
+        void parseRow(ByteBuffer bytes, int start, int end, int line, boolean maybeHeader) {
+            if (isBlank(bytes, start, end)) {
+                skippedLines++;
+                return;
+            }
+            int firstComma = indexOf(bytes, start, end, (byte) ',');
+            int lastComma = lastIndexOf(bytes, start, end, (byte) ',');
+            if (firstComma < 0 || firstComma == lastComma) {
+                // The header has two commas, so a short first line is a bad row, not a header
+                reject(bytes, start, end, line, "Expected id,name,grade");
+                return;
+            }
+
+            long id = parseId(bytes, start, firstComma);
+            if (id == Long.MIN_VALUE) {
+                if (maybeHeader && text(bytes, start, end).trim().equalsIgnoreCase(HEADER)) {
+                    skippedLines++;
+                } else {
+                    reject(bytes, start, end, line, "ID must be a whole number");
+                }
+                return;
+            }
+            double grade = parseGrade(bytes, lastComma + 1, end);
+            if (Double.isNaN(grade)) {
+                reject(bytes, start, end, line, "Grade must be a number");
+                return;
+            }
+            String name = unquote(text(bytes, firstComma + 1, lastComma).trim());
+
+            String error = StudentManagementSystem.validateName(name);
+            if (error == null) {
+                error = StudentManagementSystem.validateGrade(grade);
+            }
+            if (error != null) {
+                reject(bytes, start, end, line, error);
+                return;
+            }
+
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = (int) id;
+            grades[size] = grade;
+            names[size] = name;
+            lines[size] = line;
+            rowStarts[size] = start;
+            rowEnds[size] = end;
+            size++;
+        }
+
+        /**
+         * Keeps the rows that hold the first line of their ID and are new to the system
+         */
+        void resolveDuplicates(FirstLineIndex firstLines, IntPredicate existingIds) {
+            students = new Student[size];
+            for (int row = 0; row < size; row++) {
+                int line = firstLine + lines[row];
+                int first = firstLines.firstLine(ids[row]);
+                String reason = null;
+                if (first != line) {
+                    reason = "Duplicate ID " + ids[row] + " (first used on line " + first + ")";
+                } else if (existingIds.test(ids[row])) {
+                    reason = "Student with ID " + ids[row] + " already exists";
+                }
+                if (reason == null) {
+                    students[row] = new Student(ids[row], names[row], grades[row]);
+                } else {
+                    rejected.add(new RejectedRow(lines[row], text(bytes, rowStarts[row], rowEnds[row]), reason));
+                }
+            }
+            names = null;
+            bytes = null;
+        }
+
+        private void reject(ByteBuffer bytes, int start, int end, int line, String reason) {
+            rejected.add(new RejectedRow(line, text(bytes, start, end), reason));
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            grades = Arrays.copyOf(grades, capacity);
+            names = Arrays.copyOf(names, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            rowStarts = Arrays.copyOf(rowStarts, capacity);
+            rowEnds = Arrays.copyOf(rowEnds, capacity);
+        }
+    }
+
+    /**
+     * Lock-free map from ID to the lowest line number it appears on. Each slot packs
+     * the ID and the line into one long that is claimed and lowered with compare-and-set,
+     * so all parse threads can record IDs at once without boxing or locks.
+     */
+    private static class FirstLineIndex {
+        private final AtomicLongArray slots;
+        private final int mask;
+
+        FirstLineIndex(int expectedIds) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedIds) * 2 - 1) << 1;
+            slots = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+
+        /**
+         * Records that an ID appears on a line (line numbers start at 1, so a slot is never 0)
+         */
+        void offer(int id, int line) {
+            long entry = pack(id, line);
+            int slot = slotOf(id);
+            while (true) {
+                long current = slots.get(slot);
+                if (current == 0) {
+                    if (slots.compareAndSet(slot, 0, entry)) {
+                        return;
+                    }
+                    continue;
+                }
+                if ((int) (current >>> 32) == id) {
+                    if ((int) current <= line || slots.compareAndSet(slot, current, entry)) {
+                        return;
+                    }
+                    continue;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        int firstLine(int id) {
+            int slot = slotOf(id);
+            while (true) {
+                long current = slots.get(slot);
+                if (current == 0) {
+                    return -1;
+                }
+                if ((int) (current >>> 32) == id) {
+                    return (int) current;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int slotOf(int id) {
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        }
+
+        private static long pack(int id, int line) {
+            return ((long) id << 32) | (line & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * @return The ID, or Long.MIN_VALUE if the field is not a whole number in the int range
+     */
+    private static long parseId(ByteBuffer bytes, int start, int end) {
+        while (start < end && isSpace(bytes.get(start))) {
+            start++;
+        }
+        while (end > start && isSpace(bytes.get(end - 1))) {
+            end--;
+        }
+        boolean negative = start < end && bytes.get(start) == '-';
+        if (negative || (start < end && bytes.get(start) == '+')) {
+            start++;
+        }
+        if (start == end || end - start > 10) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Parses plain decimals like "85.5" directly: up to 15 digits is exact in a double and one
+     * division by an exact power of ten rounds the same way Double.parseDouble does.
+     * Other plain decimals (signs, exponents, more digits) go through Double.parseDouble;
+     * Java-only syntax such as "85.5d" or hex floats is rejected, as addStudent rejects it.
+     * @return The grade, or NaN if the field is not a number
+     */
+    private static double parseGrade(ByteBuffer bytes, int start, int end) {
+        while (start < end && isSpace(bytes.get(start))) {
+            start++;
+        }
+        while (end > start && isSpace(bytes.get(end - 1))) {
+            end--;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                digits = -1;
+                break;
+            }
+        }
+        if (digits > 0 && digits <= 15) {
+            return fractionDigits <= 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        }
+        String text = text(bytes, start, end);
+        if (!DECIMAL.matcher(text).matches()) {
+            return Double.NaN;
+        }
+        double value = Double.parseDouble(text);
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+
+    private static String unquote(String name) {
+        if (name.length() >= 2 && name.charAt(0) == '"' && name.charAt(name.length() - 1) == '"') {
+            return name.substring(1, name.length() - 1).replace("\"\"", "\"").trim();
+        }
+        return name;
+    }
+
+    private static String text(ByteBuffer bytes, int start, int end) {
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(ByteBuffer bytes, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (bytes.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer bytes, int start, int end, byte value) {
+        for (int i = end - 1; i >= start; i--) {
+            if (bytes.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isSpace(bytes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public static class RejectedRow {
+        private final int lineNumber;
+        private final String text;
+        private final String reason;
+
+        RejectedRow(int lineNumber, String text, String reason) {
+            this.lineNumber = lineNumber;
+            this.text = text;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason + " [" + text + "]";
+        }
+    }
+
+    /**
+     * Outcome of parsing a file
+     */
+    public static class Result {
+        private final List<Student> accepted = new ArrayList<>();
+        private final List<RejectedRow> rejected = new ArrayList<>();
+        private int rowCount;
+        private long parseNanos;
+
+        /**
+         * @return Students that passed validation and duplicate checks, in file order
+         */
+        public List<Student> getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * @return Rows that were not accepted, by line number
+         */
+        public List<RejectedRow> getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return Number of data rows read (blank lines and the header are not counted)
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return Time spent reading, parsing and checking the file
+         */
+        public long getParseNanos() {
+            return parseNanos;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of student additions and removals.
+ *
+ * Each change is one record: a length, the body (operation, sequence number,
+ * ID, grade, UTF-8 name) and a CRC32C of the body, all little-endian. Records
+ * are encoded into an in-memory buffer and written by a background flusher
+ * thread, which forces the file to disk once per batch. Callers that need
+ * durability wait for their sequence number with sync(); everything appended
+ * while the previous fsync was running shares the next one (group commit).
+ *
+ * On open the existing records are read back. A torn or corrupt record at the
+ * end (a crash in the middle of a write) ends the journal and is cut off.
+ */
+public class StudentJournal implements AutoCloseable {
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_BYTES = 1 + Long.BYTES + Integer.BYTES + Double.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    /**
+     * Longest name, in UTF-8 bytes, that fits in one record
+     */
+    public static final int MAX_NAME_BYTES = MAX_RECORD_BYTES - HEADER_BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private ByteBuffer pending = newBuffer(INITIAL_BUFFER_SIZE);
+    private ByteBuffer writing = newBuffer(INITIAL_BUFFER_SIZE);
+    private long lastSeq;
+    private long durableSeq;
+    private long recordCount;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Receives the records read back from an existing journal
+     */
+    public interface Handler {
+        void add(Student student);
+
+        void remove(int id);
+    }
+
+    /**
+     * Opens (or creates) a journal and replays the records newer than a snapshot
+     * @param path Journal file
+     * @param afterSeq Sequence number already covered by a snapshot; older records are skipped
+     * @param handler Receives every replayed record in order
+     * @throws IOException If the file cannot be opened or read
+     */
+    public StudentJournal(Path path, long afterSeq, Handler handler) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        lastSeq = afterSeq;
+        long validBytes = replay(afterSeq, handler);
+        if (validBytes < channel.size()) {
+            System.out.println("Journal: discarding " + (channel.size() - validBytes)
+                + " bytes of incomplete records at the end of " + path);
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        channel.position(validBytes);
+        durableSeq = lastSeq;
+
+        flusher = new Thread(this::flushLoop, "student-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends an addition record
+     * @param student Student that is being added
+     * @return Sequence number of the record, to pass to sync()
+     */
+    public long appendAdd(Student student) {
+        return append(ADD, student.getId(), student.getGrade(), student.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends a removal record
+     * @param id ID of the student that is being removed
+     * @return Sequence number of the record, to pass to sync()
+     */
+    public long appendRemove(int id) {
+        return append(REMOVE, id, 0.0, new byte[0]);
+    }
+
+    private synchronized long append(byte operation, int id, double grade, byte[] name) {
+        checkOpen();
+        int bodyLength = HEADER_BYTES + name.length;
+        if (bodyLength > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Name is too long to journal (" + name.length + " bytes)");
+        }
+        int recordLength = Integer.BYTES + bodyLength + Integer.BYTES;
+        if (pending.remaining() < recordLength) {
+            ByteBuffer larger = newBuffer(Math.max(pending.capacity() * 2, pending.position() + recordLength));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+
+        long seq = ++lastSeq;
+        pending.putInt(bodyLength);
+        int bodyStart = pending.position();
+        pending.put(operation).putLong(seq).putInt(id).putDouble(grade).putInt(name.length).put(name);
+        CRC32C crc = new CRC32C();
+        crc.update(pending.array(), bodyStart, bodyLength);
+        pending.putInt((int) crc.getValue());
+        recordCount++;
+        notifyAll();
+        return seq;
+    }
+
+    /**
+     * Blocks until a record (and every record before it) is on disk
+     * @param seq Sequence number returned by an append
+     */
+    public synchronized void sync(long seq) {
+        boolean interrupted = false;
+        while (durableSeq < seq) {
+            if (failure != null) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Sequence number of the last record appended
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * @return Number of records in the journal file, including ones still being written
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Empties the journal once a snapshot covers all of it. Sequence numbers keep counting.
+     * @throws IOException If the file cannot be truncated
+     */
+    public synchronized void truncate() throws IOException {
+        sync(lastSeq);
+        channel.truncate(0);
+        channel.force(true);
+        recordCount = 0;
+    }
+
+    /**
+     * Writes out every pending record and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            sync(lastSeq);
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Background loop: takes everything appended so far, writes it and forces it to disk
+     * in one go, then wakes the callers waiting in sync()
+     */
+    private void flushLoop() {
+        while (true) {
+            long batchSeq;
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                ByteBuffer swap = writing;
+                writing = pending;
+                pending = swap;
+                pending.clear();
+                batchSeq = lastSeq;
+            }
+
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                writing.clear();
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                durableSeq = batchSeq;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reads records from the start of the file until the end or the first damaged record
+     * @return Length of the valid part of the file in bytes
+     */
+    private long replay(long afterSeq, Handler handler) throws IOException {
+        channel.position(0);
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+        DataInputStream in = new DataInputStream(stream);
+        byte[] body = new byte[256];
+        long validBytes = 0;
+        CRC32C crc = new CRC32C();
+
+        while (true) {
+            int bodyLength;
+            int storedCrc;
+            try {
+                bodyLength = Integer.reverseBytes(in.readInt());
+                if (bodyLength < HEADER_BYTES || bodyLength > MAX_RECORD_BYTES) {
+                    break;
+                }
+                if (body.length < bodyLength) {
+                    body = new byte[Math.max(bodyLength, body.length * 2)];
+                }
+                in.readFully(body, 0, bodyLength);
+                storedCrc = Integer.reverseBytes(in.readInt());
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(body, 0, bodyLength);
+            if ((int) crc.getValue() != storedCrc) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(body, 0, bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+            byte operation = record.get();
+            long seq = record.getLong();
+            int id = record.getInt();
+            double grade = record.getDouble();
+            int nameLength = record.getInt();
+            if (nameLength != bodyLength - HEADER_BYTES || (operation != ADD && operation != REMOVE)) {
+                break;
+            }
+            if (seq > afterSeq) {
+                if (operation == ADD) {
+                    handler.add(new Student(id, new String(body, HEADER_BYTES, nameLength, StandardCharsets.UTF_8), grade));
+                } else {
+                    handler.remove(id);
+                }
+            }
+            lastSeq = Math.max(lastSeq, seq);
+            recordCount++;
+            validBytes += Integer.BYTES + bodyLength + Integer.BYTES;
+        }
+        return validBytes;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -1,24 +1,152 @@
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 public class StudentManagementSystem {
-    private ArrayList<Student> students;
+    private static final int NAME_SEARCH_LIMIT = 50;
+    private static final String SNAPSHOT_FILE = "students.snapshot";
+    private static final String JOURNAL_FILE = "students.journal";
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+    private static final int REJECTED_ROWS_SHOWN = 20;
+    private static final int WRITE_STRIPES = 64;
+    
+    // Changes to one ID are serialized by its write stripe, so the journal and the
+    // roster see them in the same order; index changes and index queries share
+    // indexLock. With a ConcurrentStudentRegistry as the store, every public
+    // non-interactive method can be called from many threads at once.
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_STRIPES];
+    private final StampedLock indexLock = new StampedLock();
+    private StudentStore students;
+    private GradeIndex gradeIndex;
+    private NameIndex nameIndex;
+    private GradeStatistics statistics;
     private Scanner scanner;
+    private StudentJournal journal;
+    private Path snapshotPath;
+    private long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+    // Journal length at which snapshotIfDue saves next; pushed back after a failed save
+    private volatile long nextSnapshotAt = DEFAULT_SNAPSHOT_INTERVAL;
     
     /**
-     * Constructor initializes the student list and scanner
+     * Constructor initializes the student registry, indexes and scanner
      */
     public StudentManagementSystem() {
-        students = new ArrayList<>();
+        this(new StudentRegistry());
+    }
+    
+    /**
+     * Constructor for a system backed by a specific store
+     * @param store Empty store that will hold the students
+     */
+    public StudentManagementSystem(StudentStore store) {
+        students = store;
+        for (int i = 0; i < WRITE_STRIPES; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+        gradeIndex = new GradeIndex();
+        nameIndex = new NameIndex();
+        statistics = new GradeStatistics();
         scanner = new Scanner(System.in);
     }
     
     /**
-     * Main method to run the Student Management System
+     * Main method to run the Student Management System.
+     * Pass --columnar (or --offheap) to keep students in a ColumnarStudentStore,
+     * --data followed by a directory to save every change and restore the roster on the next start,
+     * --batch followed by a script file (or - for standard input) to run commands without the menu,
+     * and --serve with an optional port to share the roster with many TCP sessions at once.
      */
     public static void main(String[] args) {
-        StudentManagementSystem sms = new StudentManagementSystem();
-        sms.run();
+        StudentStore store = new StudentRegistry();
+        Path dataDirectory = null;
+        String batchScript = null;
+        int servePort = -1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--columnar")) {
+                store = new ColumnarStudentStore(false);
+            } else if (args[i].equals("--offheap")) {
+                store = new ColumnarStudentStore(true);
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                dataDirectory = Paths.get(args[++i]);
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batchScript = args[++i];
+            } else if (args[i].equals("--serve")) {
+                servePort = i + 1 < args.length && !args[i + 1].startsWith("--")
+                    ? Integer.parseInt(args[++i]) : StudentSessionServer.DEFAULT_PORT;
+            }
+        }
+        if (servePort >= 0) {
+            // Sessions read and write the roster from many threads
+            store = new ConcurrentStudentRegistry();
+        }
+        StudentManagementSystem sms = new StudentManagementSystem(store);
+        if (dataDirectory != null) {
+            try {
+                sms.openDataDirectory(dataDirectory);
+            } catch (IOException e) {
+                System.out.println("Error: Cannot open data directory " + dataDirectory + ": " + e.getMessage());
+                return;
+            }
+        }
+        if (servePort >= 0) {
+            sms.serve(servePort);
+            return;
+        }
+        if (batchScript == null) {
+            sms.run();
+            return;
+        }
+        int errors;
+        try (Reader script = batchScript.equals("-")
+                ? new InputStreamReader(System.in, Charset.defaultCharset())
+                : Files.newBufferedReader(Paths.get(batchScript), Charset.defaultCharset())) {
+            errors = sms.runBatch(script, new StudentTableRenderer(System.out));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: Cannot read " + batchScript + ": " + e.getMessage());
+            errors = 1;
+        }
+        sms.closeDataDirectoryQuietly();
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Accepts TCP sessions until the process is stopped; the data directory is saved on shutdown
+     * @param port Port to listen on
+     */
+    private void serve(int port) {
+        try (StudentSessionServer server = new StudentSessionServer(this, port)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeDataDirectoryQuietly));
+            System.out.println("=== Student Management System ===");
+            System.out.println("Serving sessions on port " + server.getPort()
+                + " (" + StudentSessionServer.threadKind() + " per session)");
+            server.serve();
+        } catch (IOException e) {
+            System.out.println("Error: Cannot listen on port " + port + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs a script of commands without prompts (see StudentBatchRunner for the commands)
+     * @param script Commands, one per line
+     * @param out Renderer that receives all output; flushed before returning
+     * @return Number of commands that failed
+     * @throws IOException If the script cannot be read
+     */
+    public int runBatch(Reader script, StudentTableRenderer out) throws IOException {
+        return new StudentBatchRunner(this, out).run(script);
     }
     
     /**
@@ -45,7 +173,26 @@ public class StudentManagementSystem {
                     displayStudents();
                     break;
                 case 4:
+                    searchByGradeRange();
+                    break;
+                case 5:
+                    displayTopStudents();
+                    break;
+                case 6:
+                    displayGradePercentile();
+                    break;
+                case 7:
+                    searchByName();
+                    break;
+                case 8:
+                    importFromCsv();
+                    break;
+                case 9:
+                    displayGradeStatistics();
+                    break;
+                case 10:
                     running = false;
+                    closeDataDirectoryQuietly();
                     System.out.println("Thank you for using the Student Management System!");
                     break;
                 default:
@@ -64,17 +211,23 @@ public class StudentManagementSystem {
         System.out.println("1. Add Student");
         System.out.println("2. Remove Student");
         System.out.println("3. Display All Students");
-        System.out.println("4. Exit");
-        System.out.print("Enter your choice (1-4): ");
+        System.out.println("4. Find Students by Grade Range");
+        System.out.println("5. Show Top Students by Grade");
+        System.out.println("6. Show Grade at Percentile");
+        System.out.println("7. Search Students by Name");
+        System.out.println("8. Import Students from CSV");
+        System.out.println("9. Show Grade Statistics");
+        System.out.println("10. Exit");
+        System.out.print("Enter your choice (1-10): ");
     }
     
     /**
      * Gets and validates user menu choice
-     * @return Valid menu choice (1-4)
+     * @return Valid menu choice (1-10)
      */
     private int getMenuChoice() {
         while (!scanner.hasNextInt()) {
-            System.out.println("Please enter a valid number (1-4).");
+            System.out.println("Please enter a valid number (1-10).");
             scanner.next(); // consume invalid input
         }
         return scanner.nextInt();
@@ -105,8 +258,9 @@ public class StudentManagementSystem {
         System.out.print("Enter Student Name: ");
         String name = scanner.nextLine().trim();
         
-        if (name.isEmpty()) {
-            System.out.println("Error: Name cannot be empty!");
+        String nameError = validateName(name);
+        if (nameError != null) {
+            System.out.println("Error: " + nameError);
             return;
         }
         
@@ -118,18 +272,93 @@ public class StudentManagementSystem {
         }
         double grade = scanner.nextDouble();
         
-        if (grade < 0.0 || grade > 100.0) {
-            System.out.println("Error: Grade must be between 0.0 and 100.0!");
+        String gradeError = validateGrade(grade);
+        if (gradeError != null) {
+            System.out.println("Error: " + gradeError);
             return;
         }
         
         // Create and add student
         Student newStudent = new Student(id, name, grade);
-        students.add(newStudent);
+        insertStudent(newStudent);
         System.out.println("Student added successfully!");
         System.out.println("Added: " + newStudent);
     }
     
+    /**
+     * Checks a student name; shared by the interactive add and the CSV import
+     * @param name Name after trimming
+     * @return Error message, or null if the name is valid
+     */
+    public static String validateName(String name) {
+        if (name.isEmpty()) {
+            return "Name cannot be empty!";
+        }
+        // A char is at most 3 UTF-8 bytes, so only very long names need encoding
+        if (name.length() > StudentJournal.MAX_NAME_BYTES / 3
+                && name.getBytes(StandardCharsets.UTF_8).length > StudentJournal.MAX_NAME_BYTES) {
+            return "Name cannot be longer than " + StudentJournal.MAX_NAME_BYTES + " bytes!";
+        }
+        return null;
+    }
+    
+    /**
+     * Checks a student grade; shared by the interactive add and the CSV import
+     * @param grade Grade to check
+     * @return Error message, or null if the grade is valid
+     */
+    public static String validateGrade(double grade) {
+        return grade >= 0.0 && grade <= 100.0 ? null : "Grade must be between 0.0 and 100.0!";
+    }
+    
+    /**
+     * Interactive bulk import of id,name,grade rows from a CSV file
+     */
+    public void importFromCsv() {
+        System.out.println("\n--- Import Students from CSV ---");
+        scanner.nextLine(); // consume newline
+        System.out.print("Enter CSV file path: ");
+        String fileName = scanner.nextLine().trim();
+        
+        StudentCsvImporter.Result result;
+        long start = System.nanoTime();
+        try {
+            result = importStudents(Paths.get(fileName));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: Cannot read " + fileName + ": " + e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        int rejected = result.getRejected().size();
+        System.out.printf("Imported %,d of %,d rows in %.2f s (%,.0f rows/sec, parsing %,.0f rows/sec)%n",
+            result.getRowCount() - rejected, result.getRowCount(), seconds, result.getRowCount() / seconds,
+            result.getRowCount() / (result.getParseNanos() / 1e9));
+        if (rejected > 0) {
+            System.out.println("Rejected rows: " + rejected);
+            for (int i = 0; i < Math.min(rejected, REJECTED_ROWS_SHOWN); i++) {
+                System.out.println("  " + result.getRejected().get(i));
+            }
+            if (rejected > REJECTED_ROWS_SHOWN) {
+                System.out.println("  ... and " + (rejected - REJECTED_ROWS_SHOWN) + " more");
+            }
+        }
+    }
+    
+    /**
+     * Imports every valid row of a CSV file. Rows are parsed and checked in parallel;
+     * rows with an invalid name or grade, or an ID that is already taken (by the system
+     * or by an earlier row of the file), are rejected.
+     * @param file CSV file of id,name,grade rows
+     * @return Rows read, students imported and rejected rows
+     * @throws IOException If the file cannot be read
+     */
+    public StudentCsvImporter.Result importStudents(Path file) throws IOException {
+        StudentCsvImporter.Result result = new StudentCsvImporter().parse(file, students::contains);
+        insertStudents(result.getAccepted());
+        return result;
+    }
+    
     /**
      * Removes a student from the system by ID
      */
@@ -148,9 +377,8 @@ public class StudentManagementSystem {
         }
         int id = scanner.nextInt();
         
-        Student studentToRemove = findStudentById(id);
+        Student studentToRemove = deleteStudent(id);
         if (studentToRemove != null) {
-            students.remove(studentToRemove);
             System.out.println("Student removed successfully!");
             System.out.println("Removed: " + studentToRemove);
         } else {
@@ -169,38 +397,581 @@ public class StudentManagementSystem {
             return;
         }
         
-        System.out.println("Total Students: " + students.size());
-        System.out.println("ID   | Name                 | Grade");
-        System.out.println("-----|----------------------|-------");
+        StudentTableRenderer out = new StudentTableRenderer(System.out);
+        out.appendLine("Total Students: " + students.size());
+        out.appendLine("ID   | Name                 | Grade");
+        out.appendLine("-----|----------------------|-------");
         
         for (Student student : students) {
+            out.appendStudent(student);
+        }
+        out.flush();
+    }
+    
+    /**
+     * Lists one page of students in insertion order
+     * @param offset Number of students to skip
+     * @param limit Maximum number of students to return
+     * @return Up to limit students
+     */
+    public List<Student> listStudents(int offset, int limit) {
+        return students.page(offset, limit);
+    }
+    
+    /**
+     * @return Number of students in the system
+     */
+    public int getStudentCount() {
+        return students.size();
+    }
+    
+    /**
+     * Interactive range query: lists students whose grade is within [min, max]
+     */
+    public void searchByGradeRange() {
+        System.out.println("\n--- Find Students by Grade Range ---");
+        double min = readDouble("Enter minimum grade: ");
+        double max = readDouble("Enter maximum grade: ");
+        
+        List<Student> matches = findStudentsByGradeRange(min, max);
+        System.out.println("Students with grade in [" + min + ", " + max + "]: " + matches.size());
+        for (Student student : matches) {
             System.out.println(student);
         }
     }
     
     /**
-     * Finds a student by ID
-     * @param id Student ID to search for
-     * @return Student object if found, null otherwise
+     * Interactive top-K query: lists the K students with the highest grades
+     */
+    public void displayTopStudents() {
+        System.out.println("\n--- Top Students by Grade ---");
+        int k = readInt("How many students? ");
+        
+        List<Student> top = getTopStudents(k);
+        for (int i = 0; i < top.size(); i++) {
+            System.out.println((i + 1) + ". " + top.get(i));
+        }
+        if (top.isEmpty()) {
+            System.out.println("No students in the system.");
+        }
+    }
+    
+    /**
+     * Interactive percentile query
+     */
+    public void displayGradePercentile() {
+        System.out.println("\n--- Grade at Percentile ---");
+        double percentile = readDouble("Enter percentile (0 - 100): ");
+        
+        if (percentile < 0.0 || percentile > 100.0) {
+            System.out.println("Error: Percentile must be between 0 and 100!");
+            return;
+        }
+        if (students.isEmpty()) {
+            System.out.println("No students in the system.");
+            return;
+        }
+        System.out.printf("Grade at percentile %.1f: %.2f%n", percentile, getGradeAtPercentile(percentile));
+    }
+    
+    /**
+     * Shows count, mean, spread, extremes and a histogram of the grades
+     */
+    public void displayGradeStatistics() {
+        System.out.println("\n--- Grade Statistics ---");
+        System.out.println(getGradeStatistics());
+    }
+    
+    /**
+     * Interactive name search: lists students whose name contains the text entered
+     */
+    public void searchByName() {
+        System.out.println("\n--- Search Students by Name ---");
+        scanner.nextLine(); // consume newline
+        System.out.print("Enter a name or part of a name: ");
+        String text = scanner.nextLine().trim();
+        
+        if (text.isEmpty()) {
+            System.out.println("Error: Search text cannot be empty!");
+            return;
+        }
+        
+        List<Student> matches = findStudentsByName(text, NAME_SEARCH_LIMIT);
+        System.out.println("Matches: " + matches.size() + (matches.size() == NAME_SEARCH_LIMIT ? " (first " + NAME_SEARCH_LIMIT + " shown)" : ""));
+        for (Student student : matches) {
+            System.out.println(student);
+        }
+    }
+    
+    /**
+     * Adds a student to the registry and every index.
+     * With a data directory open the change is on disk before this returns.
+     * @param student Student to add
+     * @return true if added, false if the ID already exists
+     */
+    public boolean insertStudent(Student student) {
+        ReentrantLock lock = writeLockFor(student.getId());
+        lock.lock();
+        try {
+            if (students.contains(student.getId())) {
+                return false;
+            }
+            if (journal != null) {
+                journal.sync(journal.appendAdd(student));
+            }
+            applyInsert(student);
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfDue();
+        return true;
+    }
+    
+    /**
+     * Adds many students at once. With a data directory open all of them are journaled
+     * first and the call waits for the disk only once, instead of once per student.
+     * If the system is empty the indexes are bulk-built after the students are stored,
+     * even when a student fails to journal, so they always cover every stored student.
+     * @param batch Students to add
+     * @return Number added; students whose ID already exists are skipped
+     */
+    public int insertStudents(Iterable<Student> batch) {
+        int added = 0;
+        lockAllWrites();
+        try {
+            // Into an empty system the indexes are built once at the end instead of row by row
+            List<Student> bulk = gradeIndex.isEmpty() && nameIndex.isEmpty() ? new ArrayList<>() : null;
+            long lastSeq = 0;
+            try {
+                for (Student student : batch) {
+                    if (students.contains(student.getId())) {
+                        continue;
+                    }
+                    if (journal != null) {
+                        lastSeq = journal.appendAdd(student);
+                    }
+                    if (bulk != null) {
+                        students.add(student);
+                        bulk.add(student);
+                    } else {
+                        applyInsert(student);
+                    }
+                    added++;
+                }
+            } finally {
+                // If an append throws, index the students stored before it so the roster stays consistent
+                if (bulk != null) {
+                    long stamp = indexLock.writeLock();
+                    try {
+                        gradeIndex.addAll(bulk);
+                        nameIndex.addAll(bulk);
+                        for (Student student : bulk) {
+                            statistics.add(student.getGrade());
+                        }
+                    } finally {
+                        indexLock.unlockWrite(stamp);
+                    }
+                }
+            }
+            if (journal != null && added > 0) {
+                journal.sync(lastSeq);
+            }
+        } finally {
+            unlockAllWrites();
+        }
+        snapshotIfDue();
+        return added;
+    }
+    
+    /**
+     * Removes a student from the registry and every index.
+     * With a data directory open the change is on disk before this returns.
+     * @param id Student ID
+     * @return The removed student, or null if not found
+     */
+    public Student deleteStudent(int id) {
+        Student removed;
+        ReentrantLock lock = writeLockFor(id);
+        lock.lock();
+        try {
+            if (!students.contains(id)) {
+                return null;
+            }
+            if (journal != null) {
+                journal.sync(journal.appendRemove(id));
+            }
+            removed = applyDelete(id);
+        } finally {
+            lock.unlock();
+        }
+        snapshotIfDue();
+        return removed;
+    }
+    
+    /**
+     * Restores the roster from a data directory and journals every later change there.
+     * The latest snapshot is loaded first, then the journal records written after it are replayed.
+     * @param directory Directory for students.snapshot and students.journal; created if missing
+     * @throws IOException If the files cannot be read or created
      */
-    private Student findStudentById(int id) {
+    public void openDataDirectory(Path directory) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("A data directory is already open");
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        StudentSnapshot snapshot = StudentSnapshot.load(snapshotPath, students::add);
+        long snapshotSeq = 0;
+        if (snapshot != null) {
+            snapshotSeq = snapshot.getLastSeq();
+            restoreIndexes(snapshot);
+        }
+        int fromSnapshot = students.size();
+        
+        journal = new StudentJournal(directory.resolve(JOURNAL_FILE), snapshotSeq, new StudentJournal.Handler() {
+            @Override
+            public void add(Student student) {
+                applyInsert(student);
+            }
+            
+            @Override
+            public void remove(int id) {
+                applyDelete(id);
+            }
+        });
+        
+        if (students.size() > 0 || journal.getRecordCount() > 0) {
+            System.out.printf("Restored %,d students from %s in %.0f ms (%,d from snapshot, %,d journal records)%n",
+                students.size(), directory, (System.nanoTime() - start) / 1e6, fromSnapshot, journal.getRecordCount());
+        }
+    }
+    
+    /**
+     * Saves every student to the snapshot file and empties the journal.
+     * Called automatically every snapshot interval (1,000,000 changes by default) and on exit.
+     * @throws IOException If the snapshot cannot be written
+     */
+    public void saveSnapshot() throws IOException {
+        // With every write stripe held no change is between its journal record and the roster
+        lockAllWrites();
+        try {
+            if (journal == null) {
+                throw new IllegalStateException("No data directory is open");
+            }
+            StudentSnapshot.write(snapshotPath, students, students.size(), journal.getLastSeq(),
+                gradeIndex.idsInOrder(), nameIndex.idsInNameOrder());
+            // Deliberately after write(), which fsyncs the snapshot and its directory: truncating
+            // first could leave the old snapshot and an empty journal after a crash, losing every
+            // change since the previous snapshot
+            journal.truncate();
+            nextSnapshotAt = snapshotInterval;
+        } finally {
+            unlockAllWrites();
+        }
+    }
+    
+    /**
+     * @param records Journal records after which a snapshot is saved automatically
+     */
+    void setSnapshotInterval(long records) {
+        if (records < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive, got " + records);
+        }
+        snapshotInterval = records;
+        nextSnapshotAt = records;
+    }
+    
+    /**
+     * Saves a final snapshot if anything changed, then closes the journal
+     * @throws IOException If the snapshot or the journal cannot be written
+     */
+    public void closeDataDirectory() throws IOException {
+        lockAllWrites();
+        try {
+            if (journal == null) {
+                return;
+            }
+            try {
+                if (journal.getRecordCount() > 0) {
+                    saveSnapshot();
+                }
+            } finally {
+                journal.close();
+                journal = null;
+            }
+        } finally {
+            unlockAllWrites();
+        }
+    }
+    
+    private void closeDataDirectoryQuietly() {
+        try {
+            closeDataDirectory();
+        } catch (IOException e) {
+            System.out.println("Error: Could not save data: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Keeps the journal short so a restart replays about one snapshot interval of records.
+     * The change that triggered it is already journaled and applied, so a failed save is
+     * only reported: the journal keeps every record and the save is retried one interval later.
+     */
+    private void snapshotIfDue() {
+        StudentJournal current = journal;
+        if (current == null || current.getRecordCount() < nextSnapshotAt) {
+            return;
+        }
+        lockAllWrites();
+        try {
+            // Another writer may have saved the snapshot while this one waited
+            if (journal != null && journal.getRecordCount() >= nextSnapshotAt) {
+                saveSnapshot();
+            }
+        } catch (IOException e) {
+            nextSnapshotAt = journal.getRecordCount() + snapshotInterval;
+            System.out.println("Error: Could not save snapshot, keeping the journal: " + e.getMessage());
+        } finally {
+            unlockAllWrites();
+        }
+    }
+    
+    private ReentrantLock writeLockFor(int id) {
+        int h = id * 0x9E3779B9;
+        return writeLocks[(h ^ (h >>> 16)) & (WRITE_STRIPES - 1)];
+    }
+    
+    /**
+     * Blocks every insert and delete; always taken in the same order, so two callers cannot deadlock
+     */
+    private void lockAllWrites() {
+        for (ReentrantLock lock : writeLocks) {
+            lock.lock();
+        }
+    }
+    
+    private void unlockAllWrites() {
+        for (int i = WRITE_STRIPES - 1; i >= 0; i--) {
+            writeLocks[i].unlock();
+        }
+    }
+    
+    /**
+     * Builds the indexes from the orders saved in the snapshot; falls back to adding
+     * students one by one if the saved orders do not match the loaded students
+     */
+    private void restoreIndexes(StudentSnapshot snapshot) {
+        if (!gradeIndex.addAllSorted(snapshot.getGradeOrder(), this::gradeOf)) {
+            gradeIndex = new GradeIndex();
+            for (Student student : students) {
+                gradeIndex.add(student);
+            }
+        }
+        if (!nameIndex.addAllSorted(snapshot.getNameOrder(), this::nameOf)) {
+            nameIndex = new NameIndex();
+            for (Student student : students) {
+                nameIndex.add(student.getId(), student.getName());
+            }
+        }
         for (Student student : students) {
-            if (student.getId() == id) {
-                return student;
+            statistics.add(student.getGrade());
+        }
+    }
+    
+    /**
+     * @return Grade of a student, or NaN if the ID is unknown
+     */
+    private double gradeOf(int id) {
+        Student student = students.find(id);
+        return student == null ? Double.NaN : student.getGrade();
+    }
+    
+    /**
+     * @return Name of a student, or null if the ID is unknown
+     */
+    private String nameOf(int id) {
+        Student student = students.find(id);
+        return student == null ? null : student.getName();
+    }
+    
+    /**
+     * Stores a student, then indexes it: an ID found in an index is always in the store
+     */
+    private void applyInsert(Student student) {
+        if (students.add(student)) {
+            long stamp = indexLock.writeLock();
+            try {
+                gradeIndex.add(student);
+                nameIndex.add(student.getId(), student.getName());
+                statistics.add(student.getGrade());
+            } finally {
+                indexLock.unlockWrite(stamp);
             }
         }
-        return null;
+    }
+    
+    /**
+     * Unindexes a student, then removes it from the store
+     */
+    private Student applyDelete(int id) {
+        Student student = students.find(id);
+        if (student == null) {
+            return null;
+        }
+        long stamp = indexLock.writeLock();
+        try {
+            gradeIndex.remove(student);
+            nameIndex.remove(student.getId(), student.getName());
+            statistics.remove(student.getGrade());
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        return students.remove(id);
+    }
+    
+    /**
+     * Finds students by grade using the ordered grade index
+     * @param minGrade Lowest grade, inclusive
+     * @param maxGrade Highest grade, inclusive
+     * @return Matching students, lowest grade first
+     */
+    public List<Student> findStudentsByGradeRange(double minGrade, double maxGrade) {
+        long stamp = indexLock.readLock();
+        try {
+            return resolve(gradeIndex.findInRange(minGrade, maxGrade));
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * @param k Maximum number of students to return
+     * @return Up to k students with the highest grades, best first
+     */
+    public List<Student> getTopStudents(int k) {
+        long stamp = indexLock.readLock();
+        try {
+            return resolve(gradeIndex.topK(k));
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Grade at the percentile (nearest-rank), or NaN if there are no students
+     */
+    public double getGradeAtPercentile(double percentile) {
+        long stamp = indexLock.readLock();
+        try {
+            return gradeIndex.gradeAtPercentile(percentile);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Current grade statistics, without scanning the roster
+     * @return A copy of the running count, mean, variance and histogram, plus the lowest and highest grade
+     */
+    public GradeStatistics getGradeStatistics() {
+        long stamp = indexLock.readLock();
+        try {
+            return new GradeStatistics(statistics, gradeIndex.lowestGrade(), gradeIndex.highestGrade());
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Finds students whose name starts with the given text, ignoring case
+     * @param prefix Start of the name
+     * @param limit Maximum number of students to return
+     * @return Matching students in name order
+     */
+    public List<Student> findStudentsByNamePrefix(String prefix, int limit) {
+        long stamp = indexLock.readLock();
+        try {
+            return resolve(nameIndex.findByPrefix(prefix, limit));
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Finds students whose name contains the given text, ignoring case
+     * @param text Text to look for
+     * @param limit Maximum number of students to return
+     * @return Matching students
+     */
+    public List<Student> findStudentsByName(String text, int limit) {
+        long stamp = indexLock.readLock();
+        try {
+            return resolve(nameIndex.findBySubstring(text, limit, this::nameOf));
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Looks up the students for a list of IDs returned by an index.
+     * Called with indexLock held, so no ID can be removed from the store meanwhile.
+     */
+    private List<Student> resolve(int[] ids) {
+        List<Student> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(students.find(id));
+        }
+        return result;
+    }
+    
+    /**
+     * Prompts until the user enters a number
+     * @param prompt Text shown before reading
+     * @return The number entered
+     */
+    private double readDouble(String prompt) {
+        System.out.print(prompt);
+        while (!scanner.hasNextDouble()) {
+            System.out.println("Please enter a valid number.");
+            scanner.next();
+        }
+        return scanner.nextDouble();
+    }
+    
+    /**
+     * Prompts until the user enters a whole number
+     * @param prompt Text shown before reading
+     * @return The number entered
+     */
+    private int readInt(String prompt) {
+        System.out.print(prompt);
+        while (!scanner.hasNextInt()) {
+            System.out.println("Please enter a valid whole number.");
+            scanner.next();
+        }
+        return scanner.nextInt();
+    }
+    
+    /**
+     * Finds a student by ID using the registry's hash index
+     * @param id Student ID to search for
+     * @return Student object if found, null otherwise
+     */
+    public Student findStudentById(int id) {
+        return students.find(id);
     }
     
     /**
      * Adds sample data for testing purposes
      */
     public void addSampleData() {
-        students.add(new Student(1001, "John Smith", 85.5));
-        students.add(new Student(1002, "Emma Johnson", 92.0));
-        students.add(new Student(1003, "Michael Brown", 78.5));
-        students.add(new Student(1004, "Sarah Davis", 95.0));
-        students.add(new Student(1005, "David Wilson", 88.5));
+        insertStudent(new Student(1001, "John Smith", 85.5));
+        insertStudent(new Student(1002, "Emma Johnson", 92.0));
+        insertStudent(new Student(1003, "Michael Brown", 78.5));
+        insertStudent(new Student(1004, "Sarah Davis", 95.0));
+        insertStudent(new Student(1005, "David Wilson", 88.5));
         System.out.println("Sample data added successfully!");
     }
 }
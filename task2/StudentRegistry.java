@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Student storage with O(1) lookup, insert and delete by ID that still lists
+ * students in the order they were added.
+ *
+ * Students sit in an array in insertion order and an IntIndexMap maps each ID to
+ * its array slot. Removing a student only clears its slot; the array is compacted
+ * when it fills up, which keeps removal O(1) amortized instead of shifting the
+ * rest of the list like ArrayList.remove does.
+ *
+ * Note: a student's ID must not be changed with setId while it is registered.
+ */
+public class StudentRegistry implements StudentStore {
+    private final IntIndexMap slotById;
+    private Student[] slots;
+    private int used;
+    private int size;
+
+    /**
+     * Creates an empty registry
+     */
+    public StudentRegistry() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty registry sized for the expected number of students
+     * @param expectedSize Number of students the registry should hold without resizing
+     */
+    public StudentRegistry(int expectedSize) {
+        slotById = new IntIndexMap(expectedSize);
+        slots = new Student[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Adds a student unless its ID is already registered
+     * @param student Student to add
+     * @return true if added, false if the ID already exists
+     */
+    @Override
+    public boolean add(Student student) {
+        if (slotById.containsKey(student.getId())) {
+            return false;
+        }
+        if (used == slots.length) {
+            makeRoom();
+        }
+        slots[used] = student;
+        slotById.put(student.getId(), used);
+        used++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a student by ID
+     * @param id Student ID
+     * @return The removed student, or null if not found
+     */
+    @Override
+    public Student remove(int id) {
+        int slot = slotById.remove(id);
+        if (slot == IntIndexMap.MISSING) {
+            return null;
+        }
+        Student removed = slots[slot];
+        slots[slot] = null;
+        size--;
+        // Reclaim trailing empty slots right away so add-then-remove cycles do not grow the array
+        while (used > 0 && slots[used - 1] == null) {
+            used--;
+        }
+        return removed;
+    }
+
+    /**
+     * Finds a student by ID
+     * @param id Student ID
+     * @return The student, or null if not found
+     */
+    @Override
+    public Student find(int id) {
+        int slot = slotById.get(id);
+        return slot == IntIndexMap.MISSING ? null : slots[slot];
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return slotById.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterates over the students in insertion order
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<Student>() {
+            private int next = skipEmpty(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public Student next() {
+                if (next >= used) {
+                    throw new NoSuchElementException();
+                }
+                Student student = slots[next];
+                next = skipEmpty(next + 1);
+                return student;
+            }
+        };
+    }
+
+    /**
+     * Lists one page of students; without removed slots the page start is found directly
+     */
+    @Override
+    public List<Student> page(int offset, int limit) {
+        List<Student> page = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+        int slot = 0;
+        if (used == size) {
+            slot = Math.max(0, Math.min(offset, used));
+        } else {
+            for (int skipped = 0; slot < used && skipped < offset; slot++) {
+                if (slots[slot] != null) {
+                    skipped++;
+                }
+            }
+        }
+        for (slot = skipEmpty(slot); slot < used && page.size() < limit; slot = skipEmpty(slot + 1)) {
+            page.add(slots[slot]);
+        }
+        return page;
+    }
+
+    private int skipEmpty(int slot) {
+        while (slot < used && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Compacts the slots if at least a quarter are empty, otherwise doubles the array
+     */
+    private void makeRoom() {
+        if (size <= used - (used >>> 2)) {
+            int target = 0;
+            for (int i = 0; i < used; i++) {
+                Student student = slots[i];
+                if (student != null) {
+                    if (target != i) {
+                        slots[target] = student;
+                        slots[i] = null;
+                        slotById.put(student.getId(), target);
+                    }
+                    target++;
+                }
+            }
+            used = target;
+        } else {
+            Student[] larger = new Student[slots.length * 2];
+            System.arraycopy(slots, 0, larger, 0, used);
+            slots = larger;
+        }
+    }
+}
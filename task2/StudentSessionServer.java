@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TCP front end that lets many operators share one Student Management System.
+ *
+ * Every connection is a session that speaks the batch command language (see
+ * StudentBatchRunner): one command per line, answers written back as soon as
+ * the client stops sending. Sessions share the system, so the system should be
+ * backed by a ConcurrentStudentRegistry. Each session runs on its own virtual
+ * thread when the JDK provides them (Java 21+), otherwise on a cached platform
+ * thread pool. Sessions cannot import files, since those would be read from the
+ * server's disk.
+ *
+ * Usage: java StudentManagementSystem --serve [port] [--data dir]
+ */
+public class StudentSessionServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7171;
+
+    private final StudentManagementSystem sms;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    /**
+     * Binds the server socket
+     * @param sms System shared by all sessions
+     * @param port Port to listen on (0 picks a free port)
+     * @throws IOException If the port cannot be bound
+     */
+    public StudentSessionServer(StudentManagementSystem sms, int port) throws IOException {
+        this.sms = sms;
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port), 1024);
+        sessions = newSessionExecutor();
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Number of sessions currently connected
+     */
+    public int getOpenSessions() {
+        return openSessions.get();
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+
+    /**
+     * Runs the commands of one connection until the client sends exit or disconnects
+     */
+    private void handle(Socket socket) {
+        openSessions.incrementAndGet();
+        try (socket; Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)) {
+            socket.setTcpNoDelay(true);
+            StudentTableRenderer out = new StudentTableRenderer(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            new StudentBatchRunner(sms, out, false).run(in);
+        } catch (IOException | UncheckedIOException e) {
+            // Client went away or the output could not be written; the session just ends
+        } finally {
+            openSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Uses Executors.newVirtualThreadPerTaskExecutor when the running JDK has it.
+     * It is looked up reflectively so the server still compiles and runs on Java 17.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "student-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    static String threadKind() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return "virtual thread";
+        } catch (NoSuchMethodException e) {
+            return "platform thread";
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Full copy of the student roster in one binary file.
+ *
+ * Layout (little-endian): magic, version, the journal sequence number the
+ * snapshot covers, the student count, then one record per student (ID, grade,
+ * name length, UTF-8 name) in insertion order, the IDs in grade-index order,
+ * the IDs in name-index order, and a CRC32C of everything after the header.
+ * Saving the two index orders lets a restart rebuild the indexes in linear
+ * time instead of sorting the roster again.
+ *
+ * A snapshot is written to a temporary file and renamed over the old one, so a
+ * crash never leaves a half-written snapshot behind. Loading maps the file into
+ * memory and decodes the records straight from the mapping.
+ */
+public class StudentSnapshot {
+    private static final int MAGIC = 0x53545553; // "STUS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    // Largest file load() can map in one buffer
+    private static final long MAX_SNAPSHOT_BYTES = Integer.MAX_VALUE;
+
+    private final long lastSeq;
+    private final int[] gradeOrder;
+    private final int[] nameOrder;
+
+    private StudentSnapshot(long lastSeq, int[] gradeOrder, int[] nameOrder) {
+        this.lastSeq = lastSeq;
+        this.gradeOrder = gradeOrder;
+        this.nameOrder = nameOrder;
+    }
+
+    /**
+     * @return Last journal sequence number reflected in the snapshot
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * @return Student IDs in grade-index order (see GradeIndex.idsInOrder)
+     */
+    public int[] getGradeOrder() {
+        return gradeOrder;
+    }
+
+    /**
+     * @return Student IDs in name-index order (see NameIndex.idsInNameOrder)
+     */
+    public int[] getNameOrder() {
+        return nameOrder;
+    }
+
+    /**
+     * Writes a snapshot
+     * @param path Snapshot file; replaced atomically, and durable (file and directory entry
+     *             synced) when this returns
+     * @param students Students to save
+     * @param count Number of students the iterable returns
+     * @param lastSeq Last journal sequence number reflected in the students
+     * @param gradeOrder The same students' IDs in grade-index order
+     * @param nameOrder The same students' IDs in name-index order
+     * @throws IOException If the file cannot be written, or would be too large for load() to read
+     *                     back; the previous snapshot is then left in place
+     */
+    public static void write(Path path, Iterable<Student> students, int count, long lastSeq,
+                             int[] gradeOrder, int[] nameOrder) throws IOException {
+        if (gradeOrder.length != count || nameOrder.length != count) {
+            throw new IllegalArgumentException("Index orders must list all " + count + " students");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            writeTemporary(temporary, students, count, lastSeq, gradeOrder, nameOrder);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The rename is only durable once the directory entry is on disk; callers truncate the
+        // journal after this returns, so the order matters
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    /**
+     * Writes the whole snapshot to a temporary file and syncs it
+     */
+    private static void writeTemporary(Path temporary, Iterable<Student> students, int count, long lastSeq,
+                                       int[] gradeOrder, int[] nameOrder) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(lastSeq).putInt(count);
+            int recordsStart = buffer.position();
+            CRC32C crc = new CRC32C();
+
+            // Header, index orders and checksum; each record adds its length below
+            long size = HEADER_BYTES + 2L * count * Integer.BYTES + Integer.BYTES;
+            int written = 0;
+            for (Student student : students) {
+                byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+                int recordLength = Integer.BYTES + Double.BYTES + Integer.BYTES + name.length;
+                size += recordLength;
+                if (size > MAX_SNAPSHOT_BYTES) {
+                    throw new IOException("Snapshot would be larger than 2 GB, which cannot be loaded; "
+                        + "stopped after " + written + " of " + count + " students");
+                }
+                if (buffer.remaining() < recordLength) {
+                    recordsStart = drain(buffer, recordsStart, crc, channel);
+                    if (buffer.remaining() < recordLength) {
+                        throw new IOException("Name of student " + student.getId() + " is too long to save");
+                    }
+                }
+                buffer.putInt(student.getId()).putDouble(student.getGrade()).putInt(name.length).put(name);
+                written++;
+            }
+            if (written != count) {
+                throw new IllegalStateException("Expected " + count + " students but found " + written);
+            }
+            for (int[] order : new int[][] {gradeOrder, nameOrder}) {
+                for (int id : order) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        recordsStart = drain(buffer, recordsStart, crc, channel);
+                    }
+                    buffer.putInt(id);
+                }
+            }
+            drain(buffer, recordsStart, crc, channel);
+            buffer.putInt((int) crc.getValue());
+            drain(buffer, buffer.position(), crc, channel);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Loads a snapshot
+     * @param path Snapshot file
+     * @param consumer Receives every student in the order they were saved
+     * @return The snapshot's sequence number and index orders, or null if there is no snapshot
+     * @throws IOException If the file cannot be read or is damaged
+     */
+    public static StudentSnapshot load(Path path, Consumer<Student> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Integer.BYTES) {
+                throw new IOException("Snapshot " + path + " is too short");
+            }
+            if (size > MAX_SNAPSHOT_BYTES) {
+                throw new IOException("Snapshot " + path + " is larger than 2 GB");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException(path + " is not a version " + VERSION + " student snapshot");
+            }
+            long lastSeq = mapped.getLong(8);
+            int count = mapped.getInt(16);
+            int end = (int) size - Integer.BYTES;
+
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.slice(HEADER_BYTES, end - HEADER_BYTES));
+            if ((int) crc.getValue() != mapped.getInt(end)) {
+                throw new IOException("Snapshot " + path + " is damaged (checksum mismatch)");
+            }
+
+            byte[] name = new byte[64];
+            int position = HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                if (end - position < 16) {
+                    throw new IOException("Snapshot " + path + " ends after " + i + " of " + count + " students");
+                }
+                int id = mapped.getInt(position);
+                double grade = mapped.getDouble(position + 4);
+                int nameLength = mapped.getInt(position + 12);
+                position += 16;
+                if (nameLength < 0 || nameLength > end - position) {
+                    throw new IOException("Snapshot " + path + " has a bad record at offset " + (position - 16));
+                }
+                if (name.length < nameLength) {
+                    name = new byte[Math.max(nameLength, name.length * 2)];
+                }
+                mapped.get(position, name, 0, nameLength);
+                position += nameLength;
+                consumer.accept(new Student(id, new String(name, 0, nameLength, StandardCharsets.UTF_8), grade));
+            }
+            if ((long) end - position != 2L * count * Integer.BYTES) {
+                throw new IOException("Snapshot " + path + " has " + (end - position)
+                    + " bytes of index order instead of " + 2L * count * Integer.BYTES);
+            }
+            int[] gradeOrder = new int[count];
+            int[] nameOrder = new int[count];
+            mapped.slice(position, count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(gradeOrder);
+            position += count * Integer.BYTES;
+            mapped.slice(position, count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(nameOrder);
+            return new StudentSnapshot(lastSeq, gradeOrder, nameOrder);
+        }
+    }
+
+    /**
+     * Writes the buffered bytes, adding the record bytes among them to the checksum
+     * @return Start of the record bytes in the (now empty) buffer
+     */
+    private static int drain(ByteBuffer buffer, int recordsStart, CRC32C crc, FileChannel channel) throws IOException {
+        buffer.flip();
+        crc.update(buffer.slice(recordsStart, buffer.limit() - recordsStart));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return 0;
+    }
+}
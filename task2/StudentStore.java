@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Storage behind the Student Management System.
+ *
+ * Implementations keep students unique by ID and iterate in insertion order.
+ */
+public interface StudentStore extends Iterable<Student> {
+
+    /**
+     * Adds a student unless its ID is already stored
+     * @param student Student to add
+     * @return true if added, false if the ID already exists
+     */
+    boolean add(Student student);
+
+    /**
+     * Removes a student by ID
+     * @param id Student ID
+     * @return The removed student, or null if not found
+     */
+    Student remove(int id);
+
+    /**
+     * Finds a student by ID
+     * @param id Student ID
+     * @return The student, or null if not found
+     */
+    Student find(int id);
+
+    boolean contains(int id);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Lists one page of students in insertion order
+     * @param offset Number of students to skip
+     * @param limit Maximum number of students to return
+     * @return Up to limit students
+     */
+    default List<Student> page(int offset, int limit) {
+        List<Student> page = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        Iterator<Student> iterator = iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+}
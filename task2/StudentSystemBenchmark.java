@@ -0,0 +1,763 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for the Student Management System data structures.
+ *
+ * Usage: java -Xmx6g StudentSystemBenchmark mode [sizes...]
+ * registry - ArrayList linear search against the hashed StudentRegistry (default sizes 10^6 and 10^7)
+ * store    - memory footprint and column scans: ArrayList of objects vs ColumnarStudentStore
+ *            on and off the heap (default size 5 * 10^6)
+ * names    - NameIndex prefix/substring search against a linear contains scan (default size 2 * 10^6)
+ * import   - parsing a generated CSV file: BufferedReader and String.split against the
+ *            parallel StudentCsvImporter, then a full import (default size 2 * 10^6 rows)
+ * recovery - snapshot write/load, full restart from a data directory, and journal commit
+ *            throughput with one and with many writers (default size 10^7)
+ * render   - printing a full listing: println(student) per row against StudentTableRenderer
+ *            (default size 10^6 rows)
+ * sessions - mixed lookups, writes and queries from 1 to 64 threads sharing one system:
+ *            one big lock around a StudentRegistry-backed system against the striped,
+ *            optimistic ConcurrentStudentRegistry-backed one (default roster 2 * 10^5)
+ * stats    - one monitoring poll of the grade statistics: a full pass over the roster
+ *            against the incrementally maintained GradeStatistics (default size 10^6)
+ */
+public class StudentSystemBenchmark {
+    private static final int LOOKUPS = 1_000_000;
+    private static final int LINEAR_LOOKUPS = 200;
+    private static final int JOURNAL_TAIL = 20_000;
+    private static final int[] SESSION_COUNTS = {1, 2, 4, 8, 16, 64};
+    private static final long SESSION_RUN_MILLIS = 1_000;
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "registry";
+        System.out.println("=== Student Management System Benchmark ===\n");
+
+        switch (mode) {
+            case "registry":
+                int[] sizes = parseSizes(args, new int[] {1_000_000, 10_000_000});
+                for (int size : sizes) {
+                    benchmarkRegistry(size);
+                }
+                break;
+            case "store":
+                for (int size : parseSizes(args, new int[] {5_000_000})) {
+                    benchmarkStores(size);
+                }
+                break;
+            case "names":
+                for (int size : parseSizes(args, new int[] {2_000_000})) {
+                    benchmarkNameSearch(size);
+                }
+                break;
+            case "import":
+                for (int size : parseSizes(args, new int[] {2_000_000})) {
+                    benchmarkImport(size);
+                }
+                break;
+            case "recovery":
+                for (int size : parseSizes(args, new int[] {10_000_000})) {
+                    benchmarkRecovery(size);
+                }
+                break;
+            case "sessions":
+                for (int size : parseSizes(args, new int[] {200_000})) {
+                    benchmarkSessions(size);
+                }
+                break;
+            case "stats":
+                for (int size : parseSizes(args, new int[] {1_000_000})) {
+                    benchmarkStatistics(size);
+                }
+                break;
+            case "render":
+                for (int size : parseSizes(args, new int[] {1_000_000})) {
+                    benchmarkRender(size);
+                }
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Compares insert (with duplicate check), lookup and delete costs per operation
+     * @param size Number of students
+     */
+    private static void benchmarkRegistry(int size) {
+        System.out.printf("--- %,d students ---%n", size);
+        Student[] roster = generateStudents(size, 42);
+        int[] probeIds = randomIds(roster, LOOKUPS, 7);
+
+        // ArrayList: every add or remove starts with a full findStudentById scan
+        ArrayList<Student> list = new ArrayList<>(size);
+        for (Student student : roster) {
+            list.add(student);
+        }
+        long start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < LINEAR_LOOKUPS; i++) {
+            found += linearFind(list, probeIds[i]) != null ? 1 : 0;
+        }
+        double linearNanos = (System.nanoTime() - start) / (double) LINEAR_LOOKUPS;
+
+        // Registry: the same operations through the int-keyed hash index
+        start = System.nanoTime();
+        StudentRegistry registry = new StudentRegistry();
+        for (Student student : roster) {
+            registry.add(student);
+        }
+        double insertNanos = (System.nanoTime() - start) / (double) size;
+
+        start = System.nanoTime();
+        for (int id : probeIds) {
+            found += registry.find(id) != null ? 1 : 0;
+        }
+        double lookupNanos = (System.nanoTime() - start) / (double) probeIds.length;
+
+        int removals = Math.min(size, LOOKUPS);
+        start = System.nanoTime();
+        for (int i = 0; i < removals; i++) {
+            registry.remove(roster[i].getId());
+        }
+        double removeNanos = (System.nanoTime() - start) / (double) removals;
+
+        System.out.printf("ArrayList find (linear scan):  %,14.1f ns/op  (every add/remove pays this)%n", linearNanos);
+        System.out.printf("Registry add + duplicate check:%,14.1f ns/op%n", insertNanos);
+        System.out.printf("Registry find:                 %,14.1f ns/op%n", lookupNanos);
+        System.out.printf("Registry remove:               %,14.1f ns/op%n", removeNanos);
+        System.out.printf("Speedup on find: %,.0fx   (found %d)%n%n", linearNanos / lookupNanos, found);
+    }
+
+    /**
+     * Reports the memory used by each store layout and times two full-roster scans
+     * @param size Number of students
+     */
+    private static void benchmarkStores(int size) {
+        System.out.printf("--- %,d students ---%n", size);
+        System.out.printf("%-26s %14s %14s %14s %14s%n", "Layout", "Heap MB", "Off-heap MB", "Avg scan ms", "Range scan ms");
+
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        ArrayList<Student> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(syntheticStudent(i));
+        }
+        long heapUsed = usedHeap() - heapBefore;
+        double[] result = new double[2];
+        double avgNanos = bestOf(() -> {
+            double sum = 0.0;
+            for (Student student : list) {
+                sum += student.getGrade();
+            }
+            result[0] = sum / list.size();
+        });
+        double rangeNanos = bestOf(() -> {
+            int count = 0;
+            for (Student student : list) {
+                if (student.getGrade() >= 60.0 && student.getGrade() <= 80.0) {
+                    count++;
+                }
+            }
+            result[1] = count;
+        });
+        printStoreRow("ArrayList<Student>", heapUsed, usedDirect() - directBefore, avgNanos, rangeNanos);
+        System.out.printf("    (average %.3f, %,.0f in [60, 80])%n", result[0], result[1]);
+        list.clear();
+        list.trimToSize();
+
+        for (boolean offHeap : new boolean[] {false, true}) {
+            heapBefore = usedHeap();
+            directBefore = usedDirect();
+            ColumnarStudentStore store = new ColumnarStudentStore(offHeap);
+            for (int i = 0; i < size; i++) {
+                store.add(syntheticStudent(i));
+            }
+            store.trimToSize();
+            heapUsed = usedHeap() - heapBefore;
+            long directUsed = usedDirect() - directBefore;
+
+            avgNanos = bestOf(() -> result[0] = store.averageGrade());
+            rangeNanos = bestOf(() -> result[1] = store.countInGradeRange(60.0, 80.0));
+            printStoreRow(offHeap ? "Columnar (off-heap)" : "Columnar (heap)", heapUsed, directUsed, avgNanos, rangeNanos);
+            System.out.printf("    (average %.3f, %,.0f in [60, 80])%n", result[0], result[1]);
+        }
+        System.out.println("Heap/off-heap MB are measured after GC; the columnar stores include their ID index.");
+        System.out.println();
+    }
+
+    /**
+     * Runs a scan three times to warm up, then returns the best of five timed runs in nanoseconds
+     */
+    private static double bestOf(Runnable scan) {
+        for (int i = 0; i < 3; i++) {
+            scan.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            scan.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Times name queries through the trigram/prefix index against scanning every name
+     * @param size Number of students
+     */
+    private static void benchmarkNameSearch(int size) {
+        System.out.printf("--- %,d students ---%n", size);
+        Random random = new Random(11);
+        String[] syllables = {"an", "ber", "ca", "dor", "el", "fi", "gra", "ho", "is", "jo", "ka", "lin",
+            "mor", "na", "ol", "pe", "qu", "ri", "sa", "ton", "u", "vi", "wen", "xa", "yo", "zel"};
+        StudentManagementSystem sms = new StudentManagementSystem();
+        ArrayList<Student> list = new ArrayList<>(size);
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            String name = randomWord(random, syllables) + " " + randomWord(random, syllables);
+            Student student = new Student(1000 + i, name, random.nextInt(101));
+            list.add(student);
+            sms.insertStudent(student);
+        }
+        System.out.printf("Built registry and indexes in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        System.out.printf("%-28s %16s %16s %10s%n", "Query", "Linear scan us", "Index us", "Matches");
+
+        String[] prefixes = {"kalin", "mor", "zelqu"};
+        for (String prefix : prefixes) {
+            int[] matches = new int[1];
+            double linear = bestOf(() -> {
+                int count = 0;
+                for (Student student : list) {
+                    if (student.getName().toLowerCase(Locale.ROOT).startsWith(prefix) && count < 100) {
+                        count++;
+                    }
+                }
+                matches[0] = count;
+            });
+            double indexed = bestOf(() -> matches[0] = sms.findStudentsByNamePrefix(prefix, 100).size());
+            System.out.printf("%-28s %,16.1f %,16.1f %10d%n", "prefix '" + prefix + "' (limit 100)",
+                linear / 1000, indexed / 1000, matches[0]);
+        }
+
+        String[] fragments = {"wenxa", "dorel", "quri ton", "yozel"};
+        for (String fragment : fragments) {
+            int[] matches = new int[1];
+            double linear = bestOf(() -> {
+                int count = 0;
+                for (Student student : list) {
+                    if (student.getName().toLowerCase(Locale.ROOT).contains(fragment) && count < 100) {
+                        count++;
+                    }
+                }
+                matches[0] = count;
+            });
+            double indexed = bestOf(() -> matches[0] = sms.findStudentsByName(fragment, 100).size());
+            System.out.printf("%-28s %,16.1f %,16.1f %10d%n", "contains '" + fragment + "' (limit 100)",
+                linear / 1000, indexed / 1000, matches[0]);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Times saving and restoring a roster, and how many journaled changes per second can be made durable
+     * @param size Number of students in the snapshot
+     */
+    private static void benchmarkRecovery(int size) {
+        System.out.printf("--- %,d students ---%n", size);
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory("student-data");
+            StudentManagementSystem original = new StudentManagementSystem();
+            original.openDataDirectory(directory);
+            long start = System.nanoTime();
+            original.insertStudents(Arrays.asList(generateStudents(size, 42)));
+            System.out.printf("Journaled bulk insert:   %8.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+            Path snapshot = directory.resolve("students.snapshot");
+            start = System.nanoTime();
+            original.saveSnapshot();
+            System.out.printf("Snapshot write:          %8.0f ms (%,d bytes)%n",
+                (System.nanoTime() - start) / 1e6, Files.size(snapshot));
+            original.closeDataDirectory();
+            original = null;
+
+            long[] loaded = new long[1];
+            start = System.nanoTime();
+            StudentSnapshot.load(snapshot, student -> loaded[0]++);
+            System.out.printf("Snapshot load (decode):  %8.0f ms (%,d students)%n",
+                (System.nanoTime() - start) / 1e6, loaded[0]);
+
+            StudentManagementSystem restored = new StudentManagementSystem();
+            start = System.nanoTime();
+            restored.openDataDirectory(directory);
+            System.out.printf("Full restart (+indexes): %8.0f ms%n", (System.nanoTime() - start) / 1e6);
+            // Simulated crash: changes after the snapshot exist only in the journal
+            for (int i = 0; i < JOURNAL_TAIL; i++) {
+                restored.deleteStudent(1000 + i);
+            }
+            restored.insertStudents(Arrays.asList(generateStudents(JOURNAL_TAIL, 43)));
+            restored = null;
+            StudentManagementSystem replayed = new StudentManagementSystem();
+            start = System.nanoTime();
+            replayed.openDataDirectory(directory);
+            System.out.printf("Restart + %,d journal records: %8.0f ms%n", 2 * JOURNAL_TAIL,
+                (System.nanoTime() - start) / 1e6);
+            replayed.closeDataDirectory();
+            replayed = null;
+
+            Path journalPath = directory.resolve("commit.journal");
+            for (int writers : new int[] {1, 8, 64}) {
+                Files.deleteIfExists(journalPath);
+                try (StudentJournal journal = new StudentJournal(journalPath, 0, null)) {
+                    double perSecond = journalCommits(journal, writers, 2_000);
+                    System.out.printf("Journal commits, %2d writer(s): %,10.0f durable changes/s%n", writers, perSecond);
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Recovery benchmark failed: " + e.getMessage());
+        } finally {
+            deleteDirectory(directory);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Times parsing and importing a CSV file with about 1% invalid rows and 1% duplicate IDs
+     * @param rows Number of rows in the file
+     */
+    private static void benchmarkImport(int rows) {
+        System.out.printf("--- %,d rows ---%n", rows);
+        Path file = null;
+        try {
+            file = Files.createTempFile("students", ".csv");
+            Random random = new Random(3);
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write("id,name,grade\n");
+                for (Student student : generateStudents(rows, 42)) {
+                    int roll = random.nextInt(100);
+                    int id = roll == 0 ? 1000 + random.nextInt(rows) : student.getId();
+                    String grade = roll == 1 ? "n/a" : String.valueOf(student.getGrade());
+                    writer.write(id + "," + student.getName() + "," + grade + "\n");
+                }
+            }
+            System.out.printf("File size: %,d bytes%n", Files.size(file));
+            Path csv = file;
+
+            int[] accepted = new int[1];
+            double splitNanos = bestOf(() -> accepted[0] = splitParse(csv));
+            System.out.printf("%-34s %8.0f ms %,14.0f rows/s (%,d accepted)%n", "BufferedReader + split + HashSet",
+                splitNanos / 1e6, rows / (splitNanos / 1e9), accepted[0]);
+
+            double parallelNanos = bestOf(() -> {
+                try {
+                    accepted[0] = new StudentCsvImporter().parse(csv, id -> false).getAccepted().size();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf("%-34s %8.0f ms %,14.0f rows/s (%,d accepted, %d threads)%n", "StudentCsvImporter.parse",
+                parallelNanos / 1e6, rows / (parallelNanos / 1e9), accepted[0], ForkJoinPool.getCommonPoolParallelism());
+
+            StudentManagementSystem sms = new StudentManagementSystem();
+            long start = System.nanoTime();
+            StudentCsvImporter.Result result = sms.importStudents(csv);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-34s %8.0f ms %,14.0f rows/s (%,d rejected)%n", "Full import (with indexes)",
+                seconds * 1e3, rows / seconds, result.getRejected().size());
+        } catch (IOException e) {
+            System.out.println("Import benchmark failed: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.out.println("Could not delete " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Runs the same operation mix from a growing number of threads against a system
+     * behind one lock and against a system on the concurrent registry, then checks
+     * that the roster, the list snapshot and the grade index still agree
+     * @param rosterSize Number of students loaded before the threads start
+     */
+    private static void benchmarkSessions(int rosterSize) {
+        System.out.printf("--- %,d students, %d CPUs ---%n", rosterSize, Runtime.getRuntime().availableProcessors());
+        System.out.println("Mix per operation: 90% find by ID, 9% add or remove, 0.9% top 10, 0.1% list a page of 20");
+        System.out.printf("%-10s %22s %22s%n", "Sessions", "Locked registry", "Concurrent registry");
+        Student[] roster = generateStudents(rosterSize, 42);
+        // Warm-up so the first row is not measuring the JIT
+        sessionThroughput(() -> new StudentManagementSystem(), roster, 4, new Object());
+        sessionThroughput(() -> new StudentManagementSystem(new ConcurrentStudentRegistry()), roster, 4, null);
+        for (int sessions : SESSION_COUNTS) {
+            Object bigLock = new Object();
+            double locked = sessionThroughput(() -> new StudentManagementSystem(), roster, sessions, bigLock);
+            double concurrent = sessionThroughput(() -> new StudentManagementSystem(new ConcurrentStudentRegistry()),
+                roster, sessions, null);
+            System.out.printf("%-10d %,16.0f ops/s %,16.0f ops/s (%.1fx)%n", sessions, locked, concurrent, concurrent / locked);
+        }
+        System.out.println();
+    }
+
+    /**
+     * @param lock Lock every operation holds, or null to call the system directly
+     * @return Operations per second over all threads
+     */
+    private static double sessionThroughput(Supplier<StudentManagementSystem> factory, Student[] roster,
+                                            int sessions, Object lock) {
+        StudentManagementSystem sms = factory.get();
+        sms.insertStudents(Arrays.asList(roster));
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(sessions);
+        long[] operations = new long[sessions];
+        Thread[] threads = new Thread[sessions];
+        for (int t = 0; t < sessions; t++) {
+            int session = t;
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // Each session adds and removes its own block of IDs above the roster
+                int nextId = 1000 + roster.length + session * 10_000_000;
+                int firstOwned = nextId;
+                long count = 0;
+                started.countDown();
+                while (running.get()) {
+                    int roll = random.nextInt(1000);
+                    Runnable operation;
+                    if (roll < 900) {
+                        int id = roster[random.nextInt(roster.length)].getId();
+                        operation = () -> sms.findStudentById(id);
+                    } else if (roll < 990) {
+                        if (nextId > firstOwned && random.nextBoolean()) {
+                            int id = --nextId;
+                            operation = () -> sms.deleteStudent(id);
+                        } else {
+                            Student student = new Student(nextId++, "Session " + session, random.nextInt(10001) / 100.0);
+                            operation = () -> sms.insertStudent(student);
+                        }
+                    } else if (roll < 999) {
+                        operation = () -> sms.getTopStudents(10);
+                    } else {
+                        int offset = random.nextInt(roster.length);
+                        operation = () -> sms.listStudents(offset, 20);
+                    }
+                    if (lock != null) {
+                        synchronized (lock) {
+                            operation.run();
+                        }
+                    } else {
+                        operation.run();
+                    }
+                    count++;
+                }
+                operations[session] = count;
+            });
+            threads[t].start();
+        }
+        long start = System.nanoTime();
+        try {
+            started.await();
+            Thread.sleep(SESSION_RUN_MILLIS);
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int count = sms.getStudentCount();
+        List<Student> listed = sms.listStudents(0, Integer.MAX_VALUE);
+        int indexed = sms.findStudentsByGradeRange(0.0, 100.0).size();
+        if (listed.size() != count || indexed != count) {
+            throw new IllegalStateException("Inconsistent roster: " + count + " students, "
+                + listed.size() + " listed, " + indexed + " in the grade index");
+        }
+        long total = 0;
+        for (long n : operations) {
+            total += n;
+        }
+        return total / seconds;
+    }
+
+    /**
+     * Compares computing count, mean, variance, extremes and histogram by scanning
+     * every student with reading the running statistics
+     * @param size Number of students
+     */
+    private static void benchmarkStatistics(int size) {
+        System.out.printf("--- %,d students ---%n", size);
+        StudentManagementSystem sms = new StudentManagementSystem();
+        sms.insertStudents(Arrays.asList(generateStudents(size, 42)));
+
+        double[] result = new double[2];
+        double scanNanos = bestOf(() -> {
+            long count = 0;
+            double sum = 0.0;
+            double sumOfSquares = 0.0;
+            double lowest = Double.POSITIVE_INFINITY;
+            double highest = Double.NEGATIVE_INFINITY;
+            long[] histogram = new long[GradeStatistics.BUCKETS];
+            for (Student student : sms.listStudents(0, Integer.MAX_VALUE)) {
+                double grade = student.getGrade();
+                count++;
+                sum += grade;
+                sumOfSquares += grade * grade;
+                lowest = Math.min(lowest, grade);
+                highest = Math.max(highest, grade);
+                histogram[Math.max(0, Math.min(GradeStatistics.BUCKETS - 1, (int) (grade / 10)))]++;
+            }
+            result[0] = sum / count;
+            // Use every figure so none of the work can be optimized away
+            result[1] = sumOfSquares / count - result[0] * result[0] + histogram[0] + lowest + highest;
+        });
+        GradeStatistics[] stats = new GradeStatistics[1];
+        int polls = 100_000;
+        double pollNanos = bestOf(() -> {
+            for (int i = 0; i < polls; i++) {
+                stats[0] = sms.getGradeStatistics();
+            }
+        }) / polls;
+        System.out.printf("%-34s %,14.0f ns per poll (mean %.4f)%n", "Full pass over the roster", scanNanos, result[0]);
+        System.out.printf("%-34s %,14.0f ns per poll (mean %.4f)%n", "GradeStatistics", pollNanos, stats[0].getMean());
+        System.out.println();
+    }
+
+    /**
+     * Prints a listing the old way (String.format inside toString, one println per row)
+     * and through the buffered renderer, after checking that both produce the same bytes
+     * @param rows Number of students listed
+     */
+    private static void benchmarkRender(int rows) {
+        System.out.printf("--- %,d rows ---%n", rows);
+        Student[] roster = generateStudents(rows, 42);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        printAll(roster, new PrintStream(expected));
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        StudentTableRenderer check = new StudentTableRenderer(actual);
+        for (Student student : roster) {
+            check.appendStudent(student);
+        }
+        check.flush();
+        if (!Arrays.equals(expected.toByteArray(), actual.toByteArray())) {
+            System.out.println("Renderer output differs from println output!");
+            return;
+        }
+        System.out.printf("Output: %,d bytes, identical%n", expected.size());
+
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        double printlnNanos = bestOf(() -> printAll(roster, sink));
+        System.out.printf("%-34s %8.0f ms %,14.0f rows/s%n", "println(student)",
+            printlnNanos / 1e6, rows / (printlnNanos / 1e9));
+
+        double rendererNanos = bestOf(() -> {
+            StudentTableRenderer renderer = new StudentTableRenderer(OutputStream.nullOutputStream());
+            for (Student student : roster) {
+                renderer.appendStudent(student);
+            }
+            renderer.flush();
+        });
+        System.out.printf("%-34s %8.0f ms %,14.0f rows/s (%.1fx)%n", "StudentTableRenderer",
+            rendererNanos / 1e6, rows / (rendererNanos / 1e9), printlnNanos / rendererNanos);
+        System.out.println();
+    }
+
+    private static void printAll(Student[] roster, PrintStream out) {
+        for (Student student : roster) {
+            out.println(student);
+        }
+        out.flush();
+    }
+
+    /**
+     * Baseline: one line at a time with String.split and boxed duplicate detection
+     * @return Number of accepted rows
+     */
+    private static int splitParse(Path csv) {
+        int accepted = 0;
+        HashSet<Integer> seen = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                try {
+                    int id = Integer.parseInt(fields[0].trim());
+                    String name = fields[1].trim();
+                    double grade = Double.parseDouble(fields[2].trim());
+                    if (!name.isEmpty() && grade >= 0.0 && grade <= 100.0 && seen.add(id)) {
+                        accepted++;
+                    }
+                } catch (NumberFormatException e) {
+                    // rejected row
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return accepted;
+    }
+
+    /**
+     * Each writer appends and waits for its own record, like concurrent insertStudent calls
+     */
+    private static double journalCommits(StudentJournal journal, int writers, int perWriter) throws InterruptedException {
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            int first = t * perWriter;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    journal.sync(journal.appendAdd(syntheticStudent(first + i)));
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (double) writers * perWriter / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.out.println("Could not delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static String randomWord(Random random, String[] syllables) {
+        StringBuilder word = new StringBuilder();
+        int count = 2 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            word.append(syllables[random.nextInt(syllables.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    private static void printStoreRow(String layout, long heapBytes, long directBytes, double avgNanos, double rangeNanos) {
+        System.out.printf("%-26s %14.1f %14.1f %14.2f %14.2f%n", layout, heapBytes / 1048576.0,
+            directBytes / 1048576.0, avgNanos / 1_000_000.0, rangeNanos / 1_000_000.0);
+    }
+
+    /**
+     * Deterministic student for index i, so rosters can be built without holding a source array
+     */
+    private static Student syntheticStudent(int i) {
+        int h = i * 0x9E3779B9;
+        String[] firstNames = {"John", "Emma", "Michael", "Sarah", "David", "Lisa", "Robert", "Jennifer"};
+        String[] lastNames = {"Smith", "Johnson", "Brown", "Davis", "Wilson", "Anderson", "Taylor", "Lee"};
+        String name = firstNames[(h >>> 8) & 7] + " " + lastNames[(h >>> 12) & 7];
+        return new Student(1000 + i, name, ((h >>> 16) % 10001) / 100.0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    private static Student linearFind(ArrayList<Student> students, int id) {
+        for (Student student : students) {
+            if (student.getId() == id) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generates students with unique IDs in shuffled order
+     */
+    static Student[] generateStudents(int count, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1000 + i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+
+        String[] firstNames = {"John", "Emma", "Michael", "Sarah", "David", "Lisa", "Robert", "Jennifer"};
+        String[] lastNames = {"Smith", "Johnson", "Brown", "Davis", "Wilson", "Anderson", "Taylor", "Lee"};
+        Student[] students = new Student[count];
+        for (int i = 0; i < count; i++) {
+            String name = firstNames[random.nextInt(firstNames.length)] + " "
+                + lastNames[random.nextInt(lastNames.length)] + " " + i;
+            students[i] = new Student(ids[i], name, Math.round(random.nextDouble() * 10000) / 100.0);
+        }
+        return students;
+    }
+
+    private static int[] randomIds(Student[] roster, int count, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = roster[random.nextInt(roster.length)].getId();
+        }
+        return ids;
+    }
+
+    private static int[] parseSizes(String[] args, int[] defaults) {
+        if (args.length < 2) {
+            return defaults;
+        }
+        int[] sizes = new int[args.length - 1];
+        for (int i = 1; i < args.length; i++) {
+            sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+}
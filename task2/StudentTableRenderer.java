@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Buffered text output for student listings.
+ *
+ * Rows are rendered exactly like Student.toString() ("ID: %d | Name: %-20s |
+ * Grade: %.2f") but without String.format: the ID, the padded name and the
+ * grade are appended by hand into one reusable buffer that is written out in
+ * large blocks. Formatter rounds the decimal digits of Double.toString half-up;
+ * the fast path gets the same answer from value * 100 unless the result sits
+ * right next to a half, and those rare values go through BigDecimal instead.
+ *
+ * Nothing reaches the stream until the buffer fills or flush() is called.
+ */
+public class StudentTableRenderer {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NAME_WIDTH = 20;
+    private static final double FAST_GRADE_LIMIT = 1e7;
+    private static final char[] SPACES = "                    ".toCharArray();
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+    private final char decimalSeparator;
+    private final boolean asciiDigits;
+    private char[] chars = new char[BUFFER_SIZE + 256];
+
+    /**
+     * Creates a renderer that writes in the platform charset
+     * @param stream Destination, for example System.out
+     */
+    public StudentTableRenderer(OutputStream stream) {
+        this(new OutputStreamWriter(stream, Charset.defaultCharset()));
+    }
+
+    /**
+     * Creates a renderer
+     * @param out Destination; the renderer does its own buffering
+     */
+    public StudentTableRenderer(Writer out) {
+        this.out = out;
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.asciiDigits = symbols.getZeroDigit() == '0';
+    }
+
+    /**
+     * Appends one student row and a line break
+     * @param student Student to render
+     * @return This renderer
+     */
+    public StudentTableRenderer appendStudent(Student student) {
+        if (!asciiDigits) {
+            return appendLine(student.toString());
+        }
+        buffer.append("ID: ").append(student.getId()).append(" | Name: ");
+        String name = student.getName();
+        buffer.append(name);
+        if (name.length() < NAME_WIDTH) {
+            buffer.append(SPACES, 0, NAME_WIDTH - name.length());
+        }
+        buffer.append(" | Grade: ");
+        appendFixed2(student.getGrade());
+        buffer.append('\n');
+        return drainIfFull();
+    }
+
+    /**
+     * Appends a line of text and a line break
+     * @param line Text to append
+     * @return This renderer
+     */
+    public StudentTableRenderer appendLine(String line) {
+        buffer.append(line).append('\n');
+        return drainIfFull();
+    }
+
+    /**
+     * Appends a student row with a rank in front, like "1. ID: ..."
+     * @param rank Position in the listing
+     * @param student Student to render
+     * @return This renderer
+     */
+    public StudentTableRenderer appendRanked(int rank, Student student) {
+        buffer.append(rank).append(". ");
+        return appendStudent(student);
+    }
+
+    /**
+     * Writes everything buffered so far to the stream
+     */
+    public void flush() {
+        try {
+            drain();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Formats a value like String.format("%.2f", value) in the default locale
+     * @param value Value to format
+     * @return The formatted value
+     */
+    public String formatFixed2(double value) {
+        int start = buffer.length();
+        appendFixed2(value);
+        String text = buffer.substring(start);
+        buffer.setLength(start);
+        return text;
+    }
+
+    /**
+     * Appends value with two decimals, as Formatter's %.2f would
+     */
+    private void appendFixed2(double value) {
+        if (!(value >= 0.0 && value < FAST_GRADE_LIMIT) || !asciiDigits || (value == 0.0 && 1.0 / value < 0)) {
+            appendExact(value);
+            return;
+        }
+        double scaled = value * 100.0;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        // Below 10^7 the product and the shortest decimal differ by far less than 1e-6,
+        // so only a fraction close to one half can round differently
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            appendExact(value);
+            return;
+        }
+        long hundredths = (long) floor + (fraction > 0.5 ? 1 : 0);
+        buffer.append(hundredths / 100).append(decimalSeparator);
+        int cents = (int) (hundredths % 100);
+        if (cents < 10) {
+            buffer.append('0');
+        }
+        buffer.append(cents);
+    }
+
+    private void appendExact(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || !asciiDigits) {
+            buffer.append(String.format("%.2f", value));
+            return;
+        }
+        // Formatter rounds the magnitude's Double.toString digits half-up, then adds the sign
+        String text = BigDecimal.valueOf(Math.abs(value)).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        if (value < 0 || (value == 0.0 && 1.0 / value < 0)) {
+            buffer.append('-');
+        }
+        buffer.append(decimalSeparator == '.' ? text : text.replace('.', decimalSeparator));
+    }
+
+    private StudentTableRenderer drainIfFull() {
+        if (buffer.length() >= BUFFER_SIZE) {
+            try {
+                drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return this;
+    }
+
+    private void drain() throws IOException {
+        int length = buffer.length();
+        if (length > 0) {
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            buffer.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            buffer.setLength(0);
+        }
+    }
+}
@@ -1,4 +1,17 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class TestStudentSystem {
     public static void main(String[] args) {
@@ -63,8 +76,368 @@ public class TestStudentSystem {
         System.out.println("Student Grade: " + newStudent.getGrade());
         System.out.println();
         
+        // Test 6: Test StudentRegistry hash index
+        System.out.println("Test 6: StudentRegistry (O(1) lookup by ID)");
+        StudentRegistry registry = new StudentRegistry();
+        registry.add(student1);
+        registry.add(student2);
+        registry.add(student3);
+        System.out.println("Added 3 students. Total count: " + registry.size());
+        System.out.println("Duplicate ID 1001 rejected: " + !registry.add(new Student(1001, "Duplicate", 50.0)));
+        System.out.println("Find 1002: " + registry.find(1002));
+        System.out.println("Removed: " + registry.remove(1002));
+        System.out.println("Find 1002 after removal: " + registry.find(1002));
+        for (int id = 2000; id < 2100; id++) {
+            registry.add(new Student(id, "Bulk " + id, id % 100));
+        }
+        for (int id = 2000; id < 2100; id += 2) {
+            registry.remove(id);
+        }
+        boolean inOrder = true;
+        int previousId = 0;
+        for (Student s : registry) {
+            inOrder = inOrder && s.getId() > previousId;
+            previousId = s.getId();
+        }
+        System.out.println("After 100 adds and 50 removes. Total count: " + registry.size());
+        System.out.println("Insertion order preserved: " + inOrder);
+        System.out.println("Find 2001: " + registry.find(2001));
+        System.out.println();
+        
+        // Test 7: Test grade queries
+        System.out.println("Test 7: Grade range, top-K and percentile queries");
+        StudentManagementSystem sms = new StudentManagementSystem();
+        sms.addSampleData();
+        System.out.println("Students with grade in [80, 90]:");
+        for (Student s : sms.findStudentsByGradeRange(80.0, 90.0)) {
+            System.out.println("  " + s);
+        }
+        System.out.println("Top 2 students:");
+        for (Student s : sms.getTopStudents(2)) {
+            System.out.println("  " + s);
+        }
+        System.out.println("Median grade (50th percentile): " + sms.getGradeAtPercentile(50.0));
+        sms.deleteStudent(1004);
+        System.out.println("Top student after removing 1004: " + sms.getTopStudents(1).get(0));
+        System.out.println();
+        
+        // Test 8: Test columnar store
+        System.out.println("Test 8: ColumnarStudentStore (struct-of-arrays layout)");
+        for (boolean offHeap : new boolean[] {false, true}) {
+            ColumnarStudentStore columnar = new ColumnarStudentStore(offHeap);
+            for (int id = 1; id <= 3000; id++) {
+                columnar.add(new Student(id, "Student " + id, id % 101));
+            }
+            for (int id = 1; id <= 3000; id += 3) {
+                columnar.remove(id);
+            }
+            for (int id = 3001; id <= 4000; id++) {
+                columnar.add(new Student(id, "Student " + id, id % 101));
+            }
+            int count = 0;
+            int lastId = 0;
+            boolean ordered = true;
+            for (Student s : columnar) {
+                ordered = ordered && s.getId() > lastId && s.getName().equals("Student " + s.getId());
+                lastId = s.getId();
+                count++;
+            }
+            System.out.println((offHeap ? "Off-heap" : "Heap") + " store: " + columnar.size() + " students, "
+                + count + " iterated, insertion order and names intact: " + ordered);
+            System.out.println("  Find 3500: " + columnar.find(3500));
+            System.out.println("  Find 1 (removed): " + columnar.find(1));
+        }
+        StudentManagementSystem columnarSms = new StudentManagementSystem(new ColumnarStudentStore());
+        columnarSms.addSampleData();
+        System.out.println("Top student with columnar store: " + columnarSms.getTopStudents(1).get(0));
+        System.out.println();
+        
+        // Test 9: Test name search
+        System.out.println("Test 9: Name search (prefix and substring)");
+        System.out.println("Names starting with 'mi':");
+        for (Student s : sms.findStudentsByNamePrefix("mi", 10)) {
+            System.out.println("  " + s);
+        }
+        System.out.println("Names containing 'son':");
+        for (Student s : sms.findStudentsByName("son", 10)) {
+            System.out.println("  " + s);
+        }
+        System.out.println("Names containing 'AV':");
+        for (Student s : sms.findStudentsByName("AV", 10)) {
+            System.out.println("  " + s);
+        }
+        sms.deleteStudent(1005);
+        System.out.println("Matches for 'wilson' after removing 1005: " + sms.findStudentsByName("wilson", 10).size());
+        System.out.println();
+        
+        // Test 10: Test journal and snapshot recovery
+        System.out.println("Test 10: Journal and snapshot recovery");
+        try {
+            Path dataDir = Files.createTempDirectory("student-test");
+            StudentManagementSystem first = new StudentManagementSystem();
+            first.openDataDirectory(dataDir);
+            first.addSampleData();
+            first.deleteStudent(1003);
+            // No close: the process "crashes" here and only the journal holds the changes
+            StudentManagementSystem second = new StudentManagementSystem();
+            second.openDataDirectory(dataDir);
+            System.out.println("After crash, replayed from journal: " + second.getTopStudents(10).size()
+                + " students, 1003 present: " + (second.findStudentsByGradeRange(78.5, 78.5).size() > 0));
+            second.insertStudent(new Student(1006, "Olivia Martinez", 81.0));
+            second.closeDataDirectory();
+            
+            // A torn record at the end of the journal (crash mid-write) is discarded
+            Files.write(dataDir.resolve("students.journal"), new byte[] {42, 0, 0, 0, 1, 2},
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            StudentManagementSystem third = new StudentManagementSystem();
+            third.openDataDirectory(dataDir);
+            System.out.println("After clean shutdown, restored from snapshot: " + third.getTopStudents(10).size() + " students");
+            System.out.println("  Name search still works: " + third.findStudentsByName("martinez", 10));
+            System.out.println("  Top student: " + third.getTopStudents(1).get(0));
+            third.closeDataDirectory();
+            
+            try (Stream<Path> files = Files.list(dataDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            
+            // A name too long to journal fails the bulk insert, but what was stored stays indexed
+            String hugeName = "X".repeat(2 << 20);
+            System.out.println("2 MB name rejected by validation: " + (StudentManagementSystem.validateName(hugeName) != null));
+            StudentManagementSystem fourth = new StudentManagementSystem();
+            fourth.openDataDirectory(dataDir);
+            try {
+                fourth.insertStudents(Arrays.asList(new Student(1, "Ava Young", 70.0), new Student(2, hugeName, 80.0)));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Bulk insert stopped: " + e.getMessage().substring(0, 27) + "...");
+            }
+            System.out.println("  Stored: " + fourth.getStudentCount() + ", in grade index: "
+                + fourth.findStudentsByGradeRange(0, 100).size() + ", by name: " + fourth.findStudentsByName("ava", 10).size());
+            fourth.closeDataDirectory();
+            
+            try (Stream<Path> files = Files.list(dataDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            
+            // A snapshot that cannot be saved (here the temporary file is blocked by a directory)
+            // is reported, and the changes that triggered it still succeed
+            Path blocked = Files.createDirectory(dataDir.resolve("students.snapshot.tmp"));
+            Path blocker = Files.createFile(blocked.resolve("keep"));
+            StudentManagementSystem fifth = new StudentManagementSystem();
+            fifth.openDataDirectory(dataDir);
+            fifth.setSnapshotInterval(1000);
+            List<Student> roster = new ArrayList<>();
+            for (int i = 0; i < 1500; i++) {
+                roster.add(new Student(10_000 + i, "Student " + i, i % 101));
+            }
+            System.out.println("Inserted despite the failed snapshot: " + fifth.insertStudents(roster));
+            System.out.println("  Next insert also succeeds: " + fifth.insertStudent(new Student(5, "Zoe Hall", 88.0)));
+            try {
+                fifth.closeDataDirectory();
+            } catch (IOException e) {
+                System.out.println("  Final snapshot fails too, journal kept");
+            }
+            Files.delete(blocker);
+            Files.delete(blocked);
+            StudentManagementSystem sixth = new StudentManagementSystem();
+            sixth.openDataDirectory(dataDir);
+            System.out.println("  Replayed after restart: " + sixth.getStudentCount());
+            sixth.closeDataDirectory();
+            try (Stream<Path> files = Files.list(dataDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dataDir);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        System.out.println();
+        
+        // Test 11: Test bulk CSV import
+        System.out.println("Test 11: Bulk CSV import");
+        try {
+            Path csv = Files.createTempFile("students", ".csv");
+            Files.write(csv, Arrays.asList(
+                "id,name,grade",
+                "2001,Liam Walker,73.5",
+                "2002,\"Garcia, Sofia\",91",
+                "2003,,80",
+                "2004,Noah King,104",
+                "2001,Liam Again,60",
+                "1002,Emma Duplicate,70",
+                "abc,Bad Id,50"));
+            StudentCsvImporter.Result result = sms.importStudents(csv);
+            System.out.println("Rows: " + result.getRowCount() + ", imported: " + result.getAccepted().size()
+                + ", rejected: " + result.getRejected().size());
+            for (StudentCsvImporter.RejectedRow row : result.getRejected()) {
+                System.out.println("  " + row);
+            }
+            System.out.println("Imported student found by name: " + sms.findStudentsByName("sofia", 10));
+            Files.delete(csv);
+
+            // A malformed first row is rejected, not mistaken for a header
+            Path noHeader = Files.createTempFile("students", ".csv");
+            Files.write(noHeader, Arrays.asList("5,Alice", "2005,Mia Scott,88"));
+            StudentCsvImporter.Result headless = sms.importStudents(noHeader);
+            System.out.println("Malformed first row: imported " + headless.getAccepted().size()
+                + ", rejected " + headless.getRejected().size() + " " + headless.getRejected());
+            Files.delete(noHeader);
+
+            // A byte order mark before the header is ignored; grades use the same syntax as addStudent
+            Path withBom = Files.createTempFile("students", ".csv");
+            Files.write(withBom, ("\uFEFFid,name,grade\n2006,Lucas Hill,1e2\n2007,Bad Suffix,85.5d\n2008,Hex Grade,0x1.5p6\n")
+                .getBytes(StandardCharsets.UTF_8));
+            StudentCsvImporter.Result bom = sms.importStudents(withBom);
+            System.out.println("BOM header: imported " + bom.getAccepted().size() + ", rejected " + bom.getRejected());
+            Files.delete(withBom);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        System.out.println();
+        
+        // Test 12: Test scripted batch mode
+        System.out.println("Test 12: Batch commands with paged output");
+        try {
+            StudentManagementSystem batch = new StudentManagementSystem(new ColumnarStudentStore(false));
+            String script = String.join("\n",
+                "# set up a small roster",
+                "add 1 88.5 Ada Lovelace",
+                "add 2 91.255 Grace Hopper",
+                "add 3 79 Alan Turing",
+                "add 2 50 Duplicate",
+                "add 4 120 Too High",
+                "",
+                "remove 3",
+                "count",
+                "list --offset 1 --limit 5",
+                "top 1",
+                "percentile 50",
+                "prefix gra",
+                "frobnicate",
+                "list --limit",
+                "exit",
+                "add 5 70 Never Added");
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int errors = batch.runBatch(new StringReader(script), new StudentTableRenderer(output));
+            System.out.print(output.toString());
+            System.out.println("Failed commands: " + errors + ", students: " + batch.getStudentCount());
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        System.out.println();
+        
+        // Test 13: Test the shared registry under concurrent sessions
+        System.out.println("Test 13: Concurrent sessions");
+        try {
+            ConcurrentStudentRegistry shared = new ConcurrentStudentRegistry(8);
+            AtomicInteger wrongReads = new AtomicInteger();
+            Thread[] writers = new Thread[4];
+            for (int t = 0; t < writers.length; t++) {
+                int base = 100_000 * (t + 1);
+                writers[t] = new Thread(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        shared.add(new Student(base + i, "Writer " + base, i % 101));
+                        if (i % 2 == 1) {
+                            shared.remove(base + i - 1);
+                        }
+                        Student seen = shared.find(base + i / 2);
+                        if (seen != null && seen.getId() != base + i / 2) {
+                            wrongReads.incrementAndGet();
+                        }
+                        if (i % 1000 == 0) {
+                            shared.page(i, 20);
+                        }
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            int listed = 0;
+            for (Student student : shared) {
+                listed++;
+            }
+            System.out.println("Registry size: " + shared.size() + ", listed: " + listed + ", wrong reads: " + wrongReads.get());
+            
+            StudentManagementSystem multi = new StudentManagementSystem(new ConcurrentStudentRegistry());
+            try (StudentSessionServer server = new StudentSessionServer(multi, 0)) {
+                Thread acceptor = new Thread(server::serve);
+                acceptor.setDaemon(true);
+                acceptor.start();
+                String[] replies = new String[3];
+                Thread[] clients = new Thread[replies.length];
+                for (int c = 0; c < clients.length; c++) {
+                    int client = c;
+                    clients[c] = new Thread(() -> replies[client] = session(server.getPort(),
+                        "add " + (500 + client) + " " + (70 + client) + " Client " + client + "\n"
+                        + "find " + (500 + client) + "\nimport students.csv\nexit\n"));
+                    clients[c].start();
+                }
+                for (Thread client : clients) {
+                    client.join();
+                }
+                for (String reply : replies) {
+                    System.out.print(reply);
+                }
+                System.out.print(session(server.getPort(), "count\ntop 3\n"));
+            }
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+        System.out.println();
+        
+        // Test 14: Test incrementally maintained grade statistics
+        System.out.println("Test 14: Grade statistics");
+        StudentManagementSystem graded = new StudentManagementSystem();
+        Random random = new Random(14);
+        for (int i = 0; i < 5000; i++) {
+            graded.insertStudent(new Student(i, "Student " + i, random.nextInt(10001) / 100.0));
+        }
+        for (int i = 0; i < 5000; i += 3) {
+            graded.deleteStudent(i);
+        }
+        GradeStatistics stats = graded.getGradeStatistics();
+        double sum = 0.0;
+        long[] buckets = new long[GradeStatistics.BUCKETS];
+        List<Student> remaining = graded.listStudents(0, Integer.MAX_VALUE);
+        for (Student student : remaining) {
+            sum += student.getGrade();
+            buckets[Math.min(9, (int) (student.getGrade() / 10))]++;
+        }
+        double mean = sum / remaining.size();
+        double squares = 0.0;
+        for (Student student : remaining) {
+            squares += (student.getGrade() - mean) * (student.getGrade() - mean);
+        }
+        System.out.println("Count matches scan: " + (stats.getCount() == remaining.size()));
+        System.out.println("Mean matches scan: " + (Math.abs(stats.getMean() - mean) < 1e-9));
+        System.out.println("Variance matches scan: " + (Math.abs(stats.getVariance() - squares / remaining.size()) < 1e-6));
+        System.out.println("Histogram matches scan: " + Arrays.equals(stats.getHistogram(), buckets));
+        StudentManagementSystem small = new StudentManagementSystem();
+        small.addSampleData();
+        System.out.println(small.getGradeStatistics());
+        System.out.println();
+        
         System.out.println("=== All Tests Completed Successfully! ===");
         System.out.println("The Student Management System is working correctly.");
         System.out.println("You can now run the interactive StudentManagementSystem class.");
     }
+    
+    /**
+     * Sends a script to a session server and returns everything it answers
+     */
+    private static String session(int port, String script) {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+            socket.shutdownOutput();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "Error: " + e.getMessage() + "\n";
+        }
+    }
 }
@@ -2,6 +2,10 @@ public class Employee {
     private String name;
     private int age;
     private double salary;
+    // Case-folded name for NameSortKeys, computed on first use and cleared by setName
+    private String nameSortKey;
+    // Set while the employee belongs to an EmployeeManagementSystem
+    private EmployeeChangeListener changeListener;
     
     /**
      * Constructor for Employee class
@@ -20,8 +24,18 @@ public class Employee {
         return name;
     }
     
+    /**
+     * @param name New name; checked before the sorted views are touched, so a bad name
+     *             leaves the employee and every view unchanged
+     */
     public void setName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        beforeChange();
         this.name = name;
+        this.nameSortKey = null;
+        afterChange();
     }
     
     public int getAge() {
@@ -29,7 +43,9 @@ public class Employee {
     }
     
     public void setAge(int age) {
+        beforeChange();
         this.age = age;
+        afterChange();
     }
     
     public double getSalary() {
@@ -37,7 +53,47 @@ public class Employee {
     }
     
     public void setSalary(double salary) {
+        beforeChange();
         this.salary = salary;
+        afterChange();
+    }
+    
+    /**
+     * @return Name folded once with NameSortKeys.sortKey, for comparing names without case
+     */
+    String getNameSortKey() {
+        String key = nameSortKey;
+        if (key == null) {
+            key = NameSortKeys.sortKey(name);
+            nameSortKey = key;
+        }
+        return key;
+    }
+    
+    /**
+     * @return Listener notified of changes, or null if none
+     */
+    EmployeeChangeListener getChangeListener() {
+        return changeListener;
+    }
+    
+    /**
+     * @param changeListener Listener to notify around every setter call, or null
+     */
+    void setChangeListener(EmployeeChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+    
+    private void beforeChange() {
+        if (changeListener != null) {
+            changeListener.beforeChange(this);
+        }
+    }
+    
+    private void afterChange() {
+        if (changeListener != null) {
+            changeListener.afterChange(this);
+        }
     }
     
     /**
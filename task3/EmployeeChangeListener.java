@@ -0,0 +1,19 @@
+/**
+ * Notified around every setter call on an Employee, so structures ordered by
+ * employee fields can take the employee out under its old values and put it
+ * back under its new ones.
+ */
+public interface EmployeeChangeListener {
+
+    /**
+     * Called before a field changes; the employee still has its old values
+     * @param employee Employee about to change
+     */
+    void beforeChange(Employee employee);
+
+    /**
+     * Called after a field changed
+     * @param employee Employee that changed
+     */
+    void afterChange(Employee employee);
+}
@@ -0,0 +1,461 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sorts "name,age,salary" files that are too large to load, with a capped amount of memory.
+ *
+ * The input is read in runs of runSize lines. Each run is parsed, sorted and
+ * written to a temporary binary run file on a worker thread, while the next run
+ * is being read; at most `threads` runs, counting the one being read, are in
+ * memory at once, so the sorter holds at most threads * runSize employees. A
+ * run that fails to parse or write stops the reading. The run files are then
+ * merged with a heap, at most MAX_MERGE_WIDTH at a time (wider inputs take extra
+ * merge passes over consecutive runs), and the last pass writes the output CSV.
+ *
+ * Runs are sorted stably and merge ties go to the earlier run, so the output is
+ * in exactly the order Collections.sort with the same comparator would give for
+ * the whole file. A first line of "name,age,salary" is treated as a header; a
+ * name may contain commas (age and salary are the last two fields).
+ */
+public class EmployeeExternalSorter {
+    public static final int DEFAULT_RUN_SIZE = 1_000_000;
+    private static final int MAX_MERGE_WIDTH = 256;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    private static final String HEADER = "name,age,salary";
+
+    private final int runSize;
+    private final int threads;
+    private final Path tempDirectory;
+
+    /**
+     * Creates a sorter with the default run size, one thread per processor and the
+     * system temporary directory
+     */
+    public EmployeeExternalSorter() {
+        this(DEFAULT_RUN_SIZE, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Creates a sorter
+     * @param runSize Employees sorted in memory per run
+     * @param threads Runs sorted in parallel (and the most runs held in memory)
+     * @param tempDirectory Directory for run files, or null for the system default
+     */
+    public EmployeeExternalSorter(int runSize, int threads, Path tempDirectory) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive, got " + runSize);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threads);
+        }
+        this.runSize = runSize;
+        this.threads = threads;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Usage: java EmployeeExternalSorter input.csv output.csv [salary|name|age-salary] [runSize] [threads]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java EmployeeExternalSorter input.csv output.csv "
+                + "[salary|name|age-salary] [runSize] [threads]");
+            return;
+        }
+        Comparator<Employee> comparator = comparatorFor(args.length > 2 ? args[2] : "salary");
+        int runSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RUN_SIZE;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        Result result = new EmployeeExternalSorter(runSize, threads, null)
+            .sort(Path.of(args[0]), Path.of(args[1]), comparator);
+        System.out.printf("Sorted %,d employees in %.1f s (%,d runs, %d merge passes)%n",
+            result.getRowCount(), result.getSortNanos() / 1e9, result.getRunCount(), result.getMergePasses());
+    }
+
+    /**
+     * @param name salary (highest first), name (alphabetical) or age-salary (age, then salary)
+     * @return The matching comparator from the Employee Management System
+     */
+    public static Comparator<Employee> comparatorFor(String name) {
+        switch (name) {
+            case "salary":
+                return new SalaryComparator();
+            case "name":
+                // NameComparator order, with each name case-folded once
+                return NameSortKeys.comparator();
+            case "age-salary":
+                return EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator()
+                    .thenComparing(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator());
+            default:
+                throw new IllegalArgumentException("Unknown sort order: " + name);
+        }
+    }
+
+    /**
+     * Sorts a file of employees into another file
+     * @param input CSV file of name,age,salary rows
+     * @param output CSV file to write, with a header line
+     * @param comparator Order to sort by
+     * @return Row, run and timing counts
+     * @throws IOException If a file cannot be read or written, or a row is malformed
+     */
+    public Result sort(Path input, Path output, Comparator<? super Employee> comparator) throws IOException {
+        long start = System.nanoTime();
+        Path runDirectory = tempDirectory == null
+            ? Files.createTempDirectory("employee-sort")
+            : Files.createTempDirectory(tempDirectory, "employee-sort");
+        Result result = new Result();
+        try {
+            List<Path> runs = writeRuns(input, runDirectory, comparator, result);
+            result.runCount = runs.size();
+            int generation = 0;
+            while (runs.size() > MAX_MERGE_WIDTH) {
+                List<Path> merged = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += MAX_MERGE_WIDTH) {
+                    List<Path> group = runs.subList(from, Math.min(from + MAX_MERGE_WIDTH, runs.size()));
+                    Path target = runDirectory.resolve("merge-" + generation + "-" + merged.size() + ".bin");
+                    mergeToRun(group, target, comparator);
+                    for (Path run : group) {
+                        Files.delete(run);
+                    }
+                    merged.add(target);
+                }
+                runs = merged;
+                generation++;
+                result.mergePasses++;
+            }
+            mergeToCsv(runs, output, comparator);
+            result.mergePasses++;
+        } finally {
+            deleteDirectory(runDirectory);
+        }
+        result.sortNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Reads the input in runs and sorts and spills them on the worker pool
+     * @return Run files in input order
+     */
+    private List<Path> writeRuns(Path input, Path runDirectory, Comparator<? super Employee> comparator,
+                                 Result result) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore runsInMemory = new Semaphore(threads);
+        List<Future<Path>> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            String line = reader.readLine();
+            if (line != null && line.trim().equalsIgnoreCase(HEADER)) {
+                lineNumber++;
+                line = reader.readLine();
+            }
+            while (line != null) {
+                runsInMemory.acquireUninterruptibly();
+                // A failed run releases its permit too, so stop reading as soon as one shows up
+                for (Future<Path> run : pending) {
+                    if (run.isDone()) {
+                        run.get();
+                    }
+                }
+                String[] lines = new String[runSize];
+                long[] lineNumbers = new long[runSize];
+                int count = 0;
+                while (line != null && count < runSize) {
+                    lineNumber++;
+                    if (!line.isBlank()) {
+                        lines[count] = line;
+                        lineNumbers[count] = lineNumber;
+                        count++;
+                    }
+                    line = reader.readLine();
+                }
+                if (count == 0) {
+                    runsInMemory.release();
+                    break;
+                }
+                result.rowCount += count;
+                Path target = runDirectory.resolve("run-" + pending.size() + ".bin");
+                int size = count;
+                pending.add(pool.submit(() -> {
+                    try {
+                        return sortRun(lines, lineNumbers, size, target, comparator);
+                    } finally {
+                        runsInMemory.release();
+                    }
+                }));
+            }
+            List<Path> runs = new ArrayList<>(pending.size());
+            for (Future<Path> run : pending) {
+                runs.add(run.get());
+            }
+            return runs;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Sorting a run failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sorting runs", e);
+        } finally {
+            pool.shutdownNow();
+            // Let running workers finish before sort() deletes the directory they write to
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Parses, sorts and writes one run
+     */
+    private static Path sortRun(String[] lines, long[] lineNumbers, int count, Path target,
+                                Comparator<? super Employee> comparator) {
+        Employee[] employees = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            employees[i] = parseLine(lines[i], lineNumbers[i]);
+            lines[i] = null;
+        }
+        // Arrays.sort on objects is stable, so ties keep input order
+        Arrays.sort(employees, comparator);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), IO_BUFFER_SIZE))) {
+            out.writeInt(count);
+            for (Employee employee : employees) {
+                writeEmployee(out, employee);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+
+    /**
+     * Parses "name,age,salary"; the name is everything before the second-to-last comma
+     */
+    static Employee parseLine(String line, long lineNumber) {
+        int salaryComma = line.lastIndexOf(',');
+        int ageComma = salaryComma > 0 ? line.lastIndexOf(',', salaryComma - 1) : -1;
+        if (ageComma < 0) {
+            throw new UncheckedIOException(new IOException(
+                "Line " + lineNumber + ": expected name,age,salary but got \"" + line + "\""));
+        }
+        String name = line.substring(0, ageComma).trim();
+        try {
+            int age = Integer.parseInt(line.substring(ageComma + 1, salaryComma).trim());
+            double salary = Double.parseDouble(line.substring(salaryComma + 1).trim());
+            return new Employee(name, age, salary);
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException(
+                "Line " + lineNumber + ": invalid age or salary in \"" + line + "\""));
+        }
+    }
+
+    private static void writeEmployee(DataOutputStream out, Employee employee) throws IOException {
+        out.writeUTF(employee.getName());
+        out.writeInt(employee.getAge());
+        out.writeDouble(employee.getSalary());
+    }
+
+    /**
+     * Merges run files into one run file
+     */
+    private static void mergeToRun(List<Path> runs, Path target, Comparator<? super Employee> comparator)
+            throws IOException {
+        List<RunReader> readers = openRuns(runs);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), IO_BUFFER_SIZE))) {
+            long total = 0;
+            for (RunReader reader : readers) {
+                total += reader.remaining + (reader.current != null ? 1 : 0);
+            }
+            // Counts are written as int, so a merged run must stay below 2^31 employees
+            if (total > Integer.MAX_VALUE) {
+                throw new IOException("Merged run too large: " + total + " employees");
+            }
+            out.writeInt((int) total);
+            PriorityQueue<RunReader> heap = mergeHeap(readers, comparator);
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                writeEmployee(out, reader.current);
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            closeAll(readers);
+        }
+    }
+
+    /**
+     * Merges the last runs into the output CSV
+     */
+    private static void mergeToCsv(List<Path> runs, Path output, Comparator<? super Employee> comparator)
+            throws IOException {
+        List<RunReader> readers = openRuns(runs);
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            StringBuilder row = new StringBuilder(64);
+            PriorityQueue<RunReader> heap = mergeHeap(readers, comparator);
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                Employee employee = reader.current;
+                row.setLength(0);
+                row.append(employee.getName()).append(',').append(employee.getAge())
+                    .append(',').append(employee.getSalary());
+                out.append(row);
+                out.newLine();
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            closeAll(readers);
+        }
+    }
+
+    /**
+     * Heap of run readers ordered by their current employee, then by run order
+     */
+    private static PriorityQueue<RunReader> mergeHeap(List<RunReader> readers,
+                                                      Comparator<? super Employee> comparator) {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(Math.max(1, readers.size()), (a, b) -> {
+            int c = comparator.compare(a.current, b.current);
+            return c != 0 ? c : Integer.compare(a.order, b.order);
+        });
+        for (RunReader reader : readers) {
+            if (reader.current != null) {
+                heap.add(reader);
+            }
+        }
+        return heap;
+    }
+
+    private static List<RunReader> openRuns(List<Path> runs) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                readers.add(new RunReader(run, readers.size()));
+            }
+        } catch (IOException e) {
+            closeAll(readers);
+            throw e;
+        }
+        return readers;
+    }
+
+    private static void closeAll(List<RunReader> readers) throws IOException {
+        IOException failure = null;
+        for (RunReader reader : readers) {
+            try {
+                reader.in.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Sequential reader over one run file, holding its current employee
+     */
+    private static class RunReader {
+        final DataInputStream in;
+        final int order;
+        int remaining;
+        Employee current;
+
+        RunReader(Path run, int order) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_SIZE));
+            this.order = order;
+            this.remaining = in.readInt();
+            advance();
+        }
+
+        /**
+         * Reads the next employee into current
+         * @return false once the run is exhausted
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            remaining--;
+            current = new Employee(in.readUTF(), in.readInt(), in.readDouble());
+            return true;
+        }
+    }
+
+    /**
+     * Outcome of a sort
+     */
+    public static class Result {
+        private long rowCount;
+        private int runCount;
+        private int mergePasses;
+        private long sortNanos;
+
+        /**
+         * @return Number of employees sorted (blank lines and the header are not counted)
+         */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return Number of sorted runs spilled to disk
+         */
+        public int getRunCount() {
+            return runCount;
+        }
+
+        /**
+         * @return Number of merge passes, including the final one that writes the output
+         */
+        public int getMergePasses() {
+            return mergePasses;
+        }
+
+        /**
+         * @return Total time for reading, sorting, merging and writing
+         */
+        public long getSortNanos() {
+            return sortNanos;
+        }
+    }
+}
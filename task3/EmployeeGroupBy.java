@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Groups employees by a key and aggregates their salaries without sorting.
+ *
+ * The list is cut into a few chunks per core. Each chunk is aggregated on the
+ * common fork-join pool into its own table, and the tables are merged at the end,
+ * so threads never share or lock anything. For int keys (age, age band) a table
+ * is an open-addressing hash map with the count, sum, minimum and maximum in
+ * parallel primitive arrays, so aggregating a row never boxes or allocates.
+ * Any other key goes through a HashMap of SalaryStats per chunk.
+ *
+ * Grouping n employees into g groups is O(n + g) work per chunk plus O(g log g)
+ * to return the groups ordered by key.
+ */
+public class EmployeeGroupBy {
+    // Smaller lists are aggregated on the calling thread
+    private static final int MIN_CHUNK_SIZE = 1 << 15;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private EmployeeGroupBy() {
+    }
+
+    /**
+     * @param width Band width in years, e.g. 10 for 20-29, 30-39, ...
+     * @return Key extractor giving the first age of an employee's band
+     */
+    public static ToIntFunction<Employee> ageBand(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Band width must be positive, got " + width);
+        }
+        return e -> Math.floorDiv(e.getAge(), width) * width;
+    }
+
+    /**
+     * Aggregates salaries by an int key
+     * @param employees Employees to group
+     * @param key Key extractor, e.g. Employee::getAge or ageBand(10)
+     * @return Salary statistics per key, ordered by key
+     */
+    public static SortedMap<Integer, SalaryStats> salaryByIntKey(List<Employee> employees,
+                                                                 ToIntFunction<? super Employee> key) {
+        List<Employee> rows = randomAccess(employees);
+        int chunks = chunkCount(rows.size());
+        IntGroupTable table = IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> {
+                IntGroupTable local = new IntGroupTable();
+                int end = chunkEnd(rows.size(), chunks, chunk);
+                for (int i = chunkEnd(rows.size(), chunks, chunk - 1); i < end; i++) {
+                    Employee employee = rows.get(i);
+                    local.add(key.applyAsInt(employee), employee.getSalary());
+                }
+                return local;
+            })
+            .reduce(IntGroupTable::merge)
+            .orElseGet(IntGroupTable::new);
+        return table.toMap();
+    }
+
+    /**
+     * Aggregates salaries by any key
+     * @param employees Employees to group
+     * @param key Key extractor; keys need equals and hashCode
+     * @return Salary statistics per key, in no particular order
+     */
+    public static <K> Map<K, SalaryStats> salaryByKey(List<Employee> employees,
+                                                     Function<? super Employee, ? extends K> key) {
+        List<Employee> rows = randomAccess(employees);
+        int chunks = chunkCount(rows.size());
+        return IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> {
+                Map<K, SalaryStats> local = new HashMap<>();
+                int end = chunkEnd(rows.size(), chunks, chunk);
+                for (int i = chunkEnd(rows.size(), chunks, chunk - 1); i < end; i++) {
+                    Employee employee = rows.get(i);
+                    local.computeIfAbsent(key.apply(employee), k -> new SalaryStats()).add(employee.getSalary());
+                }
+                return local;
+            })
+            .reduce((left, right) -> {
+                right.forEach((k, stats) -> left.merge(k, stats, (a, b) -> {
+                    a.merge(b);
+                    return a;
+                }));
+                return left;
+            })
+            .orElseGet(HashMap::new);
+    }
+
+    private static List<Employee> randomAccess(List<Employee> employees) {
+        return employees instanceof RandomAccess ? employees : new ArrayList<>(employees);
+    }
+
+    private static int chunkCount(int size) {
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * @return End (exclusive) of a chunk; chunk -1 ends at 0
+     */
+    private static int chunkEnd(int size, int chunks, int chunk) {
+        return (int) ((long) size * (chunk + 1) / chunks);
+    }
+
+    /**
+     * Open-addressing hash table from int keys to salary count, sum, minimum and maximum
+     */
+    private static class IntGroupTable {
+        private static final int MIN_CAPACITY = 16;
+
+        private int[] keys = new int[MIN_CAPACITY];
+        private long[] counts = new long[MIN_CAPACITY];
+        private double[] sums = new double[MIN_CAPACITY];
+        private double[] mins = new double[MIN_CAPACITY];
+        private double[] maxes = new double[MIN_CAPACITY];
+        private int size;
+
+        void add(int key, double salary) {
+            combine(key, 1, salary, salary, salary);
+        }
+
+        IntGroupTable merge(IntGroupTable other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.counts[slot] != 0) {
+                    combine(other.keys[slot], other.counts[slot], other.sums[slot], other.mins[slot], other.maxes[slot]);
+                }
+            }
+            return this;
+        }
+
+        SortedMap<Integer, SalaryStats> toMap() {
+            SortedMap<Integer, SalaryStats> groups = new TreeMap<>();
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (counts[slot] != 0) {
+                    groups.put(keys[slot], new SalaryStats(counts[slot], sums[slot], mins[slot], maxes[slot]));
+                }
+            }
+            return groups;
+        }
+
+        private void combine(int key, long count, double sum, double min, double max) {
+            int slot = slotFor(key);
+            if (counts[slot] == 0) {
+                keys[slot] = key;
+                counts[slot] = count;
+                sums[slot] = sum;
+                mins[slot] = min;
+                maxes[slot] = max;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+            } else {
+                counts[slot] += count;
+                sums[slot] += sum;
+                mins[slot] = Math.min(mins[slot], min);
+                maxes[slot] = Math.max(maxes[slot], max);
+            }
+        }
+
+        /**
+         * @return The slot holding key, or the empty slot where it belongs
+         */
+        private int slotFor(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (counts[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            long[] oldCounts = counts;
+            double[] oldSums = sums;
+            double[] oldMins = mins;
+            double[] oldMaxes = maxes;
+            int capacity = oldKeys.length * 2;
+            keys = new int[capacity];
+            counts = new long[capacity];
+            sums = new double[capacity];
+            mins = new double[capacity];
+            maxes = new double[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldCounts[slot] != 0) {
+                    combine(oldKeys[slot], oldCounts[slot], oldSums[slot], oldMins[slot], oldMaxes[slot]);
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,178 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 public class EmployeeManagementSystem {
     private ArrayList<Employee> employees;
+    // Insertion sequence of every employee, used by sorted views to order ties
+    private final IdentityHashMap<Employee, Long> sequences = new IdentityHashMap<>();
+    private long nextSequence;
+    private final List<SortedEmployeeView> sortedViews = new ArrayList<>();
+    private final EmployeeChangeListener viewUpdater = new EmployeeChangeListener() {
+        @Override
+        public void beforeChange(Employee employee) {
+            long sequence = sequences.get(employee);
+            for (SortedEmployeeView view : sortedViews) {
+                view.remove(employee, sequence);
+            }
+        }
+        
+        @Override
+        public void afterChange(Employee employee) {
+            long sequence = sequences.get(employee);
+            for (SortedEmployeeView view : sortedViews) {
+                view.add(employee, sequence);
+            }
+        }
+    };
+    
+    // Sorted views used by the reports, kept up to date instead of re-sorting copies
+    private final SortedEmployeeView bySalaryDescending;
+    private final SortedEmployeeView byName;
+    private final SortedEmployeeView byAge;
+    private final SortedEmployeeView bySalaryAscending;
+    private final SortedEmployeeView byNameLength;
     
     /**
-     * Constructor initializes the employee list
+     * Constructor initializes the employee list and the sorted views
      */
     public EmployeeManagementSystem() {
         employees = new ArrayList<>();
+        // The sort key comparators are shared, so queries ordered by a sort key find these views
+        bySalaryDescending = registerSortedView(EmployeeSortEngine.SortKey.SALARY_DESCENDING.comparator());
+        // Same order as NameComparator, but compares names case-folded once per employee
+        byName = registerSortedView(NameSortKeys.comparator());
+        byAge = registerSortedView(EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator());
+        bySalaryAscending = registerSortedView(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator());
+        byNameLength = registerSortedView(EmployeeSortEngine.SortKey.NAME_LENGTH_ASCENDING.comparator());
         initializeSampleData();
     }
     
+    /**
+     * @return Read-only view of the employees in insertion order
+     */
+    public List<Employee> getEmployees() {
+        return Collections.unmodifiableList(employees);
+    }
+    
+    /**
+     * Adds an employee. Later setter calls on it keep every sorted view up to date.
+     * @param employee Employee to add; must not belong to another system
+     */
+    public void addEmployee(Employee employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee is required");
+        }
+        // The name views cannot order a null name
+        if (employee.getName() == null) {
+            throw new IllegalArgumentException("Employee name is required");
+        }
+        if (employee.getChangeListener() != null) {
+            throw new IllegalArgumentException("Employee already belongs to an employee system: " + employee.getName());
+        }
+        long sequence = nextSequence++;
+        employees.add(employee);
+        sequences.put(employee, sequence);
+        for (SortedEmployeeView view : sortedViews) {
+            view.add(employee, sequence);
+        }
+        employee.setChangeListener(viewUpdater);
+    }
+    
+    /**
+     * Removes an employee from the list and from every sorted view
+     * @param employee Employee to remove
+     * @return true if the employee was in the system
+     */
+    public boolean removeEmployee(Employee employee) {
+        Long sequence = sequences.remove(employee);
+        if (sequence == null) {
+            return false;
+        }
+        employees.remove(employee);
+        for (SortedEmployeeView view : sortedViews) {
+            view.remove(employee, sequence);
+        }
+        employee.setChangeListener(null);
+        return true;
+    }
+    
+    /**
+     * Registers a view that keeps the employees sorted by a comparator. Building it is
+     * O(n log n) once; after that every add, remove or setter call costs O(log n) per
+     * view, and view.snapshot() returns the sorted list in O(1).
+     * @param comparator Order of the view
+     * @return The new view
+     */
+    public SortedEmployeeView registerSortedView(Comparator<? super Employee> comparator) {
+        SortedEmployeeView view = new SortedEmployeeView(comparator);
+        // The list is in insertion order, so it is already in sequence order
+        view.load(employees, sequences::get);
+        sortedViews.add(view);
+        return view;
+    }
+    
+    /**
+     * Stops updating a view; its existing snapshots stay valid
+     * @param view View returned by registerSortedView
+     * @return true if the view was registered
+     */
+    public boolean unregisterSortedView(SortedEmployeeView view) {
+        return sortedViews.remove(view);
+    }
+    
+    /**
+     * Starts a filter/order/limit query, e.g.
+     * query().whereAgeBetween(28, 32).orderBy(SortKey.SALARY_DESCENDING).limit(10).list().
+     * The query planner uses the sorted views as indexes and statistics.
+     * @return New query over the current employees
+     */
+    public EmployeeQuery query() {
+        return new EmployeeQuery(this);
+    }
+    
+    /**
+     * Finds employees by name while tolerating typos, e.g. "Jenifer Lee" finds "Jennifer Lee".
+     * Walks the name view as a sorted dictionary and skips every prefix that cannot match,
+     * so it does not compute the edit distance to every employee.
+     * @param name Name to look up; case is ignored
+     * @param maxDistance Largest number of inserted, deleted or changed characters to accept
+     * @return Matching employees, closest first, ties in name order
+     */
+    public List<Employee> findByName(String name, int maxDistance) {
+        return EmployeeNameSearch.search(byName, name, maxDistance);
+    }
+    
+    /**
+     * @param comparator Comparator instance a view was registered with
+     * @return The registered view with exactly this comparator, or null
+     */
+    SortedEmployeeView findSortedView(Comparator<?> comparator) {
+        for (SortedEmployeeView view : sortedViews) {
+            if (view.comparator() == comparator) {
+                return view;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @param employee Employee in the system
+     * @return Its insertion sequence; list order is sequence order
+     */
+    long sequenceOf(Employee employee) {
+        return sequences.get(employee);
+    }
+    
     /**
      * Main method to run the Employee Management System
      */
@@ -71,16 +230,16 @@ public class EmployeeManagementSystem {
      * Initialize sample employee data
      */
     private void initializeSampleData() {
-        employees.add(new Employee("John Smith", 32, 75000.0));
-        employees.add(new Employee("Emma Johnson", 28, 82000.0));
-        employees.add(new Employee("Michael Brown", 35, 68000.0));
-        employees.add(new Employee("Sarah Davis", 29, 95000.0));
-        employees.add(new Employee("David Wilson", 31, 72000.0));
-        employees.add(new Employee("Lisa Anderson", 27, 88000.0));
-        employees.add(new Employee("Robert Taylor", 33, 65000.0));
-        employees.add(new Employee("Jennifer Lee", 30, 78000.0));
-        employees.add(new Employee("Christopher Garcia", 34, 92000.0));
-        employees.add(new Employee("Amanda Martinez", 26, 70000.0));
+        addEmployee(new Employee("John Smith", 32, 75000.0));
+        addEmployee(new Employee("Emma Johnson", 28, 82000.0));
+        addEmployee(new Employee("Michael Brown", 35, 68000.0));
+        addEmployee(new Employee("Sarah Davis", 29, 95000.0));
+        addEmployee(new Employee("David Wilson", 31, 72000.0));
+        addEmployee(new Employee("Lisa Anderson", 27, 88000.0));
+        addEmployee(new Employee("Robert Taylor", 33, 65000.0));
+        addEmployee(new Employee("Jennifer Lee", 30, 78000.0));
+        addEmployee(new Employee("Christopher Garcia", 34, 92000.0));
+        addEmployee(new Employee("Amanda Martinez", 26, 70000.0));
     }
     
     /**
@@ -101,15 +260,111 @@ public class EmployeeManagementSystem {
         }
     }
     
+    /**
+     * Groups salaries by age without sorting (parallel hash aggregation)
+     * @return Count, sum, average, minimum and maximum salary per age, ordered by age
+     */
+    public SortedMap<Integer, SalaryStats> getSalaryStatsByAge() {
+        return EmployeeGroupBy.salaryByIntKey(employees, Employee::getAge);
+    }
+    
+    /**
+     * Groups salaries by age band, e.g. 20-29, 30-39 for a width of 10
+     * @param width Band width in years
+     * @return Salary statistics per band, keyed by the band's first age
+     */
+    public SortedMap<Integer, SalaryStats> getSalaryStatsByAgeBand(int width) {
+        return EmployeeGroupBy.salaryByIntKey(employees, EmployeeGroupBy.ageBand(width));
+    }
+    
+    /**
+     * Groups salaries by any int key, using primitive per-thread hash tables
+     * @param key Key extractor
+     * @return Salary statistics per key, ordered by key
+     */
+    public SortedMap<Integer, SalaryStats> getSalaryStatsByIntKey(ToIntFunction<? super Employee> key) {
+        return EmployeeGroupBy.salaryByIntKey(employees, key);
+    }
+    
+    /**
+     * Groups salaries by any key, e.g. the first letter of the name
+     * @param key Key extractor; keys need equals and hashCode
+     * @return Salary statistics per key
+     */
+    public <K> Map<K, SalaryStats> getSalaryStatsBy(Function<? super Employee, ? extends K> key) {
+        return EmployeeGroupBy.salaryByKey(employees, key);
+    }
+    
+    /**
+     * Summarizes the salary distribution without sorting: median, p90, p99 and any other
+     * quantile within 1% of the exact salary. The list is read once in parallel, with one
+     * sketch per thread merged at the end.
+     * @return Salary sketch of all employees
+     */
+    public SalarySketch getSalaryDistribution() {
+        return employees.parallelStream().collect(SalarySketch.collector(SalarySketch.DEFAULT_RELATIVE_ACCURACY));
+    }
+    
+    /**
+     * Summarizes the salaries of a stream of employees, such as a payroll feed read
+     * lazily, in a few kilobytes; a parallel stream merges one sketch per thread
+     * @param employees Employees to read
+     * @param relativeAccuracy Largest relative error of a quantile, e.g. 0.01 for 1%
+     * @return Salary sketch; merge sketches of several feeds with SalarySketch.merge
+     */
+    public static SalarySketch salaryDistribution(Stream<? extends Employee> employees, double relativeAccuracy) {
+        return employees.collect(SalarySketch.collector(relativeAccuracy));
+    }
+    
+    /**
+     * Sorts a "name,age,salary" file that may be larger than the heap into another file,
+     * using sorted runs spilled to temporary files and a k-way merge
+     * @param input CSV file to sort
+     * @param output CSV file to write
+     * @param comparator Any employee comparator, e.g. SalaryComparator or NameComparator
+     * @param runSize Employees held per in-memory run; at most threads runs are in memory
+     * @param threads Runs sorted in parallel
+     * @return Row, run and timing counts
+     * @throws IOException If a file cannot be read or written, or a row is malformed
+     */
+    public static EmployeeExternalSorter.Result sortEmployeeFile(Path input, Path output,
+                                                                 Comparator<? super Employee> comparator,
+                                                                 int runSize, int threads) throws IOException {
+        return new EmployeeExternalSorter(runSize, threads, null).sort(input, output, comparator);
+    }
+    
+    /**
+     * Returns the first k employees of a comparator's order without sorting the list.
+     * Uses a bounded heap: O(n log k) time and O(k) extra memory. Ties keep list order,
+     * so the result equals the first k elements after Collections.sort.
+     * @param k Number of employees to return
+     * @param comparator Order to select by (e.g. SalaryComparator for the highest paid)
+     * @return Up to k employees in comparator order
+     */
+    public List<Employee> getTopEmployees(int k, Comparator<? super Employee> comparator) {
+        return TopKSelector.top(employees.iterator(), k, comparator);
+    }
+    
+    /**
+     * Returns the first k employees of a comparator's order from a stream, such as
+     * records read lazily from a large HR extract. Only k employees are held at a time;
+     * a parallel stream merges one heap per thread.
+     * @param employees Employees to scan
+     * @param k Number of employees to return
+     * @param comparator Order to select by
+     * @return Up to k employees in comparator order
+     */
+    public static List<Employee> topEmployees(Stream<? extends Employee> employees, int k,
+                                              Comparator<? super Employee> comparator) {
+        return TopKSelector.top(employees, k, comparator);
+    }
+    
     /**
      * Sort employees by salary in descending order using SalaryComparator
      */
     private void sortBySalaryDescending() {
-        // Create a copy to avoid modifying the original list
-        ArrayList<Employee> sortedBySalary = new ArrayList<>(employees);
-        
-        // Sort using Collections.sort() with SalaryComparator
-        Collections.sort(sortedBySalary, new SalaryComparator());
+        // Snapshot of the view kept sorted by SalaryComparator (no copy or re-sort)
+        List<Employee> sortedBySalary = bySalaryDescending.snapshot();
         
         System.out.println("Employees sorted by salary (highest to lowest):");
         System.out.println("Name                 | Age | Salary");
@@ -130,11 +385,8 @@ public class EmployeeManagementSystem {
      * Sort employees by name in ascending order using NameComparator
      */
     private void sortByNameAscending() {
-        // Create a copy to avoid modifying the original list
-        ArrayList<Employee> sortedByName = new ArrayList<>(employees);
-        
-        // Sort using Collections.sort() with NameComparator
-        Collections.sort(sortedByName, new NameComparator());
+        // Snapshot of the view kept in NameComparator order (no copy or re-sort)
+        List<Employee> sortedByName = byName.snapshot();
         
         System.out.println("Employees sorted by name (alphabetical):");
         System.out.println("Name                 | Age | Salary");
@@ -155,27 +407,19 @@ public class EmployeeManagementSystem {
      * Demonstrate lambda expressions for sorting
      */
     private void demonstrateLambdaSorting() {
+        // Each view was registered with a lambda comparator and is kept sorted
         System.out.println("1. Sorting by age (ascending) using lambda:");
-        ArrayList<Employee> sortedByAge = new ArrayList<>(employees);
-        Collections.sort(sortedByAge, (e1, e2) -> Integer.compare(e1.getAge(), e2.getAge()));
-        
-        for (Employee emp : sortedByAge) {
+        for (Employee emp : byAge.snapshot()) {
             System.out.println(emp);
         }
         
         System.out.println("\n2. Sorting by salary (ascending) using lambda:");
-        ArrayList<Employee> sortedBySalaryAsc = new ArrayList<>(employees);
-        Collections.sort(sortedBySalaryAsc, (e1, e2) -> Double.compare(e1.getSalary(), e2.getSalary()));
-        
-        for (Employee emp : sortedBySalaryAsc) {
+        for (Employee emp : bySalaryAscending.snapshot()) {
             System.out.println(emp);
         }
         
         System.out.println("\n3. Sorting by name length using lambda:");
-        ArrayList<Employee> sortedByNameLength = new ArrayList<>(employees);
-        Collections.sort(sortedByNameLength, (e1, e2) -> Integer.compare(e1.getName().length(), e2.getName().length()));
-        
-        for (Employee emp : sortedByNameLength) {
+        for (Employee emp : byNameLength.snapshot()) {
             System.out.println(emp);
         }
     }
@@ -184,23 +428,11 @@ public class EmployeeManagementSystem {
      * Demonstrate sorting by multiple fields
      */
     private void sortByMultipleFields() {
-        ArrayList<Employee> sortedByMultiple = new ArrayList<>(employees);
-        
-        // Sort by age first, then by salary (both ascending)
-        Collections.sort(sortedByMultiple, new Comparator<Employee>() {
-            @Override
-            public int compare(Employee e1, Employee e2) {
-                // First compare by age
-                int ageComparison = Integer.compare(e1.getAge(), e2.getAge());
-                
-                // If ages are equal, compare by salary
-                if (ageComparison == 0) {
-                    return Double.compare(e1.getSalary(), e2.getSalary());
-                }
-                
-                return ageComparison;
-            }
-        });
+        // Sort by age first, then by salary (both ascending). EmployeeSortEngine packs both
+        // fields into primitive keys and radix sorts them; the order is the same as
+        // Integer.compare on age followed by Double.compare on salary
+        List<Employee> sortedByMultiple = EmployeeSortEngine.sort(employees,
+            EmployeeSortEngine.SortKey.AGE_ASCENDING, EmployeeSortEngine.SortKey.SALARY_ASCENDING);
         
         System.out.println("Employees sorted by age (ascending), then by salary (ascending):");
         System.out.println("Name                 | Age | Salary");
@@ -220,6 +452,12 @@ public class EmployeeManagementSystem {
             }
             System.out.println("  " + emp);
         }
+        
+        // Aggregates come from a hash-based group-by, which needs no sorted list
+        System.out.println("\nSalary statistics by age band (10 years):");
+        for (Map.Entry<Integer, SalaryStats> band : getSalaryStatsByAgeBand(10).entrySet()) {
+            System.out.printf("Age %d-%d: %s%n", band.getKey(), band.getKey() + 9, band.getValue());
+        }
     }
     
     /**
@@ -229,10 +467,8 @@ public class EmployeeManagementSystem {
         System.out.println("Original list (unchanged):");
         displayEmployees();
         
-        // Create a new sorted list without modifying the original
-        List<Employee> sortedList = employees.stream()
-            .sorted(new SalaryComparator())
-            .toList();
+        // A snapshot is a new immutable sorted list; the original list is not touched
+        List<Employee> sortedList = bySalaryDescending.snapshot();
         
         System.out.println("\nNew sorted list (original unchanged):");
         System.out.println("Name                 | Age | Salary");
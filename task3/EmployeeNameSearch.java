@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Typo-tolerant name lookup: finds the employees whose name is within k edits
+ * (insertions, deletions or substitutions, ignoring case) of a query.
+ *
+ * The dictionary is a sorted view in NameSortKeys order, which the system keeps
+ * up to date anyway: it lists the case-folded names in String order, so names
+ * sharing a prefix are adjacent. The search walks it with the rows of the
+ * Levenshtein table, one row per prefix character, which are the states of a
+ * Levenshtein automaton for the query. A name reuses the rows of the prefix it
+ * shares with the previous name, so duplicates and common prefixes cost nothing.
+ * Once every entry of a row exceeds k, no name with that prefix can match, and
+ * the walk jumps past all of them with an O(log n) rank lookup.
+ *
+ * A search therefore visits only the prefixes within k edits of a query prefix
+ * instead of computing the distance to every employee. Distances are counted in
+ * UTF-16 units of the folded names; characters above U+D7FF count as two.
+ */
+public class EmployeeNameSearch {
+
+    private EmployeeNameSearch() {
+    }
+
+    /**
+     * Finds the employees with a name within maxDistance edits of a query
+     * @param byName View ordered by NameSortKeys.comparator()
+     * @param name Name to look up, e.g. "Jenifer Lee"
+     * @param maxDistance Largest edit distance to accept (0 for an exact, case-insensitive match)
+     * @return Matching employees, closest first, ties in name order
+     */
+    static List<Employee> search(SortedEmployeeView byName, String name, int maxDistance) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Distance cannot be negative, got " + maxDistance);
+        }
+        String query = NameSortKeys.sortKey(name);
+        int m = query.length();
+        List<List<Employee>> byDistance = new ArrayList<>(maxDistance + 1);
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+
+        // rows[i] is the Levenshtein row after the first i characters of the current name
+        int[][] rows = new int[16][];
+        rows[0] = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+        String previous = "";
+        int validRows = 0;
+
+        SortedEmployeeView.Snapshot names = byName.indexSnapshot();
+        Iterator<Employee> walk = names.iterator(0);
+        while (walk.hasNext()) {
+            Employee employee = walk.next();
+            String key = employee.getNameSortKey();
+            int depth = commonPrefix(previous, key, validRows);
+            boolean dead = false;
+            while (depth < key.length()) {
+                if (depth + 1 == rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+                int[] row = rows[depth + 1] != null ? rows[depth + 1] : (rows[depth + 1] = new int[m + 1]);
+                int smallest = nextRow(rows[depth], row, query, key.charAt(depth));
+                depth++;
+                if (smallest > maxDistance) {
+                    dead = true;
+                    break;
+                }
+            }
+            previous = key;
+            validRows = depth;
+            if (dead) {
+                // Skip every later name starting with the prefix that can no longer match
+                String prefix = key.substring(0, depth);
+                int next = names.rank(e -> {
+                    String other = e.getNameSortKey();
+                    return other.compareTo(prefix) > 0 && !other.startsWith(prefix);
+                });
+                walk = names.iterator(next);
+            } else if (rows[depth][m] <= maxDistance) {
+                byDistance.get(rows[depth][m]).add(employee);
+            }
+        }
+
+        List<Employee> matches = new ArrayList<>();
+        for (List<Employee> group : byDistance) {
+            matches.addAll(group);
+        }
+        return matches;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two names, ignoring case, by filling the
+     * whole table; used to check the index against a scan
+     * @param a First name
+     * @param b Second name
+     * @return Number of single-character edits turning one name into the other
+     */
+    public static int editDistance(String a, String b) {
+        String first = NameSortKeys.sortKey(a);
+        String second = NameSortKeys.sortKey(b);
+        int[] row = new int[second.length() + 1];
+        int[] next = new int[second.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        for (int i = 0; i < first.length(); i++) {
+            nextRow(row, next, second, first.charAt(i));
+            int[] swap = row;
+            row = next;
+            next = swap;
+        }
+        return row[second.length()];
+    }
+
+    /**
+     * Fills the table row for one more name character
+     * @return Smallest entry of the new row
+     */
+    private static int nextRow(int[] row, int[] next, String query, char c) {
+        next[0] = row[0] + 1;
+        int smallest = next[0];
+        for (int j = 1; j < next.length; j++) {
+            int substitute = row[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+            int value = Math.min(substitute, Math.min(row[j], next[j - 1]) + 1);
+            next[j] = value;
+            smallest = Math.min(smallest, value);
+        }
+        return smallest;
+    }
+
+    private static int commonPrefix(String a, String b, int limit) {
+        int max = Math.min(limit, Math.min(a.length(), b.length()));
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,505 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Filter, order and limit query over an EmployeeManagementSystem, e.g.
+ *
+ *     ems.query().whereAgeBetween(28, 32).orderBy(SortKey.SALARY_DESCENDING).limit(10).list()
+ *
+ * list() first picks a plan from statistics the system already maintains: the
+ * sorted views by age and by salary give the exact number of employees in an
+ * age or salary range with two O(log n) rank lookups. Each candidate plan gets
+ * a rough cost in rows visited and comparisons, and the cheapest one runs:
+ *
+ * FULL_SCAN / PARALLEL_SCAN - test every employee, in parallel on the common pool
+ *     for large lists when more than one core is available
+ * AGE_INDEX / SALARY_INDEX - visit only the employees in the most selective range,
+ *     read in order from the view, then restore list order
+ * ORDERED_INDEX - walk a view that is already in the requested order, stopping at
+ *     the limit, so nothing is sorted
+ *
+ * Rows that are not read from an ordered index are then put in order with a
+ * bounded top-K heap when a small limit is set, or a full (radix, for sort keys)
+ * sort otherwise. Every plan returns the same list: the matching employees as
+ * Collections.sort would order them in list order, cut to the limit. Plans with
+ * no order return matches in list order.
+ *
+ * A query is a one-off builder and is not thread-safe.
+ */
+public class EmployeeQuery {
+    // Lists at least this long are scanned in parallel when the pool has several threads
+    private static final int PARALLEL_MIN_ROWS = 1 << 17;
+    // Share of rows an arbitrary where(predicate) is assumed to keep
+    private static final double PREDICATE_SELECTIVITY = 0.5;
+
+    /**
+     * How the candidate rows are found
+     */
+    public enum Access {
+        FULL_SCAN, PARALLEL_SCAN, AGE_INDEX, SALARY_INDEX, ORDERED_INDEX
+    }
+
+    /**
+     * How the matching rows are put in order
+     */
+    public enum OrderStep {
+        NONE, INDEX, TOP_K, SORT
+    }
+
+    /**
+     * The plan chosen for a query, with the estimates it was chosen by
+     */
+    public static class Plan {
+        private final Access access;
+        private final OrderStep orderStep;
+        private final long estimatedRows;
+        private final double cost;
+
+        Plan(Access access, OrderStep orderStep, long estimatedRows, double cost) {
+            this.access = access;
+            this.orderStep = orderStep;
+            this.estimatedRows = estimatedRows;
+            this.cost = cost;
+        }
+
+        public Access getAccess() {
+            return access;
+        }
+
+        public OrderStep getOrderStep() {
+            return orderStep;
+        }
+
+        /**
+         * @return Estimated number of matching employees before the limit
+         */
+        public long getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        /**
+         * @return Estimated rows visited plus comparisons
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s -> %s, ~%,d matching rows, cost ~%,.0f", access, orderStep, estimatedRows, cost);
+        }
+    }
+
+    private final EmployeeManagementSystem system;
+    private boolean hasAgeRange;
+    private int minAge = Integer.MIN_VALUE;
+    private int maxAge = Integer.MAX_VALUE;
+    private boolean hasSalaryRange;
+    private double minSalary = Double.NEGATIVE_INFINITY;
+    private double maxSalary = Double.NaN; // Double.compare orders NaN above every salary
+    private final List<Predicate<? super Employee>> predicates = new ArrayList<>();
+    private Comparator<? super Employee> order;
+    private EmployeeSortEngine.SortKey[] sortKeys;
+    private int limit = -1;
+
+    /**
+     * @param system System to query; use EmployeeManagementSystem.query()
+     */
+    EmployeeQuery(EmployeeManagementSystem system) {
+        this.system = system;
+    }
+
+    /**
+     * Keeps employees whose age is in [min, max]; repeated calls intersect the ranges
+     * @param min Lowest age, inclusive
+     * @param max Highest age, inclusive
+     * @return This query
+     */
+    public EmployeeQuery whereAgeBetween(int min, int max) {
+        hasAgeRange = true;
+        minAge = Math.max(minAge, min);
+        maxAge = Math.min(maxAge, max);
+        return this;
+    }
+
+    /**
+     * Keeps employees whose salary is in [min, max] as ordered by Double.compare;
+     * repeated calls intersect the ranges
+     * @param min Lowest salary, inclusive
+     * @param max Highest salary, inclusive
+     * @return This query
+     */
+    public EmployeeQuery whereSalaryBetween(double min, double max) {
+        hasSalaryRange = true;
+        minSalary = Double.compare(min, minSalary) > 0 ? min : minSalary;
+        maxSalary = Double.compare(max, maxSalary) < 0 ? max : maxSalary;
+        return this;
+    }
+
+    /**
+     * Keeps employees matching any other condition; it is tested on every candidate row
+     * @param predicate Condition, e.g. e -> e.getName().startsWith("A")
+     * @return This query
+     */
+    public EmployeeQuery where(Predicate<? super Employee> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate is required");
+        }
+        predicates.add(predicate);
+        return this;
+    }
+
+    /**
+     * Orders by sort keys; a single key can be read in order from its sorted view, and
+     * several keys are sorted with EmployeeSortEngine's radix sort
+     * @param keys Sort keys, most significant first
+     * @return This query
+     */
+    public EmployeeQuery orderBy(EmployeeSortEngine.SortKey... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        Comparator<Employee> comparator = keys[0].comparator();
+        for (int i = 1; i < keys.length; i++) {
+            comparator = comparator.thenComparing(keys[i].comparator());
+        }
+        order = comparator;
+        sortKeys = keys.clone();
+        return this;
+    }
+
+    /**
+     * Orders by a textual spec such as "age asc, salary desc"; specs of age, salary and
+     * ascending name length sort with the radix engine, others with a compiled comparator
+     * @param spec Sort spec, see EmployeeSortSpec
+     * @return This query
+     */
+    public EmployeeQuery orderBy(String spec) {
+        EmployeeSortSpec parsed = EmployeeSortSpec.parse(spec);
+        EmployeeSortEngine.SortKey[] keys = parsed.toSortKeys();
+        return keys != null ? orderBy(keys) : orderBy(parsed.compile());
+    }
+
+    /**
+     * Orders by any comparator. A comparator a sorted view was registered with (such as
+     * NameSortKeys.comparator()) lets the query walk that view instead of sorting.
+     * @param comparator Order of the result
+     * @return This query
+     */
+    public EmployeeQuery orderBy(Comparator<? super Employee> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator is required");
+        }
+        order = comparator;
+        sortKeys = null;
+        return this;
+    }
+
+    /**
+     * @param limit Maximum number of employees to return
+     * @return This query
+     */
+    public EmployeeQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative, got " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Runs the query with the cheapest plan
+     * @return Matching employees in order, at most limit of them
+     */
+    public List<Employee> list() {
+        return execute(plan());
+    }
+
+    /**
+     * Runs the query with a given plan, e.g. to compare plans; every plan returns the same list
+     * @param access Access path; an index it needs must exist (ORDERED_INDEX needs a view
+     *               in the query's order)
+     * @return Matching employees in order, at most limit of them
+     */
+    public List<Employee> list(Access access) {
+        int rows = system.getEmployees().size();
+        OrderStep step = access == Access.ORDERED_INDEX ? OrderStep.INDEX : orderStep(rows);
+        return execute(new Plan(access, step, rows, 0));
+    }
+
+    /**
+     * @return Description of the plan list() would run, e.g. "AGE_INDEX -> TOP_K, ..."
+     */
+    public String explain() {
+        return plan().toString();
+    }
+
+    /**
+     * Chooses the cheapest plan for the current statistics
+     * @return Plan list() would run
+     */
+    public Plan plan() {
+        List<Employee> employees = system.getEmployees();
+        int n = employees.size();
+        double selectivity = Math.pow(PREDICATE_SELECTIVITY, predicates.size());
+        long ageRows = hasAgeRange ? ageRange(ageIndex()).size() : n;
+        long salaryRows = hasSalaryRange ? salaryRange(salaryIndex()).size() : n;
+        // Assumes age, salary and the other conditions are independent
+        long matches = Math.round((double) ageRows * salaryRows / Math.max(n, 1) * selectivity);
+
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        boolean parallel = threads > 1 && n >= PARALLEL_MIN_ROWS;
+        OrderStep step = orderStep(matches);
+        // Without an order a scan stops at the limit, after about limit / (share of rows matching) rows
+        double scanned = step == OrderStep.NONE ? visitedUntilLimit(n, matches) : n;
+        Plan best = new Plan(parallel ? Access.PARALLEL_SCAN : Access.FULL_SCAN, step, matches,
+            (parallel ? scanned / threads : scanned) + orderCost(step, matches));
+        if (hasAgeRange) {
+            best = cheaper(best, new Plan(Access.AGE_INDEX, step, matches, indexCost(ageRows) + orderCost(step, matches)));
+        }
+        if (hasSalaryRange) {
+            best = cheaper(best, new Plan(Access.SALARY_INDEX, step, matches,
+                indexCost(salaryRows) + orderCost(step, matches)));
+        }
+        if (order != null && orderedView() != null) {
+            best = cheaper(best, new Plan(Access.ORDERED_INDEX, OrderStep.INDEX, matches, visitedUntilLimit(n, matches)));
+        }
+        return best;
+    }
+
+    private double visitedUntilLimit(int n, long matches) {
+        return limit < 0 ? n : Math.min(n, (limit + 1.0) * n / Math.max(matches, 1));
+    }
+
+    private static Plan cheaper(Plan a, Plan b) {
+        return b.cost < a.cost ? b : a;
+    }
+
+    /**
+     * Visiting m rows of a range costs m, plus a radix sort by sequence to restore list order
+     */
+    private static double indexCost(long rows) {
+        return rows * 4.0;
+    }
+
+    private OrderStep orderStep(long matches) {
+        if (order == null) {
+            return OrderStep.NONE;
+        }
+        if (limit >= 0 && orderCost(OrderStep.TOP_K, matches) < orderCost(OrderStep.SORT, matches)) {
+            return OrderStep.TOP_K;
+        }
+        return OrderStep.SORT;
+    }
+
+    private double orderCost(OrderStep step, long matches) {
+        switch (step) {
+            case TOP_K:
+                return matches * log2(limit + 1L);
+            case SORT:
+                return matches * log2(matches);
+            default:
+                return 0;
+        }
+    }
+
+    private static double log2(long value) {
+        return Math.log(Math.max(value, 2)) / Math.log(2);
+    }
+
+    private List<Employee> execute(Plan plan) {
+        List<Employee> employees = system.getEmployees();
+        Predicate<Employee> matches = this::matches;
+        int max = limit < 0 ? Integer.MAX_VALUE : limit;
+        switch (plan.getAccess()) {
+            case ORDERED_INDEX: {
+                SortedEmployeeView view = orderedView();
+                if (view == null) {
+                    throw new IllegalStateException("No sorted view is registered with the query's comparator");
+                }
+                return collect(view.indexSnapshot().iterator(), matches, max);
+            }
+            case PARALLEL_SCAN: {
+                Stream<Employee> rows = employees.parallelStream().filter(matches);
+                switch (plan.getOrderStep()) {
+                    case TOP_K:
+                        return TopKSelector.top(rows, limit, order);
+                    case SORT:
+                        return sortAndLimit(rows.collect(Collectors.toList()));
+                    default:
+                        return rows.limit(max).collect(Collectors.toList());
+                }
+            }
+            case AGE_INDEX:
+            case SALARY_INDEX: {
+                List<Employee> range = plan.getAccess() == Access.AGE_INDEX
+                    ? ageRange(ageIndex()) : salaryRange(salaryIndex());
+                List<Employee> rows = inListOrder(collect(range.iterator(), matches, Integer.MAX_VALUE));
+                return order(rows, plan.getOrderStep(), max);
+            }
+            default: {
+                boolean stopEarly = plan.getOrderStep() == OrderStep.NONE;
+                return order(collect(employees.iterator(), matches, stopEarly ? max : Integer.MAX_VALUE),
+                    plan.getOrderStep(), max);
+            }
+        }
+    }
+
+    /**
+     * Puts rows read from an index back in list order, which is insertion sequence order.
+     * Each sequence is looked up once and the sequences are radix sorted.
+     */
+    private List<Employee> inListOrder(List<Employee> rows) {
+        long[] sequences = new long[rows.size()];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = system.sequenceOf(rows.get(i));
+        }
+        List<Employee> sorted = new ArrayList<>(sequences.length);
+        for (int index : EmployeeSortEngine.sortedOrder(sequences)) {
+            sorted.add(rows.get(index));
+        }
+        return sorted;
+    }
+
+    private List<Employee> order(List<Employee> rows, OrderStep step, int max) {
+        switch (step) {
+            case TOP_K:
+                return TopKSelector.top(rows.iterator(), limit, order);
+            case SORT:
+                return sortAndLimit(rows);
+            default:
+                return rows.size() <= max ? rows : new ArrayList<>(rows.subList(0, max));
+        }
+    }
+
+    /**
+     * Stable sort of rows in list order, so ties keep list order, then the limit
+     */
+    private List<Employee> sortAndLimit(List<Employee> rows) {
+        List<Employee> sorted;
+        if (sortKeys != null) {
+            sorted = EmployeeSortEngine.sort(rows, sortKeys);
+        } else {
+            sorted = rows;
+            sorted.sort(order);
+        }
+        return limit < 0 || sorted.size() <= limit ? sorted : new ArrayList<>(sorted.subList(0, limit));
+    }
+
+    private static List<Employee> collect(Iterator<Employee> rows, Predicate<Employee> matches, int max) {
+        List<Employee> result = new ArrayList<>();
+        while (result.size() < max && rows.hasNext()) {
+            Employee employee = rows.next();
+            if (matches.test(employee)) {
+                result.add(employee);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(Employee employee) {
+        if (hasAgeRange && (employee.getAge() < minAge || employee.getAge() > maxAge)) {
+            return false;
+        }
+        if (hasSalaryRange && (Double.compare(employee.getSalary(), minSalary) < 0
+            || Double.compare(employee.getSalary(), maxSalary) > 0)) {
+            return false;
+        }
+        for (Predicate<? super Employee> predicate : predicates) {
+            if (!predicate.test(employee)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SortedEmployeeView ageIndex() {
+        return requireView(EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator());
+    }
+
+    private SortedEmployeeView salaryIndex() {
+        return requireView(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator());
+    }
+
+    private SortedEmployeeView requireView(Comparator<? super Employee> comparator) {
+        SortedEmployeeView view = system.findSortedView(comparator);
+        if (view == null) {
+            throw new IllegalStateException("Index view is not registered");
+        }
+        return view;
+    }
+
+    /**
+     * @return View already in the query's order, or null
+     */
+    private SortedEmployeeView orderedView() {
+        return order == null ? null : system.findSortedView(order);
+    }
+
+    /**
+     * @return The employees of an age-ordered view with age in [minAge, maxAge]
+     */
+    private List<Employee> ageRange(SortedEmployeeView view) {
+        SortedEmployeeView.Snapshot snapshot = view.indexSnapshot();
+        int from = snapshot.rank(e -> e.getAge() >= minAge);
+        int to = Math.max(from, snapshot.rank(e -> e.getAge() > maxAge));
+        return range(snapshot, from, to);
+    }
+
+    /**
+     * @return The employees of a salary-ordered view with salary in [minSalary, maxSalary]
+     */
+    private List<Employee> salaryRange(SortedEmployeeView view) {
+        SortedEmployeeView.Snapshot snapshot = view.indexSnapshot();
+        int from = snapshot.rank(e -> Double.compare(e.getSalary(), minSalary) >= 0);
+        int to = Math.max(from, snapshot.rank(e -> Double.compare(e.getSalary(), maxSalary) > 0));
+        return range(snapshot, from, to);
+    }
+
+    /**
+     * @return [from, to) of a snapshot; size() is O(1) and iteration starts in O(log n)
+     */
+    private static List<Employee> range(SortedEmployeeView.Snapshot snapshot, int from, int to) {
+        return new AbstractList<Employee>() {
+            @Override
+            public Employee get(int index) {
+                return snapshot.get(from + index);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+
+            @Override
+            public Iterator<Employee> iterator() {
+                Iterator<Employee> rows = snapshot.iterator(from);
+                return new Iterator<Employee>() {
+                    private int remaining = to - from;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0;
+                    }
+
+                    @Override
+                    public Employee next() {
+                        if (remaining == 0) {
+                            throw new NoSuchElementException();
+                        }
+                        remaining--;
+                        return rows.next();
+                    }
+                };
+            }
+        };
+    }
+}
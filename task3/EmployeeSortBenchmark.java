@@ -0,0 +1,647 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for the Employee Management System sorting code.
+ *
+ * Usage: java -Xmx4g EmployeeSortBenchmark mode [sizes...]
+ * sort - Collections.sort with the comparators against EmployeeSortEngine for age,
+ *        salary (descending) and age then salary (default sizes 10^6 and 10^7)
+ * topk - top 100 by salary: full sort against TopKSelector on a list, a sequential stream
+ *        and a parallel stream (default sizes 10^6 and 10^7)
+ * views - 1,000 rounds of one salary change followed by a top-10 salary report: copy and
+ *        Collections.sort each round against a registered SortedEmployeeView (default size 10^6)
+ * names - sort by name: NameComparator against cached NameSortKeys keys, on names with mixed
+ *        case and accents (default sizes 10^6 and 5*10^6)
+ * groupby - salary statistics by age: sort and walk against Collectors.groupingBy and the
+ *        parallel primitive EmployeeGroupBy (default sizes 10^6 and 10^7)
+ * external - writes a CSV file and sorts it by salary with EmployeeExternalSorter using runs of
+ *        10^6 employees, reporting throughput (default size 10^7)
+ * query - filter/order/limit queries: stream filter + sort + limit against EmployeeQuery with
+ *        the plan it picks (default sizes 10^6 and 5*10^6)
+ * comparators - sorts by several specs: hand-written comparators and comparing/thenComparing
+ *        chains against EmployeeSortSpec compiled comparators (default size 10^6)
+ * fuzzy - typo-tolerant name lookups within 1 and 2 edits: edit distance to every employee
+ *        against EmployeeManagementSystem.findByName (default sizes 10^6 and 5*10^6)
+ * quantiles - median, p90 and p99 salary: Collections.sort against a SalarySketch on a list,
+ *        then a sketch over a lazily generated feed ten times larger (default sizes 10^6 and 10^7)
+ */
+public class EmployeeSortBenchmark {
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "sort";
+        System.out.println("=== Employee Sort Benchmark ===\n");
+
+        switch (mode) {
+            case "sort":
+                for (int size : parseSizes(args, new int[] {1_000_000, 10_000_000})) {
+                    benchmarkSort(size);
+                }
+                break;
+            case "topk":
+                for (int size : parseSizes(args, new int[] {1_000_000, 10_000_000})) {
+                    benchmarkTopK(size, 100);
+                }
+                break;
+            case "views":
+                for (int size : parseSizes(args, new int[] {1_000_000})) {
+                    benchmarkViews(size, 1_000);
+                }
+                break;
+            case "names":
+                for (int size : parseSizes(args, new int[] {1_000_000, 5_000_000})) {
+                    benchmarkNameSort(size);
+                }
+                break;
+            case "groupby":
+                for (int size : parseSizes(args, new int[] {1_000_000, 10_000_000})) {
+                    benchmarkGroupBy(size);
+                }
+                break;
+            case "external":
+                for (int size : parseSizes(args, new int[] {10_000_000})) {
+                    benchmarkExternalSort(size, 1_000_000);
+                }
+                break;
+            case "query":
+                for (int size : parseSizes(args, new int[] {1_000_000, 5_000_000})) {
+                    benchmarkQueries(size);
+                }
+                break;
+            case "comparators":
+                for (int size : parseSizes(args, new int[] {1_000_000})) {
+                    benchmarkComparators(size);
+                }
+                break;
+            case "fuzzy":
+                for (int size : parseSizes(args, new int[] {1_000_000, 5_000_000})) {
+                    benchmarkFuzzyLookup(size, 20);
+                }
+                break;
+            case "quantiles":
+                for (int size : parseSizes(args, new int[] {1_000_000, 10_000_000})) {
+                    benchmarkQuantiles(size);
+                }
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Times each sort both ways and checks that the two orders are identical
+     * @param size Number of employees
+     */
+    private static void benchmarkSort(int size) {
+        System.out.printf("--- %,d employees ---%n", size);
+        List<Employee> employees = generateEmployees(size, 42);
+
+        Comparator<Employee> ageThenSalary = EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator()
+            .thenComparing(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator());
+        compare(employees, "age", EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator(),
+            EmployeeSortEngine.SortKey.AGE_ASCENDING);
+        compare(employees, "salary (descending)", new SalaryComparator(),
+            EmployeeSortEngine.SortKey.SALARY_DESCENDING);
+        compare(employees, "age, then salary", ageThenSalary,
+            EmployeeSortEngine.SortKey.AGE_ASCENDING, EmployeeSortEngine.SortKey.SALARY_ASCENDING);
+        System.out.println();
+    }
+
+    /**
+     * Times top-k selection by salary against sorting everything and taking the first k,
+     * and checks every variant returns the same employees in the same order
+     * @param size Number of employees
+     * @param k Number of employees to select
+     */
+    private static void benchmarkTopK(int size, int k) {
+        System.out.printf("--- %,d employees, top %d by salary ---%n", size, k);
+        List<Employee> employees = generateEmployees(size, 42);
+        Comparator<Employee> bySalary = new SalaryComparator();
+
+        List<List<Employee>> results = new ArrayList<>(1);
+        double sortNanos = bestOf(() -> {
+            List<Employee> sorted = new ArrayList<>(employees);
+            Collections.sort(sorted, bySalary);
+            results.clear();
+            results.add(new ArrayList<>(sorted.subList(0, Math.min(k, sorted.size()))));
+        });
+        List<Employee> expected = results.get(0);
+        double heapNanos = bestOf(() -> {
+            results.clear();
+            results.add(TopKSelector.top(employees.iterator(), k, bySalary));
+        });
+        checkSameOrder("heap", expected, results.get(0));
+        double streamNanos = bestOf(() -> {
+            results.clear();
+            results.add(TopKSelector.top(employees.stream(), k, bySalary));
+        });
+        checkSameOrder("stream", expected, results.get(0));
+        double parallelNanos = bestOf(() -> {
+            results.clear();
+            results.add(TopKSelector.top(employees.parallelStream(), k, bySalary));
+        });
+        checkSameOrder("parallel stream", expected, results.get(0));
+
+        System.out.printf("Full sort + subList     %8.0f ms%n", sortNanos / 1e6);
+        System.out.printf("TopKSelector (iterator) %8.0f ms (%.1fx)%n", heapNanos / 1e6, sortNanos / heapNanos);
+        System.out.printf("TopKSelector (stream)   %8.0f ms (%.1fx)%n", streamNanos / 1e6, sortNanos / streamNanos);
+        System.out.printf("TopKSelector (parallel) %8.0f ms (%.1fx)%n%n", parallelNanos / 1e6, sortNanos / parallelNanos);
+    }
+
+    /**
+     * Interleaves salary changes with reports, re-sorting a copy each time against reading
+     * a snapshot of a sorted view, and checks both reports agree every round
+     * @param size Number of employees
+     * @param rounds Number of change-then-report rounds
+     */
+    private static void benchmarkViews(int size, int rounds) {
+        System.out.printf("--- %,d employees, %,d rounds of setSalary + top 10 report ---%n", size, rounds);
+        EmployeeManagementSystem ems = new EmployeeManagementSystem();
+        List<Employee> employees = generateEmployees(size, 42);
+        long start = System.nanoTime();
+        for (Employee employee : employees) {
+            ems.addEmployee(employee);
+        }
+        SortedEmployeeView view = ems.registerSortedView(new SalaryComparator());
+        double buildNanos = System.nanoTime() - start;
+
+        Random random = new Random(7);
+        long resortNanos = 0;
+        long viewNanos = 0;
+        List<Employee> copy = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            Employee changed = employees.get(random.nextInt(size));
+            long changeStart = System.nanoTime();
+            changed.setSalary(30_000 + random.nextInt(120_000));
+            viewNanos += System.nanoTime() - changeStart;
+
+            // The copy keeps the add order of the system, so ties match the view
+            start = System.nanoTime();
+            copy.clear();
+            copy.addAll(employees);
+            Collections.sort(copy, view.comparator());
+            List<Employee> expected = new ArrayList<>(copy.subList(0, 10));
+            resortNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Employee> actual = new ArrayList<>(view.snapshot().subList(0, 10));
+            viewNanos += System.nanoTime() - start;
+            checkSameOrder("view round " + round, expected, actual);
+        }
+        System.out.printf("Add + register views    %8.0f ms (one-off)%n", buildNanos / 1e6);
+        System.out.printf("Copy + sort per report  %8.2f ms/round%n", resortNanos / 1e6 / rounds);
+        System.out.printf("Sorted view per report  %8.4f ms/round (%.0fx, same order)%n%n",
+            viewNanos / 1e6 / rounds, (double) resortNanos / viewNanos);
+    }
+
+    /**
+     * Times name sorts with compareToIgnoreCase on every comparison against keys folded
+     * once per employee (first sort computes the keys, later sorts reuse them)
+     * @param size Number of employees
+     */
+    private static void benchmarkNameSort(int size) {
+        System.out.printf("--- %,d employees by name ---%n", size);
+        Random random = new Random(42);
+        String[] first = {"john", "Emma", "MICHAEL", "Sarah", "\u00c9lodie", "J\u00fcrgen", "Zo\u00eb", "Bj\u00f6rn"};
+        String[] last = {"Smith", "johnson", "Brown", "M\u00fcller", "\u00d8stergaard", "Garc\u00eda", "Lee", "O'Brien"};
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee(first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)]
+                + " " + Integer.toString(random.nextInt(size), 36), 30, 50_000));
+        }
+        List<List<Employee>> results = new ArrayList<>(1);
+        double comparatorNanos = bestOf(() -> {
+            List<Employee> sorted = new ArrayList<>(employees);
+            Collections.sort(sorted, new NameComparator());
+            results.clear();
+            results.add(sorted);
+        });
+        List<Employee> expected = results.get(0);
+        long start = System.nanoTime();
+        for (Employee employee : employees) {
+            employee.getNameSortKey();
+        }
+        double keyNanos = System.nanoTime() - start;
+        double sortNanos = bestOf(() -> {
+            results.clear();
+            results.add(NameSortKeys.sortByName(employees));
+        });
+        checkSameOrder("names", expected, results.get(0));
+        System.out.printf("NameComparator           %8.0f ms%n", comparatorNanos / 1e6);
+        System.out.printf("Computing sort keys      %8.0f ms (once per employee)%n", keyNanos / 1e6);
+        System.out.printf("Sort on cached keys      %8.0f ms (%.1fx, same order)%n%n",
+            sortNanos / 1e6, comparatorNanos / sortNanos);
+    }
+
+    /**
+     * Times three ways of computing salary statistics per age and checks they agree
+     * @param size Number of employees
+     */
+    private static void benchmarkGroupBy(int size) {
+        System.out.printf("--- %,d employees grouped by age ---%n", size);
+        List<Employee> employees = generateEmployees(size, 42);
+        List<Map<Integer, Long>> counts = new ArrayList<>(1);
+
+        double sortNanos = bestOf(() -> {
+            List<Employee> sorted = new ArrayList<>(employees);
+            Collections.sort(sorted, (e1, e2) -> Integer.compare(e1.getAge(), e2.getAge()));
+            Map<Integer, Long> groups = new TreeMap<>();
+            int i = 0;
+            while (i < sorted.size()) {
+                int age = sorted.get(i).getAge();
+                SalaryStats stats = new SalaryStats();
+                for (; i < sorted.size() && sorted.get(i).getAge() == age; i++) {
+                    stats.add(sorted.get(i).getSalary());
+                }
+                groups.put(age, stats.getCount());
+            }
+            counts.clear();
+            counts.add(groups);
+        });
+        Map<Integer, Long> expected = counts.get(0);
+        double collectorNanos = bestOf(() -> {
+            Map<Integer, DoubleSummaryStatistics> groups = employees.stream()
+                .collect(Collectors.groupingBy(Employee::getAge, Collectors.summarizingDouble(Employee::getSalary)));
+            counts.clear();
+            counts.add(new TreeMap<>(groups.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getCount()))));
+        });
+        checkSameCounts("groupingBy", expected, counts.get(0));
+        double groupByNanos = bestOf(() -> {
+            Map<Integer, Long> groups = new TreeMap<>();
+            EmployeeGroupBy.salaryByIntKey(employees, Employee::getAge)
+                .forEach((age, stats) -> groups.put(age, stats.getCount()));
+            counts.clear();
+            counts.add(groups);
+        });
+        checkSameCounts("EmployeeGroupBy", expected, counts.get(0));
+
+        System.out.printf("Sort + walk              %8.0f ms%n", sortNanos / 1e6);
+        System.out.printf("Collectors.groupingBy    %8.0f ms (%.1fx)%n", collectorNanos / 1e6, sortNanos / collectorNanos);
+        System.out.printf("EmployeeGroupBy          %8.0f ms (%.1fx, %d threads)%n%n", groupByNanos / 1e6,
+            sortNanos / groupByNanos, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    private static void checkSameCounts(String label, Map<Integer, Long> expected, Map<Integer, Long> actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(label + ": group counts differ");
+        }
+    }
+
+    /**
+     * Sorts a generated file with bounded memory and checks the output is in salary order
+     * @param size Number of employees in the file
+     * @param runSize Employees per in-memory run
+     */
+    private static void benchmarkExternalSort(int size, int runSize) {
+        System.out.printf("--- %,d employees in a file, runs of %,d ---%n", size, runSize);
+        try {
+            Path input = Files.createTempFile("employees", ".csv");
+            Path output = Files.createTempFile("employees-sorted", ".csv");
+            try {
+                Random random = new Random(42);
+                try (BufferedWriter out = Files.newBufferedWriter(input)) {
+                    out.write("name,age,salary");
+                    out.newLine();
+                    for (int i = 0; i < size; i++) {
+                        out.write("Employee " + random.nextInt(size) + "," + (20 + random.nextInt(45)) + ","
+                            + (30_000 + random.nextInt(120_000)) + ".0");
+                        out.newLine();
+                    }
+                }
+                int threads = Runtime.getRuntime().availableProcessors();
+                EmployeeExternalSorter.Result result = new EmployeeExternalSorter(runSize, threads, null)
+                    .sort(input, output, new SalaryComparator());
+
+                double previous = Double.POSITIVE_INFINITY;
+                long rows = 0;
+                try (BufferedReader in = Files.newBufferedReader(output)) {
+                    in.readLine();
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        double salary = Double.parseDouble(line.substring(line.lastIndexOf(',') + 1));
+                        if (salary > previous) {
+                            throw new AssertionError("Output not in salary order at row " + rows);
+                        }
+                        previous = salary;
+                        rows++;
+                    }
+                }
+                if (rows != size) {
+                    throw new AssertionError("Expected " + size + " rows, got " + rows);
+                }
+                System.out.printf("File size %,d MB, %d threads, %,d runs, %d merge passes%n",
+                    Files.size(input) >> 20, threads, result.getRunCount(), result.getMergePasses());
+                System.out.printf("External sort %8.1f s (%,.0f employees/s, output verified)%n%n",
+                    result.getSortNanos() / 1e9, size / (result.getSortNanos() / 1e9));
+            } finally {
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(output);
+            }
+        } catch (IOException e) {
+            System.out.println("External sort failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Times a few HR queries as stream filter + sort + limit against EmployeeQuery, and
+     * checks that both return the same employees in the same order
+     * @param size Number of employees added to the system
+     */
+    private static void benchmarkQueries(int size) {
+        System.out.printf("--- %,d employees, filter/order/limit queries ---%n", size);
+        EmployeeManagementSystem ems = new EmployeeManagementSystem();
+        for (Employee employee : generateEmployees(size, 42)) {
+            ems.addEmployee(employee);
+        }
+        List<Employee> employees = ems.getEmployees();
+
+        compareQuery(employees, "ages 28-29, top 10 by salary",
+            ems.query().whereAgeBetween(28, 29).orderBy(EmployeeSortEngine.SortKey.SALARY_DESCENDING).limit(10),
+            e -> e.getAge() >= 28 && e.getAge() <= 29, new SalaryComparator(), 10);
+        compareQuery(employees, "salary 100,000-100,499 by name",
+            ems.query().whereSalaryBetween(100_000, 100_499).orderBy(NameSortKeys.comparator()),
+            e -> e.getSalary() >= 100_000 && e.getSalary() <= 100_499, new NameComparator(), -1);
+        compareQuery(employees, "ages 40-44, E names, first 100",
+            ems.query().whereAgeBetween(40, 44).where(e -> e.getName().startsWith("E")).limit(100),
+            e -> e.getAge() >= 40 && e.getAge() <= 44 && e.getName().startsWith("E"), null, 100);
+        compareQuery(employees, "Lisa, by age+salary, top 1000",
+            ems.query().where(e -> e.getName().startsWith("Lisa"))
+                .orderBy(EmployeeSortEngine.SortKey.AGE_ASCENDING, EmployeeSortEngine.SortKey.SALARY_ASCENDING).limit(1000),
+            e -> e.getName().startsWith("Lisa"),
+            Comparator.comparingInt(Employee::getAge).thenComparingDouble(Employee::getSalary), 1000);
+        System.out.println();
+    }
+
+    private static void compareQuery(List<Employee> employees, String label, EmployeeQuery query,
+                                     Predicate<Employee> filter,
+                                     Comparator<Employee> comparator, int limit) {
+        List<List<Employee>> results = new ArrayList<>(1);
+        double streamNanos = bestOf(() -> {
+            Stream<Employee> rows = employees.stream().filter(filter);
+            if (comparator != null) {
+                rows = rows.sorted(comparator);
+            }
+            results.clear();
+            results.add((limit < 0 ? rows : rows.limit(limit)).collect(Collectors.toList()));
+        });
+        List<Employee> expected = results.get(0);
+        double queryNanos = bestOf(() -> {
+            results.clear();
+            results.add(query.list());
+        });
+        checkSameOrder(label, expected, results.get(0));
+        System.out.printf("%-32s stream %8.2f ms   query %8.2f ms (%.1fx, %,d rows) %s%n", label,
+            streamNanos / 1e6, queryNanos / 1e6, streamNanos / queryNanos, expected.size(), query.explain());
+    }
+
+    /**
+     * Times list sorts with comparators built three ways for the same specs. All specs run
+     * in one JVM, so the chains' shared call sites see several key extractors, as in an
+     * application with many sort orders.
+     * @param size Number of employees
+     */
+    private static void benchmarkComparators(int size) {
+        System.out.printf("--- %,d employees, comparator sorts ---%n", size);
+        List<Employee> employees = generateEmployees(size, 42);
+        String[] specs = {"salary desc", "name asc", "age asc, salary asc", "age desc, nameLength asc, name asc"};
+        Map<String, Comparator<Employee>> handWritten = new TreeMap<>();
+        handWritten.put("salary desc", new SalaryComparator());
+        handWritten.put("name asc", new NameComparator());
+        handWritten.put("age asc, salary asc", (e1, e2) -> {
+            int ageComparison = Integer.compare(e1.getAge(), e2.getAge());
+            return ageComparison != 0 ? ageComparison : Double.compare(e1.getSalary(), e2.getSalary());
+        });
+        for (String text : specs) {
+            EmployeeSortSpec spec = EmployeeSortSpec.parse(text);
+            List<List<Employee>> results = new ArrayList<>(1);
+            double chainNanos = bestOf(() -> {
+                List<Employee> sorted = new ArrayList<>(employees);
+                sorted.sort(spec.chained());
+                results.clear();
+                results.add(sorted);
+            });
+            List<Employee> expected = results.get(0);
+            double compiledNanos = bestOf(() -> {
+                List<Employee> sorted = new ArrayList<>(employees);
+                sorted.sort(spec.compile());
+                results.clear();
+                results.add(sorted);
+            });
+            checkSameOrder(text, expected, results.get(0));
+            Comparator<Employee> manual = handWritten.get(text);
+            String manualTime = "";
+            if (manual != null) {
+                double manualNanos = bestOf(() -> {
+                    List<Employee> sorted = new ArrayList<>(employees);
+                    sorted.sort(manual);
+                    results.clear();
+                    results.add(sorted);
+                });
+                checkSameOrder(text + " (hand-written)", expected, results.get(0));
+                manualTime = String.format("   hand-written %8.0f ms", manualNanos / 1e6);
+            }
+            System.out.printf("%-36s chain %8.0f ms   compiled %8.0f ms (%.1fx, same order)%s%n",
+                text, chainNanos / 1e6, compiledNanos / 1e6, chainNanos / compiledNanos, manualTime);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Looks up misspelled names by scanning every employee and through the name index,
+     * and checks that both find the same employees
+     * @param size Number of employees, with mostly distinct generated names
+     * @param queries Number of misspelled names to look up
+     */
+    private static void benchmarkFuzzyLookup(int size, int queries) {
+        System.out.printf("--- %,d employees, %d misspelled name lookups ---%n", size, queries);
+        Random random = new Random(42);
+        String[] syllables = {"an", "be", "ca", "do", "el", "fi", "ga", "ho", "is", "ju", "ka", "li", "mo",
+            "na", "or", "pe", "ra", "si", "to", "ul", "va", "wi", "ya", "ze"};
+        EmployeeManagementSystem ems = new EmployeeManagementSystem();
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int part = 0; part < 2; part++) {
+                int count = 2 + random.nextInt(3);
+                for (int s = 0; s < count; s++) {
+                    String syllable = syllables[random.nextInt(syllables.length)];
+                    name.append(s == 0 ? Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1) : syllable);
+                }
+                name.append(part == 0 ? " " : "");
+            }
+            ems.addEmployee(new Employee(name.toString(), 20 + random.nextInt(45), 30_000 + random.nextInt(120_000)));
+        }
+        List<Employee> employees = ems.getEmployees();
+
+        for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+            long scanNanos = 0;
+            long indexNanos = 0;
+            long found = 0;
+            for (int q = 0; q < queries; q++) {
+                // Drop one character of an existing name, and change another when 2 edits are allowed
+                StringBuilder typo = new StringBuilder(employees.get(random.nextInt(employees.size())).getName());
+                typo.deleteCharAt(random.nextInt(typo.length()));
+                if (maxDistance == 2) {
+                    typo.setCharAt(random.nextInt(typo.length()), (char) ('a' + random.nextInt(26)));
+                }
+                String query = typo.toString();
+
+                long start = System.nanoTime();
+                List<Employee> scanned = new ArrayList<>();
+                for (Employee employee : employees) {
+                    if (EmployeeNameSearch.editDistance(query, employee.getName()) <= maxDistance) {
+                        scanned.add(employee);
+                    }
+                }
+                scanNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<Employee> matches = ems.findByName(query, maxDistance);
+                indexNanos += System.nanoTime() - start;
+                if (matches.size() != scanned.size() || !matches.containsAll(scanned)) {
+                    throw new AssertionError("Lookup of '" + query + "' differs from the scan");
+                }
+                found += matches.size();
+            }
+            System.out.printf("Within %d edits   scan %8.2f ms/lookup   index %8.3f ms/lookup (%.0fx, %.1f matches per lookup)%n",
+                maxDistance, scanNanos / 1e6 / queries, indexNanos / 1e6 / queries,
+                (double) scanNanos / indexNanos, (double) found / queries);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Times exact percentiles by sorting against the salary sketch, checks the sketch's
+     * error, then sketches a parallel feed that is never held in memory
+     * @param size Number of employees in the list; the feed has ten times as many
+     */
+    private static void benchmarkQuantiles(int size) {
+        System.out.printf("--- %,d employees, median / p90 / p99 salary ---%n", size);
+        List<Employee> employees = generateEmployees(size, 42);
+        double[] quantiles = {0.5, 0.9, 0.99};
+        double[] exact = new double[quantiles.length];
+        double sortNanos = bestOf(() -> {
+            List<Employee> sorted = new ArrayList<>(employees);
+            Collections.sort(sorted, Comparator.comparingDouble(Employee::getSalary));
+            for (int i = 0; i < quantiles.length; i++) {
+                exact[i] = sorted.get((int) (quantiles[i] * (sorted.size() - 1))).getSalary();
+            }
+        });
+        List<SalarySketch> sketches = new ArrayList<>(1);
+        double sketchNanos = bestOf(() -> {
+            sketches.clear();
+            sketches.add(EmployeeManagementSystem.salaryDistribution(employees.stream(), 0.01));
+        });
+        double parallelNanos = bestOf(() -> {
+            sketches.clear();
+            sketches.add(EmployeeManagementSystem.salaryDistribution(employees.parallelStream(), 0.01));
+        });
+        double worstError = 0;
+        for (int i = 0; i < quantiles.length; i++) {
+            worstError = Math.max(worstError, Math.abs(sketches.get(0).quantile(quantiles[i]) - exact[i]) / exact[i]);
+        }
+        System.out.printf("Collections.sort          %8.0f ms%n", sortNanos / 1e6);
+        System.out.printf("Sketch                    %8.0f ms (%.1fx, worst error %.3f%%, %d buckets)%n",
+            sketchNanos / 1e6, sortNanos / sketchNanos, worstError * 100, sketches.get(0).getBucketCount());
+        System.out.printf("Sketch, parallel stream   %8.0f ms (%.1fx, %d threads)%n",
+            parallelNanos / 1e6, sortNanos / parallelNanos, ForkJoinPool.getCommonPoolParallelism());
+
+        long feedSize = size * 10L;
+        long start = System.nanoTime();
+        long seed = 7;
+        SalarySketch feed = EmployeeManagementSystem.salaryDistribution(LongStream.range(0, feedSize).parallel()
+            .mapToObj(i -> new Employee("Feed " + i, 20 + (int) Math.floorMod(i * 31 + seed, 45L),
+                30_000 + Math.floorMod(i * 0x9E3779B97F4A7C15L + seed, 120_000L))), 0.01);
+        System.out.printf("Feed of %,d employees  %8.0f ms (%s)%n%n", feedSize, (System.nanoTime() - start) / 1e6, feed);
+    }
+
+    private static void checkSameOrder(String label, List<Employee> expected, List<Employee> actual) {
+        if (expected.size() != actual.size()) {
+            throw new AssertionError(label + ": expected " + expected.size() + " employees, got " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) {
+                throw new AssertionError(label + ": orders differ at position " + i);
+            }
+        }
+    }
+
+    private static void compare(List<Employee> employees, String label, Comparator<Employee> comparator,
+                                EmployeeSortEngine.SortKey... keys) {
+        List<List<Employee>> results = new ArrayList<>(1);
+        double comparatorNanos = bestOf(() -> {
+            List<Employee> sorted = new ArrayList<>(employees);
+            Collections.sort(sorted, comparator);
+            results.clear();
+            results.add(sorted);
+        });
+        List<Employee> expected = results.get(0);
+        double engineNanos = bestOf(() -> {
+            results.clear();
+            results.add(EmployeeSortEngine.sort(employees, keys));
+        });
+        checkSameOrder(label, expected, results.get(0));
+        System.out.printf("%-22s Collections.sort %8.0f ms   EmployeeSortEngine %8.0f ms (%.1fx, same order)%n",
+            label, comparatorNanos / 1e6, engineNanos / 1e6, comparatorNanos / engineNanos);
+    }
+
+    /**
+     * Runs a sort once to warm up, then returns the best of three timed runs in nanoseconds
+     */
+    private static double bestOf(Runnable sort) {
+        sort.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            sort.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Generates employees with ages 20-64 and whole-dollar salaries, so both keys have many ties.
+     * Names come from a small pool and are shared between employees.
+     */
+    static List<Employee> generateEmployees(int count, long seed) {
+        Random random = new Random(seed);
+        String[] firstNames = {"John", "Emma", "Michael", "Sarah", "David", "Lisa", "Robert", "Jennifer"};
+        String[] lastNames = {"Smith", "Johnson", "Brown", "Davis", "Wilson", "Anderson", "Taylor", "Lee"};
+        String[] names = new String[firstNames.length * lastNames.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = firstNames[i / lastNames.length] + " " + lastNames[i % lastNames.length];
+        }
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(new Employee(names[random.nextInt(names.length)],
+                20 + random.nextInt(45), 30_000 + random.nextInt(120_000)));
+        }
+        return employees;
+    }
+
+    private static int[] parseSizes(String[] args, int[] defaults) {
+        if (args.length < 2) {
+            return defaults;
+        }
+        int[] sizes = new int[args.length - 1];
+        for (int i = 1; i < args.length; i++) {
+            sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorts employees by numeric fields without calling a comparator.
+ *
+ * Each sort key is turned into one primitive long per employee whose signed
+ * order is the comparator's order (doubles are mapped bit-wise so that -0.0,
+ * infinities and NaN order exactly like Double.compare; descending keys are
+ * bit-inverted). An index permutation is then sorted with a least-significant-
+ * digit radix sort, 8 bits per pass, last key first. Passes over bytes that
+ * are the same for every employee are skipped, so a key like age costs one
+ * pass. Radix sort is stable, so the result is identical to Collections.sort
+ * with the matching comparator, including the order of ties.
+ *
+ * Sorting n employees takes O(n * passes) instead of O(n log n) comparisons
+ * through getters.
+ */
+public class EmployeeSortEngine {
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+
+    /**
+     * Fields the engine can sort by, each with the comparator it reproduces
+     */
+    public enum SortKey {
+        AGE_ASCENDING(e -> e.getAge(), (e1, e2) -> Integer.compare(e1.getAge(), e2.getAge())),
+        AGE_DESCENDING(e -> ~(long) e.getAge(), (e1, e2) -> Integer.compare(e2.getAge(), e1.getAge())),
+        SALARY_ASCENDING(e -> sortableBits(e.getSalary()), (e1, e2) -> Double.compare(e1.getSalary(), e2.getSalary())),
+        SALARY_DESCENDING(e -> ~sortableBits(e.getSalary()), new SalaryComparator()),
+        NAME_LENGTH_ASCENDING(e -> e.getName().length(),
+            (e1, e2) -> Integer.compare(e1.getName().length(), e2.getName().length()));
+
+        private final ToLongFunction<Employee> key;
+        private final Comparator<Employee> comparator;
+
+        SortKey(ToLongFunction<Employee> key, Comparator<Employee> comparator) {
+            this.key = key;
+            this.comparator = comparator;
+        }
+
+        /**
+         * @return Comparator giving the same order as this key
+         */
+        public Comparator<Employee> comparator() {
+            return comparator;
+        }
+
+        /**
+         * @param employee Employee to encode
+         * @return Key whose signed long order matches the comparator
+         */
+        public long keyOf(Employee employee) {
+            return key.applyAsLong(employee);
+        }
+    }
+
+    /**
+     * Returns a sorted copy of a list; the list itself is not changed
+     * @param employees Employees to sort
+     * @param keys Sort keys, most significant first (e.g. AGE_ASCENDING, SALARY_ASCENDING)
+     * @return New list in sorted order
+     */
+    public static List<Employee> sort(List<Employee> employees, SortKey... keys) {
+        Employee[] source = employees.toArray(new Employee[0]);
+        int[] order = sortedOrder(source, keys);
+        List<Employee> sorted = new ArrayList<>(source.length);
+        for (int index : order) {
+            sorted.add(source[index]);
+        }
+        return sorted;
+    }
+
+    /**
+     * Computes the sorted order of an array
+     * @param employees Employees to sort
+     * @param keys Sort keys, most significant first
+     * @return Indexes into employees in sorted order
+     */
+    public static int[] sortedOrder(Employee[] employees, SortKey... keys) {
+        return sortedOrder(employees.length, i -> employees[i], keys);
+    }
+
+    /**
+     * Computes the sorted order of n employees read through an accessor, such as a
+     * flyweight over an off-heap store
+     * @param n Number of employees
+     * @param employeeAt Returns employee i; the result is only used until the next call
+     * @param keys Sort keys, most significant first
+     * @return Indexes 0..n-1 in sorted order
+     */
+    public static int[] sortedOrder(int n, IntFunction<? extends Employee> employeeAt, SortKey... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        long[] values = new long[n];
+        long[] valuesScratch = new long[n];
+        int[] orderScratch = new int[n];
+        // LSD over fields: the least significant key is sorted first, and every later
+        // (stable) sort keeps its order among ties
+        for (int k = keys.length - 1; k >= 0; k--) {
+            SortKey key = keys[k];
+            for (int i = 0; i < n; i++) {
+                values[i] = key.keyOf(employeeAt.apply(order[i]));
+            }
+            int[] sorted = radixSort(values, order, valuesScratch, orderScratch);
+            if (sorted != order) {
+                orderScratch = order;
+                order = sorted;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Computes the stable sorted order of precomputed keys, e.g. insertion sequences
+     * @param keys Keys in signed long order; not changed
+     * @return Indexes into keys in sorted order
+     */
+    public static int[] sortedOrder(long[] keys) {
+        int n = keys.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return radixSort(keys.clone(), order, new long[n], new int[n]);
+    }
+
+    /**
+     * Maps a double to a long whose signed order is Double.compare's order
+     * @param value Value to encode
+     * @return Sortable bits
+     */
+    public static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        // Negative numbers sort in reverse bit order: flip everything but the sign
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Stable LSD radix sort of values (signed order), carrying order along.
+     * Both arrays and their scratch twins are used as ping-pong buffers.
+     * @return The array now holding the sorted order (order or orderScratch)
+     */
+    private static int[] radixSort(long[] values, int[] order, long[] valuesScratch, int[] orderScratch) {
+        int n = values.length;
+        if (n < 2) {
+            return order;
+        }
+        // Work on value - min so the digits cover only the range actually used
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        int digits = (64 - Long.numberOfLeadingZeros(max - min) + RADIX_BITS - 1) / RADIX_BITS;
+        // One read of the values counts every digit position at once
+        int[][] counts = new int[digits][BUCKETS];
+        for (long value : values) {
+            long offset = value - min;
+            for (int d = 0; d < digits; d++) {
+                counts[d][(int) (offset >>> (d * RADIX_BITS)) & (BUCKETS - 1)]++;
+            }
+        }
+
+        long[] fromValues = values;
+        long[] toValues = valuesScratch;
+        int[] fromOrder = order;
+        int[] toOrder = orderScratch;
+        for (int d = 0; d < digits; d++) {
+            int[] starts = counts[d];
+            int total = 0;
+            boolean oneBucket = false;
+            for (int b = 0; b < BUCKETS; b++) {
+                int count = starts[b];
+                oneBucket |= count == n;
+                starts[b] = total;
+                total += count;
+            }
+            if (oneBucket) {
+                continue; // Every value has the same digit here
+            }
+            int shift = d * RADIX_BITS;
+            for (int i = 0; i < n; i++) {
+                long value = fromValues[i];
+                int slot = starts[(int) ((value - min) >>> shift) & (BUCKETS - 1)]++;
+                toValues[slot] = value;
+                toOrder[slot] = fromOrder[i];
+            }
+            long[] swapValues = fromValues;
+            fromValues = toValues;
+            toValues = swapValues;
+            int[] swapOrder = fromOrder;
+            fromOrder = toOrder;
+            toOrder = swapOrder;
+        }
+        return fromOrder;
+    }
+}
@@ -0,0 +1,436 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A textual sort order such as "age asc, salary desc, name asc", compiled into a
+ * comparator class of its own.
+ *
+ * Comparator.comparing(...).thenComparing(...) chains share the same few JDK
+ * classes for every order in the program, so their call sites see many key
+ * extractors and comparators and the JIT cannot inline them. compile() instead
+ * writes the bytecode of one compare method for the spec, with a direct getter
+ * call and Integer.compare, Double.compare or String.compareTo per field and no
+ * interface calls, and loads it as a hidden class. Every spec gets its own
+ * monomorphic code, like a hand-written comparator.
+ *
+ * Fields: age, salary, name (case-insensitive, the NameComparator order, using the
+ * employee's cached NameSortKeys key) and nameLength. Directions: asc (default)
+ * or desc. Compiled classes are cached per spec for the life of the JVM.
+ */
+public final class EmployeeSortSpec {
+    private static final Map<String, Comparator<Employee>> COMPILED = new ConcurrentHashMap<>();
+
+    /**
+     * Fields a spec can sort by
+     */
+    public enum Field {
+        AGE("age"), SALARY("salary"), NAME("name"), NAME_LENGTH("nameLength");
+
+        private final String specName;
+
+        Field(String specName) {
+            this.specName = specName;
+        }
+
+        /**
+         * @return Name of the field in a spec
+         */
+        public String specName() {
+            return specName;
+        }
+    }
+
+    private final Field[] fields;
+    private final boolean[] descending;
+
+    private EmployeeSortSpec(Field[] fields, boolean[] descending) {
+        this.fields = fields;
+        this.descending = descending;
+    }
+
+    /**
+     * Parses a sort spec
+     * @param spec Comma-separated "field [asc|desc]" terms, most significant first,
+     *             e.g. "age asc, salary desc"; field names ignore case
+     * @return Parsed spec
+     * @throws IllegalArgumentException If a term is empty or names an unknown field or direction
+     */
+    public static EmployeeSortSpec parse(String spec) {
+        if (spec == null) {
+            throw new IllegalArgumentException("Sort spec is required");
+        }
+        // Limit -1 keeps trailing empty terms, so "age," is rejected like ", age"
+        String[] terms = spec.split(",", -1);
+        Field[] fields = new Field[terms.length];
+        boolean[] descending = new boolean[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            String[] words = terms[i].trim().split("\\s+");
+            if (words[0].isEmpty() || words.length > 2) {
+                throw new IllegalArgumentException("Invalid sort term '" + terms[i].trim() + "' in: " + spec);
+            }
+            fields[i] = field(words[0]);
+            if (words.length == 2) {
+                switch (words[1].toLowerCase(Locale.ROOT)) {
+                    case "asc":
+                        break;
+                    case "desc":
+                        descending[i] = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown sort direction '" + words[1] + "' in: " + spec);
+                }
+            }
+        }
+        return new EmployeeSortSpec(fields, descending);
+    }
+
+    private static Field field(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "age":
+                return Field.AGE;
+            case "salary":
+                return Field.SALARY;
+            case "name":
+                return Field.NAME;
+            case "namelength":
+            case "name_length":
+                return Field.NAME_LENGTH;
+            default:
+                throw new IllegalArgumentException("Unknown sort field: " + name);
+        }
+    }
+
+    /**
+     * Parses and compiles a spec, reusing the class compiled for an equal spec
+     * @param spec Sort spec, e.g. "age asc, salary desc"
+     * @return Compiled comparator
+     */
+    public static Comparator<Employee> comparator(String spec) {
+        return parse(spec).compile();
+    }
+
+    /**
+     * @return Comparator class generated for this spec, compiled on first use
+     */
+    public Comparator<Employee> compile() {
+        return COMPILED.computeIfAbsent(toString(), key -> define(new ComparatorWriter(fields, descending).write()));
+    }
+
+    /**
+     * Builds the same order as a Comparator.comparing(...).thenComparing(...) chain,
+     * the way it would be written by hand
+     * @return Chained comparator
+     */
+    public Comparator<Employee> chained() {
+        Comparator<Employee> chain = null;
+        for (int i = 0; i < fields.length; i++) {
+            Comparator<Employee> term;
+            switch (fields[i]) {
+                case AGE:
+                    term = Comparator.comparingInt(Employee::getAge);
+                    break;
+                case SALARY:
+                    term = Comparator.comparingDouble(Employee::getSalary);
+                    break;
+                case NAME:
+                    term = Comparator.comparing(Employee::getName, String.CASE_INSENSITIVE_ORDER);
+                    break;
+                default:
+                    term = Comparator.comparingInt(e -> e.getName().length());
+            }
+            term = descending[i] ? term.reversed() : term;
+            chain = chain == null ? term : chain.thenComparing(term);
+        }
+        return chain;
+    }
+
+    /**
+     * @return The equivalent EmployeeSortEngine keys for a radix sort, or null if a
+     *         term has none (names, and name length descending)
+     */
+    public EmployeeSortEngine.SortKey[] toSortKeys() {
+        EmployeeSortEngine.SortKey[] keys = new EmployeeSortEngine.SortKey[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            switch (fields[i]) {
+                case AGE:
+                    keys[i] = descending[i] ? EmployeeSortEngine.SortKey.AGE_DESCENDING
+                        : EmployeeSortEngine.SortKey.AGE_ASCENDING;
+                    break;
+                case SALARY:
+                    keys[i] = descending[i] ? EmployeeSortEngine.SortKey.SALARY_DESCENDING
+                        : EmployeeSortEngine.SortKey.SALARY_ASCENDING;
+                    break;
+                case NAME_LENGTH:
+                    if (descending[i]) {
+                        return null;
+                    }
+                    keys[i] = EmployeeSortEngine.SortKey.NAME_LENGTH_ASCENDING;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return Normalized spec, e.g. "age asc, salary desc"
+     */
+    @Override
+    public String toString() {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                spec.append(", ");
+            }
+            spec.append(fields[i].specName()).append(descending[i] ? " desc" : " asc");
+        }
+        return spec.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Employee> define(byte[] classFile) {
+        try {
+            // A hidden class in this package, so it can call Employee's package-private getNameSortKey
+            MethodHandles.Lookup compiled = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (Comparator<Employee>) compiled.findConstructor(compiled.lookupClass(),
+                MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not define comparator class", e);
+        }
+    }
+
+    /**
+     * Writes a class file (version 49, so no stack map frames are needed) for
+     *
+     *     final class EmployeeSortSpec$Compiled implements Comparator {
+     *         public int compare(Object o1, Object o2) {
+     *             Employee e1 = (Employee) o1, e2 = (Employee) o2;
+     *             int c = Integer.compare(e1.getAge(), e2.getAge()); if (c != 0) return c;
+     *             return Double.compare(e2.getSalary(), e1.getSalary());   // desc: operands swapped
+     *         }
+     *     }
+     */
+    private static class ComparatorWriter {
+        private static final int ACC_PUBLIC = 0x0001;
+        private static final int ACC_FINAL = 0x0010;
+        private static final int ACC_SUPER = 0x0020;
+        // Opcodes used by the two methods
+        private static final int ALOAD = 0x19;
+        private static final int ALOAD_0 = 0x2A;
+        private static final int ALOAD_1 = 0x2B;
+        private static final int ALOAD_2 = 0x2C;
+        private static final int ALOAD_3 = 0x2D;
+        private static final int ASTORE = 0x3A;
+        private static final int ASTORE_3 = 0x4E;
+        private static final int POP = 0x57;
+        private static final int DUP = 0x59;
+        private static final int IFEQ = 0x99;
+        private static final int IRETURN = 0xAC;
+        private static final int RETURN = 0xB1;
+        private static final int INVOKEVIRTUAL = 0xB6;
+        private static final int INVOKESPECIAL = 0xB7;
+        private static final int INVOKESTATIC = 0xB8;
+        private static final int CHECKCAST = 0xC0;
+        private static final String EMPLOYEE = "Employee";
+
+        private final Field[] fields;
+        private final boolean[] descending;
+        private final List<byte[]> constants = new ArrayList<>();
+        private final Map<String, Integer> constantIndexes = new HashMap<>();
+
+        ComparatorWriter(Field[] fields, boolean[] descending) {
+            this.fields = fields;
+            this.descending = descending;
+        }
+
+        byte[] write() {
+            int thisClass = classRef("EmployeeSortSpec$Compiled");
+            int superClass = classRef("java/lang/Object");
+            int comparatorInterface = classRef("java/util/Comparator");
+            int codeName = utf8("Code");
+            int initName = utf8("<init>");
+            int initType = utf8("()V");
+            int objectInit = methodRef("java/lang/Object", "<init>", "()V");
+            int compareName = utf8("compare");
+            int compareType = utf8("(Ljava/lang/Object;Ljava/lang/Object;)I");
+            byte[] compareCode = compareCode();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(49);
+                out.writeShort(constants.size() + 1);
+                for (byte[] constant : constants) {
+                    out.write(constant);
+                }
+                out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(comparatorInterface);
+                out.writeShort(0); // fields
+                out.writeShort(2); // methods
+                // public <init>() { super(); }
+                writeMethod(out, initName, initType, codeName, 1, 1,
+                    new byte[] {ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN});
+                writeMethod(out, compareName, compareType, codeName, 4, 5, compareCode);
+                out.writeShort(0); // class attributes
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // Writing to memory does not fail
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void writeMethod(DataOutputStream out, int name, int type, int codeName,
+                                        int maxStack, int maxLocals, byte[] code) throws IOException {
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(name);
+            out.writeShort(type);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // code attributes
+        }
+
+        private byte[] compareCode() {
+            ByteArrayOutputStream code = new ByteArrayOutputStream();
+            int employee = classRef(EMPLOYEE);
+            // Employee e1 = (Employee) o1 (local 3); Employee e2 = (Employee) o2 (local 4)
+            code.write(ALOAD_1);
+            op(code, CHECKCAST, employee);
+            code.write(ASTORE_3);
+            code.write(ALOAD_2);
+            op(code, CHECKCAST, employee);
+            code.write(ASTORE);
+            code.write(4);
+            for (int i = 0; i < fields.length; i++) {
+                loadField(code, fields[i], descending[i] ? 4 : 3);
+                loadField(code, fields[i], descending[i] ? 3 : 4);
+                switch (fields[i]) {
+                    case SALARY:
+                        op(code, INVOKESTATIC, methodRef("java/lang/Double", "compare", "(DD)I"));
+                        break;
+                    case NAME:
+                        op(code, INVOKEVIRTUAL, methodRef("java/lang/String", "compareTo", "(Ljava/lang/String;)I"));
+                        break;
+                    default:
+                        op(code, INVOKESTATIC, methodRef("java/lang/Integer", "compare", "(II)I"));
+                }
+                if (i < fields.length - 1) {
+                    // dup; ifeq +4; ireturn; pop
+                    code.write(DUP);
+                    code.write(IFEQ);
+                    code.write(0);
+                    code.write(4);
+                    code.write(IRETURN);
+                    code.write(POP);
+                }
+            }
+            code.write(IRETURN);
+            return code.toByteArray();
+        }
+
+        /**
+         * Pushes the compared value of a field of the employee in a local variable
+         */
+        private void loadField(ByteArrayOutputStream code, Field field, int local) {
+            if (local == 3) {
+                code.write(ALOAD_3);
+            } else {
+                code.write(ALOAD);
+                code.write(local);
+            }
+            switch (field) {
+                case AGE:
+                    op(code, INVOKEVIRTUAL, methodRef(EMPLOYEE, "getAge", "()I"));
+                    break;
+                case SALARY:
+                    op(code, INVOKEVIRTUAL, methodRef(EMPLOYEE, "getSalary", "()D"));
+                    break;
+                case NAME:
+                    op(code, INVOKEVIRTUAL, methodRef(EMPLOYEE, "getNameSortKey", "()Ljava/lang/String;"));
+                    break;
+                default:
+                    op(code, INVOKEVIRTUAL, methodRef(EMPLOYEE, "getName", "()Ljava/lang/String;"));
+                    op(code, INVOKEVIRTUAL, methodRef("java/lang/String", "length", "()I"));
+            }
+        }
+
+        private static void op(ByteArrayOutputStream code, int opcode, int index) {
+            code.write(opcode);
+            code.write(index >> 8);
+            code.write(index);
+        }
+
+        private int utf8(String value) {
+            return constant("U" + value, out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        private int classRef(String internalName) {
+            int name = utf8(internalName);
+            return constant("C" + internalName, out -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        private int methodRef(String owner, String name, String type) {
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(type);
+            int nameAndType = constant("N" + name + ":" + type, out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(typeIndex);
+            });
+            return constant("M" + owner + "." + name + ":" + type, out -> {
+                out.writeByte(10);
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private interface ConstantWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+
+        /**
+         * @return Constant pool index of an entry, adding it the first time
+         */
+        private int constant(String key, ConstantWriter writer) {
+            Integer index = constantIndexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                writer.write(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            constants.add(bytes.toByteArray());
+            constantIndexes.put(key, constants.size());
+            return constants.size();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Name sorting with keys computed once per employee instead of case-folding on
+ * every comparison.
+ *
+ * compareToIgnoreCase folds both names character by character each time two
+ * employees are compared, so a sort folds every name O(log n) times. A sort key
+ * is the name folded once (toLowerCase(toUpperCase(c)) per code point, exactly
+ * the folding compareToIgnoreCase uses), encoded so that plain String.compareTo
+ * orders keys by code point as compareToIgnoreCase does.
+ * Comparing two keys is then a String.compareTo, which the JVM runs as an
+ * intrinsic. Employees cache their key until setName is called. The order is
+ * identical to NameComparator for every well-formed name; only names with
+ * unpaired surrogates next to surrogate pairs can compare differently.
+ *
+ * sortByName(employees, collator) is a separate, locale-aware order for
+ * international names; it computes one CollationKey per employee per sort and
+ * does not match NameComparator.
+ */
+public class NameSortKeys {
+    private static final Comparator<Employee> BY_SORT_KEY =
+        (e1, e2) -> e1.getNameSortKey().compareTo(e2.getNameSortKey());
+
+    private NameSortKeys() {
+    }
+
+    /**
+     * @return Comparator over cached sort keys; same order as NameComparator
+     */
+    public static Comparator<Employee> comparator() {
+        return BY_SORT_KEY;
+    }
+
+    /**
+     * Computes the sort key of a name
+     * @param name Name to fold
+     * @return Key whose String.compareTo order equals compareToIgnoreCase on the names
+     */
+    public static String sortKey(String name) {
+        int length = name.length();
+        StringBuilder key = null;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                key = key != null ? key : new StringBuilder(length).append(name, 0, i);
+                int codePoint = name.codePointAt(i);
+                appendKey(key, Character.toLowerCase(Character.toUpperCase(codePoint)));
+                i += Character.charCount(codePoint) - 1;
+            } else if (key != null) {
+                key.append(c);
+            }
+        }
+        // Lower-case ASCII names are their own key
+        return key == null ? name : key.toString();
+    }
+
+    /**
+     * Appends a folded code point so that String.compareTo on keys orders by code point.
+     * Values below U+D7FF are one unit; higher ones (including unpaired surrogates, which
+     * compareToIgnoreCase compares as themselves) are two units starting at U+D7FF or above.
+     */
+    private static void appendKey(StringBuilder key, int codePoint) {
+        if (codePoint < 0xD7FF) {
+            key.append((char) codePoint);
+        } else {
+            int offset = codePoint - 0xD7FF;
+            key.append((char) (0xD7FF + (offset >>> 16))).append((char) offset);
+        }
+    }
+
+    /**
+     * Returns a copy sorted by name in NameComparator order, folding each name at most once
+     * @param employees Employees to sort
+     * @return New sorted list
+     */
+    public static List<Employee> sortByName(List<Employee> employees) {
+        Employee[] sorted = employees.toArray(new Employee[0]);
+        Arrays.sort(sorted, BY_SORT_KEY);
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * Returns a copy sorted by name with a locale-aware collator, computing one
+     * CollationKey per employee. Ties keep list order.
+     * @param employees Employees to sort
+     * @param collator Collator for the names' locale, e.g. Collator.getInstance(Locale.GERMAN)
+     * @return New sorted list
+     */
+    public static List<Employee> sortByName(List<Employee> employees, Collator collator) {
+        int n = employees.size();
+        CollationKey[] keys = new CollationKey[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = collator.getCollationKey(employees.get(i).getName());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        List<Employee> sorted = new ArrayList<>(n);
+        for (int index : order) {
+            sorted.add(employees.get(index));
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,356 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Employee records kept outside the Java heap, for rosters of 100M+ employees.
+ *
+ * Ages and salaries are fixed-width columns (4 and 8 bytes per employee) and
+ * names are UTF-8 bytes appended to one name arena, located through a column of
+ * start offsets. All of it lives in MemorySegments, so the garbage collector
+ * never scans or copies the records: a heap ArrayList of Employee objects costs
+ * about 100 bytes and three objects per employee, this store about 24 bytes plus
+ * the name, and no objects at all.
+ *
+ * Existing comparators and predicates work through a flyweight: a reusable
+ * Employee whose getters read the row it is positioned on. sortedOrder sorts an
+ * int[] permutation with a stable merge sort, so the order equals Collections.sort
+ * on the same employees with the same comparator.
+ *
+ * Each column has its own shared Arena; growing a column copies it into a new
+ * segment and closes the old arena, so memory is released right away. Reads may
+ * run on any thread, but adds and updates must not run concurrently with anything.
+ *
+ * Requires the Foreign Function and Memory API: JDK 22+, or JDK 21 with
+ * --enable-preview.
+ */
+public class OffHeapEmployeeStore implements AutoCloseable {
+    private static final int MIN_CAPACITY = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private Column ages;
+    private Column salaries;
+    // nameOffsets[i] is where name i starts in the arena; nameOffsets[size] is the end
+    private Column nameOffsets;
+    private Column names;
+    private int size;
+    private long nameBytes;
+
+    /**
+     * Off-heap memory owned by one arena
+     */
+    private static class Column {
+        final Arena arena;
+        final MemorySegment segment;
+
+        Column(long bytes) {
+            this.arena = Arena.ofShared();
+            this.segment = arena.allocate(Math.max(bytes, 8), 8);
+        }
+
+        /**
+         * @return A larger column holding the first usedBytes of this one; this column is closed
+         */
+        Column grow(long minBytes, long usedBytes) {
+            Column larger = new Column(Math.max(minBytes, segment.byteSize() * 2));
+            MemorySegment.copy(segment, 0, larger.segment, 0, usedBytes);
+            arena.close();
+            return larger;
+        }
+    }
+
+    /**
+     * Creates an empty store
+     * @param expectedSize Number of employees to allocate room for up front
+     */
+    public OffHeapEmployeeStore(int expectedSize) {
+        int capacity = Math.max(expectedSize, MIN_CAPACITY);
+        ages = new Column(4L * capacity);
+        salaries = new Column(8L * capacity);
+        nameOffsets = new Column(8L * (capacity + 1));
+        names = new Column(16L * capacity);
+        nameOffsets.segment.setAtIndex(ValueLayout.JAVA_LONG, 0, 0L);
+    }
+
+    /**
+     * Copies employees into a new store
+     * @param employees Employees to copy, e.g. EmployeeManagementSystem.getEmployees()
+     * @return Store holding the same employees in the same order
+     */
+    public static OffHeapEmployeeStore copyOf(List<Employee> employees) {
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore(employees.size());
+        for (Employee employee : employees) {
+            store.add(employee);
+        }
+        return store;
+    }
+
+    /**
+     * @param employee Employee to copy into the store
+     * @return Index of the new row
+     */
+    public int add(Employee employee) {
+        return add(employee.getName(), employee.getAge(), employee.getSalary());
+    }
+
+    /**
+     * Appends an employee
+     * @param name Employee name
+     * @param age Employee age
+     * @param salary Employee salary
+     * @return Index of the new row
+     */
+    public int add(String name, int age, double salary) {
+        if (size == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("Store is full");
+        }
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        long rowCapacity = ages.segment.byteSize() / 4;
+        if (size == rowCapacity) {
+            ages = ages.grow(0, 4L * size);
+            salaries = salaries.grow(0, 8L * size);
+            nameOffsets = nameOffsets.grow(0, 8L * (size + 1));
+        }
+        if (nameBytes + encoded.length > names.segment.byteSize()) {
+            names = names.grow(nameBytes + encoded.length, nameBytes);
+        }
+        MemorySegment.copy(encoded, 0, names.segment, ValueLayout.JAVA_BYTE, nameBytes, encoded.length);
+        nameBytes += encoded.length;
+        ages.segment.setAtIndex(ValueLayout.JAVA_INT, size, age);
+        salaries.segment.setAtIndex(ValueLayout.JAVA_DOUBLE, size, salary);
+        nameOffsets.segment.setAtIndex(ValueLayout.JAVA_LONG, size + 1, nameBytes);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Bytes of off-heap memory reserved by the columns and the name arena
+     */
+    public long reservedBytes() {
+        return ages.segment.byteSize() + salaries.segment.byteSize()
+            + nameOffsets.segment.byteSize() + names.segment.byteSize();
+    }
+
+    public int getAge(int index) {
+        return ages.segment.getAtIndex(ValueLayout.JAVA_INT, checkIndex(index));
+    }
+
+    public double getSalary(int index) {
+        return salaries.segment.getAtIndex(ValueLayout.JAVA_DOUBLE, checkIndex(index));
+    }
+
+    /**
+     * Decodes a name into a new String
+     * @param index Row index
+     * @return Employee name
+     */
+    public String getName(int index) {
+        long start = nameOffsets.segment.getAtIndex(ValueLayout.JAVA_LONG, checkIndex(index));
+        long end = nameOffsets.segment.getAtIndex(ValueLayout.JAVA_LONG, index + 1L);
+        byte[] bytes = new byte[(int) (end - start)];
+        MemorySegment.copy(names.segment, ValueLayout.JAVA_BYTE, start, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void setAge(int index, int age) {
+        ages.segment.setAtIndex(ValueLayout.JAVA_INT, checkIndex(index), age);
+    }
+
+    public void setSalary(int index, double salary) {
+        salaries.segment.setAtIndex(ValueLayout.JAVA_DOUBLE, checkIndex(index), salary);
+    }
+
+    /**
+     * @return A new flyweight positioned on row 0; reposition it with moveTo
+     */
+    public Flyweight flyweight() {
+        return new Flyweight();
+    }
+
+    /**
+     * Copies a row out into an ordinary heap Employee
+     * @param index Row index
+     * @return New Employee with the row's values
+     */
+    public Employee toEmployee(int index) {
+        return new Employee(getName(index), getAge(index), getSalary(index));
+    }
+
+    /**
+     * Sorts the rows by a comparator without moving them
+     * @param comparator Any employee comparator (SalaryComparator, NameComparator, lambdas)
+     * @return Row indexes in sorted order; ties keep row order
+     */
+    public int[] sortedOrder(Comparator<? super Employee> comparator) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Flyweight left = new Flyweight();
+        Flyweight right = new Flyweight();
+        IndexComparator compare = (a, b) -> comparator.compare(left.moveTo(a), right.moveTo(b));
+        mergeSort(order, new int[size], 0, size, compare);
+        return order;
+    }
+
+    /**
+     * Sorts the rows by age and salary keys with EmployeeSortEngine's radix sort, reading
+     * the primitive columns through a flyweight instead of calling a comparator
+     * @param keys Sort keys, most significant first
+     * @return Row indexes in sorted order; same order as the keys' comparators
+     */
+    public int[] sortedOrder(EmployeeSortEngine.SortKey... keys) {
+        Flyweight row = new Flyweight();
+        return EmployeeSortEngine.sortedOrder(size, row::moveTo, keys);
+    }
+
+    /**
+     * Finds the rows an ordinary predicate accepts
+     * @param predicate Condition tested on a flyweight, e.g. e -> e.getAge() > 40
+     * @return Matching row indexes in row order
+     */
+    public int[] filter(Predicate<? super Employee> predicate) {
+        Flyweight row = new Flyweight();
+        int[] matches = new int[Math.min(size, MIN_CAPACITY)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(row.moveTo(i))) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.min(size, count * 2));
+                }
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Frees all off-heap memory; the store must not be used afterwards
+     */
+    @Override
+    public void close() {
+        ages.arena.close();
+        salaries.arena.close();
+        nameOffsets.arena.close();
+        names.arena.close();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Stable top-down merge sort of order[from, to) using scratch as the buffer
+     */
+    private static void mergeSort(int[] order, int[] scratch, int from, int to, IndexComparator compare) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = order[i];
+                int j = i - 1;
+                while (j >= from && compare.compare(order[j], value) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, scratch, from, middle, compare);
+        mergeSort(order, scratch, middle, to, compare);
+        if (compare.compare(order[middle - 1], order[middle]) <= 0) {
+            return; // Already in order
+        }
+        System.arraycopy(order, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare.compare(scratch[left], scratch[right]) <= 0)) {
+                order[i] = scratch[left++];
+            } else {
+                order[i] = scratch[right++];
+            }
+        }
+    }
+
+    /**
+     * An Employee that reads the row it is positioned on, so one object can stand in
+     * for every row. Setters write through to the store. The name is decoded on each
+     * getName call.
+     */
+    public class Flyweight extends Employee {
+        private int index;
+
+        private Flyweight() {
+            super(null, 0, 0.0);
+        }
+
+        /**
+         * @param index Row to read
+         * @return This flyweight
+         */
+        public Flyweight moveTo(int index) {
+            this.index = checkIndex(index);
+            return this;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public String getName() {
+            return OffHeapEmployeeStore.this.getName(index);
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException("Names in an off-heap store cannot be changed");
+        }
+
+        @Override
+        public int getAge() {
+            return OffHeapEmployeeStore.this.getAge(index);
+        }
+
+        @Override
+        public void setAge(int age) {
+            OffHeapEmployeeStore.this.setAge(index, age);
+        }
+
+        @Override
+        public double getSalary() {
+            return OffHeapEmployeeStore.this.getSalary(index);
+        }
+
+        @Override
+        public void setSalary(double salary) {
+            OffHeapEmployeeStore.this.setSalary(index, salary);
+        }
+
+        @Override
+        String getNameSortKey() {
+            return NameSortKeys.sortKey(getName());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Name: %-20s | Age: %2d | Salary: $%,10.2f", getName(), getAge(), getSalary());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Compares holding employees in a heap ArrayList against OffHeapEmployeeStore.
+ *
+ * Usage: java --enable-preview -Xmx8g OffHeapStoreBenchmark mode [size]   (JDK 21; no flag on 22+)
+ * gc   - keeps size employees resident (heap list or off-heap store) while churning short-lived
+ *        garbage, and reports GC pause count, total and longest pause (default 10^7)
+ * sort - sorts by SalaryComparator and NameComparator: Collections.sort on the heap list against
+ *        sortedOrder on the store (comparator through the flyweight, and radix sort on the
+ *        salary column), checking all give the same order (default 10^6)
+ */
+public class OffHeapStoreBenchmark {
+    private static final long CHURN_ALLOCATIONS = 200_000_000L;
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "gc";
+        System.out.println("=== Off-Heap Employee Store Benchmark ===\n");
+
+        switch (mode) {
+            case "gc":
+                benchmarkGc(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+                break;
+            case "sort":
+                benchmarkSort(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            default:
+                System.out.println("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Measures GC pauses while the roster is resident, once on the heap and once off it
+     * @param size Number of employees
+     */
+    private static void benchmarkGc(int size) {
+        System.out.printf("--- %,d resident employees, %,d short-lived allocations ---%n", size, CHURN_ALLOCATIONS);
+        PauseRecorder pauses = new PauseRecorder();
+
+        List<Employee> heapList = EmployeeSortBenchmark.generateEmployees(size, 42);
+        System.gc();
+        pauses.reset();
+        long start = System.nanoTime();
+        long checksum = churn() + heapList.size();
+        System.gc();
+        pauses.print("ArrayList<Employee>", System.nanoTime() - start);
+
+        OffHeapEmployeeStore store = OffHeapEmployeeStore.copyOf(heapList);
+        heapList = null;
+        System.gc();
+        pauses.reset();
+        start = System.nanoTime();
+        checksum += churn() + store.size();
+        System.gc();
+        pauses.print("OffHeapEmployeeStore", System.nanoTime() - start);
+        System.out.printf("Off-heap memory: %,d MB reserved (checksum %d)%n%n", store.reservedBytes() >> 20, checksum);
+        store.close();
+    }
+
+    /**
+     * Allocates short-lived objects so the collector runs while the roster is resident
+     */
+    private static long churn() {
+        long sum = 0;
+        for (long i = 0; i < CHURN_ALLOCATIONS; i++) {
+            int[] garbage = new int[4];
+            garbage[(int) (i & 3)] = (int) i;
+            sum += garbage[0];
+        }
+        return sum;
+    }
+
+    /**
+     * Sorts both representations with the same comparators and checks the orders agree
+     * @param size Number of employees
+     */
+    private static void benchmarkSort(int size) {
+        System.out.printf("--- %,d employees ---%n", size);
+        List<Employee> heapList = EmployeeSortBenchmark.generateEmployees(size, 42);
+        try (OffHeapEmployeeStore store = OffHeapEmployeeStore.copyOf(heapList)) {
+            compareSort("salary (descending)", heapList, store, new SalaryComparator());
+            compareSort("name", heapList, store, new NameComparator());
+
+            List<Employee> sorted = new ArrayList<>(heapList);
+            long start = System.nanoTime();
+            Collections.sort(sorted, new SalaryComparator());
+            long heapNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int[] order = store.sortedOrder(EmployeeSortEngine.SortKey.SALARY_DESCENDING);
+            long storeNanos = System.nanoTime() - start;
+            checkOrder("salary radix", heapList, sorted, order);
+            System.out.printf("%-20s Collections.sort %8.0f ms   store radix sort  %8.0f ms (same order)%n",
+                "salary radix", heapNanos / 1e6, storeNanos / 1e6);
+        }
+        System.out.println();
+    }
+
+    private static void compareSort(String label, List<Employee> heapList, OffHeapEmployeeStore store,
+                                    Comparator<Employee> comparator) {
+        List<Employee> sorted = new ArrayList<>(heapList);
+        long start = System.nanoTime();
+        Collections.sort(sorted, comparator);
+        long heapNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] order = store.sortedOrder(comparator);
+        long storeNanos = System.nanoTime() - start;
+
+        checkOrder(label, heapList, sorted, order);
+        System.out.printf("%-20s Collections.sort %8.0f ms   store.sortedOrder %8.0f ms (same order)%n",
+            label, heapNanos / 1e6, storeNanos / 1e6);
+    }
+
+    private static void checkOrder(String label, List<Employee> heapList, List<Employee> sorted, int[] order) {
+        for (int i = 0; i < order.length; i++) {
+            if (sorted.get(i) != heapList.get(order[i])) {
+                throw new AssertionError(label + ": orders differ at position " + i);
+            }
+        }
+    }
+
+    /**
+     * Records the duration of every GC pause reported by the collectors
+     */
+    private static class PauseRecorder {
+        private long count;
+        private long totalMillis;
+        private long longestMillis;
+
+        PauseRecorder() {
+            NotificationListener listener = (notification, handback) -> {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    record(info.getGcInfo().getDuration());
+                }
+            };
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+            }
+        }
+
+        synchronized void record(long millis) {
+            count++;
+            totalMillis += millis;
+            longestMillis = Math.max(longestMillis, millis);
+        }
+
+        synchronized void reset() {
+            count = 0;
+            totalMillis = 0;
+            longestMillis = 0;
+        }
+
+        void print(String label, long elapsedNanos) {
+            // Notifications arrive on another thread; give the last ones a moment
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                System.out.printf("%-22s %,6d GCs, %,8d ms total, longest %,6d ms (run %,.0f ms)%n",
+                    label, count, totalMillis, longestMillis, elapsedNanos / 1e6);
+            }
+        }
+    }
+}
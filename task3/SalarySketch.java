@@ -0,0 +1,251 @@
+import java.util.stream.Collector;
+
+/**
+ * Salary distribution summary answering quantiles (median, p90, p99) with a
+ * bounded relative error, in a few kilobytes however many salaries it has seen.
+ *
+ * Salaries are counted in logarithmic buckets: with relative accuracy a, bucket
+ * i holds the values in (g^(i-1), g^i] for g = (1 + a) / (1 - a), and reports
+ * 2g^i / (g + 1), which is within a of every value in the bucket. A quantile is
+ * found by walking the bucket counts, so every answer is within a of the exact
+ * salary at that rank. Salaries of 30,000-150,000 at 1% fill about 80 buckets.
+ *
+ * Sketches with the same accuracy merge exactly by adding their bucket counts,
+ * so a parallel stream or several feed readers can build one sketch per thread
+ * and combine them, and the result is the same as for a single sketch.
+ */
+public class SalarySketch {
+    /**
+     * Relative accuracy used when none is given: answers are within 1%
+     */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final Buckets positive = new Buckets();
+    // Negative salaries, indexed by their absolute value
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Bucket counts in a dense array covering the indexes seen so far
+     */
+    private static class Buckets {
+        private long[] counts = new long[0];
+        private int offset; // Bucket index of counts[0]
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = index - 8;
+            } else if (index < offset || index >= offset + counts.length) {
+                int low = Math.min(index, offset);
+                int high = Math.max(index, offset + counts.length - 1);
+                // Grow by at least half, with room on the side being extended
+                int length = Math.max(high - low + 1, counts.length + counts.length / 2);
+                long[] grown = new long[length];
+                int newOffset = index < offset ? high - length + 1 : low;
+                System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+                counts = grown;
+                offset = newOffset;
+            }
+            counts[index - offset] += n;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an empty sketch with 1% relative accuracy
+     */
+    public SalarySketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Creates an empty sketch
+     * @param relativeAccuracy Largest relative error of a quantile, e.g. 0.01 for 1%
+     */
+    public SalarySketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1, got " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * @param relativeAccuracy Relative accuracy of the sketches
+     * @return Collector building one sketch per thread and merging them
+     */
+    public static Collector<Employee, SalarySketch, SalarySketch> collector(double relativeAccuracy) {
+        return Collector.of(() -> new SalarySketch(relativeAccuracy), (sketch, e) -> sketch.add(e.getSalary()),
+            (left, right) -> {
+                left.merge(right);
+                return left;
+            }, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Counts one more salary
+     * @param salary Salary to add; must be finite
+     */
+    public void add(double salary) {
+        if (Double.isNaN(salary) || Double.isInfinite(salary)) {
+            throw new IllegalArgumentException("Salary must be a finite number, got " + salary);
+        }
+        if (salary >= Double.MIN_NORMAL) {
+            positive.add(index(salary), 1);
+        } else if (salary <= -Double.MIN_NORMAL) {
+            negative.add(index(-salary), 1);
+        } else {
+            zeroCount++;
+        }
+        if (count == 0) {
+            min = salary;
+            max = salary;
+        } else {
+            min = Math.min(min, salary);
+            max = Math.max(max, salary);
+        }
+        count++;
+    }
+
+    /**
+     * Adds the salaries counted by another sketch
+     * @param other Sketch with the same relative accuracy
+     */
+    public void merge(SalarySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with relative accuracy "
+                + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+    }
+
+    /**
+     * Estimates a quantile: the salary at rank q * (count - 1) in sorted order
+     * @param q Quantile between 0 and 1, e.g. 0.5 for the median, 0.99 for p99
+     * @return Salary within the relative accuracy of the exact one, or NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1, got " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        double value = Double.NaN;
+        long seen = 0;
+        // Most negative salaries first: highest absolute-value buckets first
+        for (int i = negative.counts.length - 1; i >= 0 && Double.isNaN(value); i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                value = -valueOf(negative.offset + i);
+            }
+        }
+        if (Double.isNaN(value)) {
+            seen += zeroCount;
+            if (seen > rank) {
+                value = 0;
+            }
+        }
+        for (int i = 0; i < positive.counts.length && Double.isNaN(value); i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                value = valueOf(positive.offset + i);
+            }
+        }
+        // The exact extremes are known, and clamping only moves estimates closer
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @return Estimated median salary
+     */
+    public double getMedian() {
+        return quantile(0.5);
+    }
+
+    /**
+     * @return Estimated 90th percentile salary
+     */
+    public double getP90() {
+        return quantile(0.9);
+    }
+
+    /**
+     * @return Estimated 99th percentile salary
+     */
+    public double getP99() {
+        return quantile(0.99);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Lowest salary (exact), or NaN if the sketch is empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return Highest salary (exact), or NaN if the sketch is empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * @return Number of buckets allocated, a measure of the sketch's size
+     */
+    public int getBucketCount() {
+        return positive.counts.length + negative.counts.length;
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %,d | median $%,.2f | p90 $%,.2f | p99 $%,.2f (within %s%%)",
+            count, getMedian(), getP90(), getP99(), Double.toString(relativeAccuracy * 100));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Count, sum, average, minimum and maximum of the salaries in one group.
+ *
+ * Used as the accumulator of EmployeeGroupBy: salaries are added one at a time
+ * and accumulators built on different threads are merged at the end.
+ */
+public class SalaryStats {
+    private long count;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Creates empty statistics
+     */
+    public SalaryStats() {
+    }
+
+    /**
+     * Creates statistics from figures gathered elsewhere
+     * @param count Number of salaries
+     * @param sum Sum of the salaries
+     * @param min Lowest salary
+     * @param max Highest salary
+     */
+    SalaryStats(long count, double sum, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Counts one more salary
+     * @param salary Salary to add
+     */
+    public void add(double salary) {
+        if (count == 0) {
+            min = salary;
+            max = salary;
+        } else {
+            min = Math.min(min, salary);
+            max = Math.max(max, salary);
+        }
+        count++;
+        sum += salary;
+    }
+
+    /**
+     * Adds the salaries counted by another accumulator
+     * @param other Statistics to merge in
+     */
+    public void merge(SalaryStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return Mean salary, or NaN for an empty group
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * @return Lowest salary, or NaN for an empty group
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return Highest salary, or NaN for an empty group
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %,d | avg $%,.2f | min $%,.2f | max $%,.2f | total $%,.2f",
+            count, getAverage(), min, max, sum);
+    }
+}
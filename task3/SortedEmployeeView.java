@@ -0,0 +1,329 @@
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A list of employees kept in a comparator's order while employees are added,
+ * removed or edited, so reports read it instead of copying and re-sorting.
+ *
+ * Implemented as a persistent treap keyed by (comparator, insertion sequence).
+ * An update copies only the O(log n) nodes on its path and never changes an
+ * existing node, so snapshot() just captures the current root: it is O(1),
+ * immutable and safe to read while the view keeps changing. Ties are ordered by
+ * insertion sequence, which is the order Collections.sort leaves them in when
+ * sorting the employee list.
+ *
+ * Views are created with EmployeeManagementSystem.registerSortedView, which keeps
+ * them up to date; a snapshot fixes the order and membership, not the Employee
+ * objects themselves.
+ */
+public class SortedEmployeeView {
+    private final Comparator<? super Employee> comparator;
+    private final Random priorities = new Random();
+    private Node root;
+    // Results of the last split, kept in fields to avoid allocating a pair per call
+    private Node splitLeft;
+    private Node splitRight;
+
+    /**
+     * Immutable tree node holding one employee
+     */
+    private static class Node {
+        final Employee employee;
+        final long sequence;
+        final int priority;
+        final int size;
+        final Node left;
+        final Node right;
+
+        Node(Employee employee, long sequence, int priority, Node left, Node right) {
+            this.employee = employee;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node withChildren(Node left, Node right) {
+            return new Node(employee, sequence, priority, left, right);
+        }
+    }
+
+    /**
+     * @param comparator Order of the view
+     */
+    SortedEmployeeView(Comparator<? super Employee> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator is required");
+        }
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return Comparator defining the order of this view
+     */
+    public Comparator<? super Employee> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return Number of employees in the view
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the employees in order as an unmodifiable list. Taking a snapshot is O(1);
+     * later changes to the view do not affect it.
+     * @return Snapshot of the view
+     */
+    public List<Employee> snapshot() {
+        return new Snapshot(root);
+    }
+
+    /**
+     * @return Snapshot with the rank and range lookups EmployeeQuery plans with
+     */
+    Snapshot indexSnapshot() {
+        return new Snapshot(root);
+    }
+
+    /**
+     * Adds an employee; its sort fields must not change until it is removed again
+     * @param employee Employee to add
+     * @param sequence Insertion sequence, unique per employee, used to order ties
+     */
+    void add(Employee employee, long sequence) {
+        Node node = new Node(employee, sequence, priorities.nextInt(), null, null);
+        split(root, employee, sequence);
+        Node right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+    }
+
+    /**
+     * Fills an empty view with one sort and an O(n) build instead of n inserts
+     * @param employees Employees in increasing sequence order
+     * @param sequenceOf Sequence each employee was added with
+     */
+    void load(List<Employee> employees, ToLongFunction<Employee> sequenceOf) {
+        if (root != null) {
+            throw new IllegalStateException("View is not empty");
+        }
+        Employee[] sorted = employees.toArray(new Employee[0]);
+        // Arrays.sort on objects is stable, so ties stay in sequence order
+        Arrays.sort(sorted, comparator);
+        root = build(sorted, sequenceOf, 0, sorted.length);
+    }
+
+    /**
+     * Removes an employee while its fields still hold the values it was added with
+     * @param employee Employee to remove
+     * @param sequence Sequence the employee was added with
+     * @return true if the employee was in the view
+     */
+    boolean remove(Employee employee, long sequence) {
+        Node updated = remove(root, employee, sequence);
+        if (updated == root) {
+            return false;
+        }
+        root = updated;
+        return true;
+    }
+
+    /**
+     * Returns node with the employee removed, or node itself if it is not in the subtree
+     */
+    private Node remove(Node node, Employee employee, long sequence) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(employee, sequence, node);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            Node left = remove(node.left, employee, sequence);
+            return left == node.left ? node : node.withChildren(left, node.right);
+        }
+        Node right = remove(node.right, employee, sequence);
+        return right == node.right ? node : node.withChildren(node.left, right);
+    }
+
+    /**
+     * Builds a balanced subtree from sorted employees [from, to). In a random treap the root of
+     * an s-node subtree holds the largest of s uniform priorities, so each node gets that
+     * expected value; parents are always larger than children, which keeps heap order.
+     */
+    private static Node build(Employee[] sorted, ToLongFunction<Employee> sequenceOf, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        double quantile = 1.0 - 1.0 / (to - from + 1);
+        long priority = Integer.MIN_VALUE + (long) (quantile * 4294967296.0);
+        Node left = build(sorted, sequenceOf, from, middle);
+        Node right = build(sorted, sequenceOf, middle + 1, to);
+        return new Node(sorted[middle], sequenceOf.applyAsLong(sorted[middle]),
+            (int) Math.min(priority, Integer.MAX_VALUE), left, right);
+    }
+
+    /**
+     * Splits a subtree into keys before and after (employee, sequence), copying the path
+     */
+    private void split(Node node, Employee employee, long sequence) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+        } else if (compare(employee, sequence, node) > 0) {
+            split(node.right, employee, sequence);
+            splitLeft = node.withChildren(node.left, splitLeft);
+        } else {
+            split(node.left, employee, sequence);
+            splitRight = node.withChildren(splitRight, node.right);
+        }
+    }
+
+    /**
+     * Joins two subtrees where every key in left is before every key in right
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    private int compare(Employee employee, long sequence, Node node) {
+        int c = comparator.compare(employee, node.employee);
+        return c != 0 ? c : Long.compare(sequence, node.sequence);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Read-only list over a fixed root. get(i) and rank are O(log n) through subtree sizes
+     * and iteration is O(n) with an explicit stack.
+     */
+    static class Snapshot extends AbstractList<Employee> {
+        private final Node root;
+
+        Snapshot(Node root) {
+            this.root = root;
+        }
+
+        @Override
+        public int size() {
+            return SortedEmployeeView.size(root);
+        }
+
+        @Override
+        public Employee get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+            }
+            Node node = root;
+            while (true) {
+                int leftSize = SortedEmployeeView.size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                } else if (index == leftSize) {
+                    return node.employee;
+                } else {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        /**
+         * Counts the employees before the first one where atOrAfter holds
+         * @param atOrAfter Condition that is false and then true along the view order,
+         *                  e.g. e -> e.getAge() >= 30 on a view ordered by age
+         * @return Index of the first employee where atOrAfter holds, or size() if none
+         */
+        int rank(Predicate<? super Employee> atOrAfter) {
+            int rank = 0;
+            Node node = root;
+            while (node != null) {
+                if (atOrAfter.test(node.employee)) {
+                    node = node.left;
+                } else {
+                    rank += SortedEmployeeView.size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return rank;
+        }
+
+        @Override
+        public Iterator<Employee> iterator() {
+            return iterator(0);
+        }
+
+        /**
+         * @param from Index of the first employee to return
+         * @return Iterator over [from, size()); starting it is O(log n)
+         */
+        Iterator<Employee> iterator(int from) {
+            if (from < 0 || from > size()) {
+                throw new IndexOutOfBoundsException("Index " + from + " out of bounds for size " + size());
+            }
+            return new Iterator<Employee>() {
+                private final ArrayDeque<Node> path = new ArrayDeque<>();
+
+                {
+                    // Push the nodes whose in-order position is at or after from
+                    int index = from;
+                    for (Node node = root; node != null; ) {
+                        int leftSize = SortedEmployeeView.size(node.left);
+                        if (index <= leftSize) {
+                            path.push(node);
+                            node = node.left;
+                        } else {
+                            index -= leftSize + 1;
+                            node = node.right;
+                        }
+                    }
+                }
+
+                private void pushLeft(Node node) {
+                    for (; node != null; node = node.left) {
+                        path.push(node);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return !path.isEmpty();
+                }
+
+                @Override
+                public Employee next() {
+                    if (path.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node node = path.pop();
+                    pushLeft(node.right);
+                    return node.employee;
+                }
+            };
+        }
+    }
+}
@@ -1,6 +1,13 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 public class TestEmployeeSystem {
     public static void main(String[] args) {
@@ -112,6 +119,247 @@ public class TestEmployeeSystem {
         System.out.println("Employee Salary: " + newEmployee.getSalary());
         System.out.println();
         
+        // Test 9: Test the radix sort engine against the comparators
+        System.out.println("Test 9: EmployeeSortEngine matches Collections.sort");
+        ArrayList<Employee> engineInput = new ArrayList<>(testList);
+        engineInput.add(new Employee("Same Age Lower Pay", 32, 61000.0));
+        engineInput.add(new Employee("Same Age Same Pay", 32, 75000.0));
+        engineInput.add(new Employee("Negative Adjustment", 45, -1500.0));
+        Comparator<Employee> ageThenSalary = EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator()
+            .thenComparing(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator());
+        ArrayList<Employee> expectedOrder = new ArrayList<>(engineInput);
+        Collections.sort(expectedOrder, ageThenSalary);
+        List<Employee> engineOrder = EmployeeSortEngine.sort(engineInput,
+            EmployeeSortEngine.SortKey.AGE_ASCENDING, EmployeeSortEngine.SortKey.SALARY_ASCENDING);
+        System.out.println("Age then salary, same order as comparator: " + expectedOrder.equals(engineOrder));
+        for (Employee emp : engineOrder) {
+            System.out.println("  " + emp);
+        }
+        ArrayList<Employee> expectedBySalary = new ArrayList<>(engineInput);
+        Collections.sort(expectedBySalary, new SalaryComparator());
+        System.out.println("Salary descending, same order as SalaryComparator: "
+            + expectedBySalary.equals(EmployeeSortEngine.sort(engineInput, EmployeeSortEngine.SortKey.SALARY_DESCENDING)));
+        System.out.println();
+        
+        // Test 10: Test top-K selection
+        System.out.println("Test 10: Top-K selection with a bounded heap");
+        EmployeeManagementSystem ems = new EmployeeManagementSystem();
+        System.out.println("Top 3 highest paid:");
+        for (Employee emp : ems.getTopEmployees(3, new SalaryComparator())) {
+            System.out.println("  " + emp);
+        }
+        System.out.println("First 2 by name: " + ems.getTopEmployees(2, new NameComparator()));
+        ArrayList<Employee> fullSort = new ArrayList<>(engineInput);
+        Collections.sort(fullSort, ageThenSalary);
+        List<Employee> parallelTop = EmployeeManagementSystem.topEmployees(engineInput.parallelStream(), 4, ageThenSalary);
+        System.out.println("Parallel stream top 4 equals first 4 of full sort: "
+            + fullSort.subList(0, 4).equals(parallelTop));
+        System.out.println("Top 0 is empty: " + ems.getTopEmployees(0, new SalaryComparator()).isEmpty());
+        System.out.println();
+        
+        // Test 11: Test sorted views
+        System.out.println("Test 11: Sorted views kept up to date on changes");
+        SortedEmployeeView ageView = ems.registerSortedView((e1, e2) -> Integer.compare(e1.getAge(), e2.getAge()));
+        List<Employee> beforeChanges = ageView.snapshot();
+        Employee newHire = new Employee("New Hire", 22, 50000.0);
+        ems.addEmployee(newHire);
+        System.out.println("Youngest after adding New Hire: " + ageView.snapshot().get(0).getName());
+        newHire.setAge(60);
+        System.out.println("Oldest after setAge(60): " + ageView.snapshot().get(ageView.size() - 1).getName());
+        newHire.setSalary(120000.0);
+        System.out.println("Highest paid after setSalary(120000): " + ems.getTopEmployees(1, new SalaryComparator()).get(0).getName());
+        try {
+            newHire.setName(null);
+        } catch (IllegalArgumentException e) {
+            System.out.println("setName(null) rejected: " + e.getMessage() + ", still in view: "
+                + ageView.snapshot().contains(newHire));
+        }
+        newHire.setName("Late Hire");
+        System.out.println("Renamed after the rejected change: " + newHire.getName());
+        ems.removeEmployee(newHire);
+        System.out.println("View size after removing New Hire: " + ageView.size());
+        System.out.println("Earlier snapshot unchanged: " + (beforeChanges.size() == 10) + ", youngest "
+            + beforeChanges.get(0).getName());
+        ArrayList<Employee> resorted = new ArrayList<>(beforeChanges);
+        Collections.sort(resorted, ageView.comparator());
+        System.out.println("View order equals Collections.sort: " + resorted.equals(ageView.snapshot()));
+        System.out.println();
+        
+        // Test 12: Test the external merge sort
+        System.out.println("Test 12: External merge sort of an employee file");
+        try {
+            Path input = Files.createTempFile("employees", ".csv");
+            Path output = Files.createTempFile("employees-sorted", ".csv");
+            List<Employee> fileEmployees = EmployeeSortBenchmark.generateEmployees(600, 11);
+            fileEmployees.add(new Employee("Garcia, Christopher", 34, 92000.0));
+            List<String> rows = new ArrayList<>();
+            rows.add("name,age,salary");
+            for (Employee emp : fileEmployees) {
+                rows.add(emp.getName() + "," + emp.getAge() + "," + emp.getSalary());
+            }
+            Files.write(input, rows);
+            for (String order : new String[] {"salary", "name", "age-salary"}) {
+                Comparator<Employee> comparator = EmployeeExternalSorter.comparatorFor(order);
+                // Runs of 2 rows give 301 runs, which needs two merge passes
+                EmployeeExternalSorter.Result result =
+                    EmployeeManagementSystem.sortEmployeeFile(input, output, comparator, 2, 3);
+                ArrayList<Employee> expected = new ArrayList<>(fileEmployees);
+                Collections.sort(expected, comparator);
+                List<String> sortedRows = Files.readAllLines(output);
+                boolean same = sortedRows.size() == expected.size() + 1;
+                for (int i = 0; same && i < expected.size(); i++) {
+                    Employee emp = expected.get(i);
+                    same = sortedRows.get(i + 1).equals(emp.getName() + "," + emp.getAge() + "," + emp.getSalary());
+                }
+                System.out.println("Sorted by " + order + ": " + result.getRowCount() + " rows, "
+                    + result.getRunCount() + " runs, " + result.getMergePasses() + " merge passes, same as Collections.sort: " + same);
+            }
+            Files.delete(input);
+            Files.delete(output);
+        } catch (IOException e) {
+            System.out.println("External sort failed: " + e.getMessage());
+        }
+        System.out.println();
+        
+        // Test 13: Test precomputed name sort keys
+        System.out.println("Test 13: Name sort keys give the same order as NameComparator");
+        ArrayList<Employee> names = new ArrayList<>();
+        for (String name : new String[] {"emma Johnson", "Emma johnson", "\u00c9mile Zola", "ZOE Adams",
+                "zoe adams", "Stra\u00dfe", "\u00b5 Mu", "\u03bc mu", "Istanbul", "\u0131stanbul", "Amy"}) {
+            names.add(new Employee(name, 30, 50000.0));
+        }
+        ArrayList<Employee> byComparator = new ArrayList<>(names);
+        Collections.sort(byComparator, new NameComparator());
+        List<Employee> byKeys = NameSortKeys.sortByName(names);
+        System.out.println("Same order as NameComparator: " + byComparator.equals(byKeys));
+        names.get(0).setName("Aaron Johnson");
+        System.out.println("Key refreshed after setName, first now: " + NameSortKeys.sortByName(names).get(0).getName());
+        List<Employee> collated = NameSortKeys.sortByName(names, Collator.getInstance(Locale.FRENCH));
+        System.out.println("French collation places accented Emile before ZOE: "
+            + (collated.indexOf(names.get(2)) < collated.indexOf(names.get(3))));
+        System.out.println();
+        
+        // Test 14: Test group-by aggregation
+        System.out.println("Test 14: Salary statistics grouped by age, age band and name initial");
+        EmployeeManagementSystem grouped = new EmployeeManagementSystem();
+        grouped.addEmployee(new Employee("Second Thirty", 30, 62000.0));
+        SalaryStats age30 = grouped.getSalaryStatsByAge().get(30);
+        System.out.println("Age 30: " + age30);
+        System.out.println("Age 30 average is (78000 + 62000) / 2: " + (age30.getAverage() == 70000.0));
+        System.out.println("Age bands (width 5): " + grouped.getSalaryStatsByAgeBand(5).keySet());
+        System.out.println("Employees with initial J: " + grouped.getSalaryStatsBy(e -> e.getName().charAt(0)).get('J').getCount());
+        List<Employee> many = EmployeeSortBenchmark.generateEmployees(200_000, 5);
+        SalaryStats parallelTotal = new SalaryStats();
+        EmployeeGroupBy.salaryByIntKey(many, EmployeeGroupBy.ageBand(10)).values().forEach(parallelTotal::merge);
+        long expectedCount = many.size();
+        double expectedMax = many.stream().mapToDouble(Employee::getSalary).max().getAsDouble();
+        System.out.println("Parallel group-by over 200,000 employees covers all of them: "
+            + (parallelTotal.getCount() == expectedCount && parallelTotal.getMax() == expectedMax));
+        System.out.println();
+        
+        // Test 15: Test the query planner
+        System.out.println("Test 15: Queries give the same result with every plan");
+        EmployeeManagementSystem queried = new EmployeeManagementSystem();
+        for (Employee employee : EmployeeSortBenchmark.generateEmployees(50_000, 9)) {
+            queried.addEmployee(employee);
+        }
+        EmployeeQuery selective = queried.query().whereAgeBetween(28, 29)
+            .orderBy(EmployeeSortEngine.SortKey.SALARY_DESCENDING).limit(10);
+        System.out.println("Plan for ages 28-29, top 10 by salary: " + selective.explain());
+        List<Employee> expectedQuery = queried.getEmployees().stream()
+            .filter(e -> e.getAge() >= 28 && e.getAge() <= 29)
+            .sorted(new SalaryComparator()).limit(10).collect(Collectors.toList());
+        boolean samePlans = true;
+        for (EmployeeQuery.Access access : EmployeeQuery.Access.values()) {
+            samePlans &= selective.list(access).equals(expectedQuery);
+        }
+        System.out.println("Every access path matches filter + sort + limit: " + (samePlans && selective.list().equals(expectedQuery)));
+        EmployeeQuery ranged = queried.query().whereSalaryBetween(40000, 60000).where(e -> e.getName().startsWith("E"))
+            .orderBy(EmployeeSortEngine.SortKey.AGE_ASCENDING, EmployeeSortEngine.SortKey.SALARY_ASCENDING);
+        List<Employee> expectedRanged = queried.getEmployees().stream()
+            .filter(e -> e.getSalary() >= 40000 && e.getSalary() <= 60000 && e.getName().startsWith("E"))
+            .sorted(EmployeeSortEngine.SortKey.AGE_ASCENDING.comparator()
+                .thenComparing(EmployeeSortEngine.SortKey.SALARY_ASCENDING.comparator()))
+            .collect(Collectors.toList());
+        System.out.println("Salary range with two sort keys (" + ranged.explain() + "): "
+            + (ranged.list().equals(expectedRanged) && ranged.list(EmployeeQuery.Access.SALARY_INDEX).equals(expectedRanged)));
+        System.out.println();
+        
+        // Test 16: Test compiled comparators
+        System.out.println("Test 16: Sort specs compiled into comparators");
+        List<Employee> specSorted = new ArrayList<>(many);
+        specSorted.sort(EmployeeSortSpec.comparator("salary desc"));
+        List<Employee> handSorted = new ArrayList<>(many);
+        handSorted.sort(new SalaryComparator());
+        System.out.println("\"salary desc\" matches SalaryComparator: " + specSorted.equals(handSorted));
+        EmployeeSortSpec mixed = EmployeeSortSpec.parse("Age DESC, name, nameLength desc");
+        specSorted = new ArrayList<>(many);
+        specSorted.sort(mixed.compile());
+        List<Employee> chainSorted = new ArrayList<>(many);
+        chainSorted.sort(mixed.chained());
+        System.out.println("\"" + mixed + "\" matches its thenComparing chain: " + specSorted.equals(chainSorted));
+        System.out.println("Compiled once per spec: " + (mixed.compile() == EmployeeSortSpec.comparator("age desc, name asc, nameLength desc")));
+        try {
+            EmployeeSortSpec.parse("age asc, bonus desc");
+            System.out.println("Unknown field accepted: false");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown field rejected: " + e.getMessage());
+        }
+        for (String emptyTerm : new String[] {"age,", "age, ,", ", age"}) {
+            try {
+                EmployeeSortSpec.parse(emptyTerm);
+                System.out.println("Empty term accepted in '" + emptyTerm + "'");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Empty term rejected: " + e.getMessage());
+            }
+        }
+        System.out.println();
+        
+        // Test 17: Test fuzzy name lookup
+        System.out.println("Test 17: Typo-tolerant name lookup");
+        EmployeeManagementSystem named = new EmployeeManagementSystem();
+        System.out.println("\"Jenifer Lee\" within 1 edit: " + named.findByName("Jenifer Lee", 1));
+        System.out.println("\"john smiht\" within 1 edit: " + named.findByName("john smiht", 1).size()
+            + ", within 2 edits: " + named.findByName("john smiht", 2).size());
+        for (Employee employee : EmployeeSortBenchmark.generateEmployees(20_000, 11)) {
+            named.addEmployee(employee);
+        }
+        named.getEmployees().get(3).setName("Sarah Davies");
+        boolean sameAsScan = true;
+        for (String query : new String[] {"Sara Davis", "Micheal Brwn", "lisa andersen", "X"}) {
+            List<Employee> scanned = new ArrayList<>();
+            for (int distance = 0; distance <= 2; distance++) {
+                for (Employee employee : named.getEmployees()) {
+                    if (EmployeeNameSearch.editDistance(query, employee.getName()) == distance) {
+                        scanned.add(employee);
+                    }
+                }
+            }
+            List<Employee> found = named.findByName(query, 2);
+            sameAsScan &= found.size() == scanned.size() && found.containsAll(scanned);
+        }
+        System.out.println("Index finds the same employees as a full scan: " + sameAsScan);
+        System.out.println();
+        
+        // Test 18: Test the salary quantile sketch
+        System.out.println("Test 18: Salary quantiles from a mergeable sketch");
+        System.out.println("Sample salaries: " + new EmployeeManagementSystem().getSalaryDistribution());
+        double[] exactSalaries = many.stream().mapToDouble(Employee::getSalary).sorted().toArray();
+        SalarySketch sequential = EmployeeManagementSystem.salaryDistribution(many.stream(), 0.01);
+        boolean withinOnePercent = true;
+        for (double q : new double[] {0.0, 0.5, 0.9, 0.99, 1.0}) {
+            double exact = exactSalaries[(int) (q * (exactSalaries.length - 1))];
+            withinOnePercent &= Math.abs(sequential.quantile(q) - exact) <= 0.01 * exact;
+        }
+        System.out.println("Median, p90 and p99 of 200,000 salaries within 1%: " + withinOnePercent
+            + " (" + sequential.getBucketCount() + " buckets)");
+        SalarySketch firstHalf = EmployeeManagementSystem.salaryDistribution(many.subList(0, 100_000).stream(), 0.01);
+        firstHalf.merge(EmployeeManagementSystem.salaryDistribution(many.subList(100_000, many.size()).parallelStream(), 0.01));
+        System.out.println("Merged and parallel sketches give the same quantiles: "
+            + (firstHalf.getMedian() == sequential.getMedian() && firstHalf.getP99() == sequential.getP99()
+            && firstHalf.getCount() == sequential.getCount()));
+        System.out.println();
+        
         System.out.println("=== All Tests Completed Successfully! ===");
         System.out.println("The Employee Management System is working correctly.");
         System.out.println("You can now run the full EmployeeManagementSystem class.");
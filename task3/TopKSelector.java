@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the first k employees of a comparator's order while employees stream past.
+ *
+ * The selector is a bounded binary heap whose root is the worst employee kept so far,
+ * so each offer costs O(log k) and n offers cost O(n log k) with O(k) memory, instead
+ * of copying and sorting all n employees. Every employee is tagged with its position
+ * in the input, and ties are broken by that position, so the result is exactly the
+ * first k elements of a stable sort (Collections.sort) with the same comparator.
+ *
+ * Selectors built over separate parts of an input can be merged, which is how the
+ * stream collector runs per-thread heaps on a parallel stream.
+ */
+public class TopKSelector {
+    private final int k;
+    private final Comparator<? super Employee> comparator;
+    private Employee[] heap;
+    private long[] positions;
+    private int size;
+    private long seen;
+
+    /**
+     * @param k Number of employees to keep
+     * @param comparator Order to select by; the first k of this order are kept
+     */
+    public TopKSelector(int k, Comparator<? super Employee> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (comparator == null) {
+            throw new IllegalArgumentException("Comparator is required");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        int capacity = Math.min(k, 16);
+        this.heap = new Employee[capacity];
+        this.positions = new long[capacity];
+    }
+
+    /**
+     * Selects the top k employees from an iterator without holding the rest in memory
+     * @param employees Employees to scan
+     * @param k Number of employees to return
+     * @param comparator Order to select by
+     * @return Up to k employees in comparator order
+     */
+    public static List<Employee> top(Iterator<? extends Employee> employees, int k,
+                                     Comparator<? super Employee> comparator) {
+        TopKSelector selector = new TopKSelector(k, comparator);
+        while (employees.hasNext()) {
+            selector.offer(employees.next());
+        }
+        return selector.toSortedList();
+    }
+
+    /**
+     * Selects the top k employees from a stream. A parallel stream keeps one heap per
+     * split and merges them, and the result is the same as for a sequential stream.
+     * @param employees Employees to scan
+     * @param k Number of employees to return
+     * @param comparator Order to select by
+     * @return Up to k employees in comparator order
+     */
+    public static List<Employee> top(Stream<? extends Employee> employees, int k,
+                                     Comparator<? super Employee> comparator) {
+        return employees.collect(collector(k, comparator));
+    }
+
+    /**
+     * @param k Number of employees to keep
+     * @param comparator Order to select by
+     * @return Collector producing up to k employees in comparator order
+     */
+    public static Collector<Employee, TopKSelector, List<Employee>> collector(int k,
+                                                                             Comparator<? super Employee> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        return Collector.of(() -> new TopKSelector(k, comparator), TopKSelector::offer,
+            TopKSelector::merge, TopKSelector::toSortedList);
+    }
+
+    /**
+     * Offers the next employee of the input
+     * @param employee Employee to consider
+     */
+    public void offer(Employee employee) {
+        insert(employee, seen++);
+    }
+
+    /**
+     * Adds the employees kept by a selector that covered the input directly after this one
+     * @param later Selector over the following part of the input
+     * @return This selector
+     */
+    public TopKSelector merge(TopKSelector later) {
+        long offset = seen;
+        for (int i = 0; i < later.size; i++) {
+            insert(later.heap[i], offset + later.positions[i]);
+        }
+        seen += later.seen;
+        return this;
+    }
+
+    /**
+     * @return Number of employees currently kept (at most k)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The kept employees in comparator order; the selector is not changed
+     */
+    public List<Employee> toSortedList() {
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, (a, b) -> compare(a, b));
+        List<Employee> sorted = new ArrayList<>(size);
+        for (int slot : slots) {
+            sorted.add(heap[slot]);
+        }
+        return sorted;
+    }
+
+    private void insert(Employee employee, long position) {
+        if (size < k) {
+            if (size == heap.length) {
+                int capacity = (int) Math.min(k, Math.max(16L, heap.length * 2L));
+                heap = Arrays.copyOf(heap, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+            heap[size] = employee;
+            positions[size] = position;
+            siftUp(size++);
+        } else if (k > 0 && isBetter(employee, position, 0)) {
+            heap[0] = employee;
+            positions[0] = position;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Order of the kept employees: comparator first, then input position
+     */
+    private int compare(int a, int b) {
+        int result = comparator.compare(heap[a], heap[b]);
+        return result != 0 ? result : Long.compare(positions[a], positions[b]);
+    }
+
+    private boolean isBetter(Employee employee, long position, int slot) {
+        int result = comparator.compare(employee, heap[slot]);
+        return result < 0 || (result == 0 && position < positions[slot]);
+    }
+
+    // The heap is a max-heap under compare: the worst kept employee is at the root
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(index, parent) <= 0) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && compare(child + 1, child) > 0) {
+                child++;
+            }
+            if (compare(child, index) <= 0) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Employee employee = heap[a];
+        heap[a] = heap[b];
+        heap[b] = employee;
+        long position = positions[a];
+        positions[a] = positions[b];
+        positions[b] = position;
+    }
+}